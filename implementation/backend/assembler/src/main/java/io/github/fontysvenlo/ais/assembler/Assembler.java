@@ -2,10 +2,13 @@ package io.github.fontysvenlo.ais.assembler;
 
 import java.util.Properties;
 
+import org.slf4j.bridge.SLF4JBridgeHandler;
+
 import io.github.fontysvenlo.ais.persistence.DBConfig;
 import io.github.fontysvenlo.ais.persistence.PersistenceFactory;
 
 import io.github.fontysvenlo.ais.businesslogic.BusinessLogicFactory;
+import io.github.fontysvenlo.ais.businesslogic.SearchCacheConfig;
 
 import io.github.fontysvenlo.ais.restapi.APIServer;
 import io.github.fontysvenlo.ais.restapi.ServerConfig;
@@ -23,31 +26,59 @@ public class Assembler {
 
     /**
      * Starts the application with the given configurations.
+     * This is the only place where the layers are created: every repository, manager and resource exists once
+     * and is shared by all requests.
+     * <p>
+     * On virtual threads the number of handlers is not bounded by a thread pool, so unless a limit is configured,
+     * no more requests are handled at the same time than the connection pool has connections.
      * @param dbConfig the database configuration
      * @param serverConfig the server configuration
+     * @return the started server
      */
-    public static void start(DBConfig dbConfig, ServerConfig serverConfig) {
+    public static APIServer start(DBConfig dbConfig, ServerConfig serverConfig) {
+        return start(dbConfig, serverConfig, SearchCacheConfig.defaults());
+    }
+
+    /**
+     * Starts the application with the given configurations.
+     * The in-memory flight search follows the search rules of the database configuration.
+     * @param dbConfig the database configuration
+     * @param serverConfig the server configuration
+     * @param searchCacheConfig the settings of the flight search result cache
+     * @return the started server
+     * @see #start(DBConfig, ServerConfig)
+     */
+    public static APIServer start(DBConfig dbConfig, ServerConfig serverConfig, SearchCacheConfig searchCacheConfig) {
 
         Persistence persistence = PersistenceFactory.getInstance(dbConfig);
 
-        BusinessLogic businessLogic = BusinessLogicFactory.getInstance(persistence);
+        BusinessLogic businessLogic = BusinessLogicFactory.getInstance(persistence, searchCacheConfig);
 
         APIServer restServer = new APIServer(businessLogic);
 
+        if (serverConfig.threadMode() == ServerConfig.ThreadMode.VIRTUAL && serverConfig.maxConcurrentRequests() == 0) {
+            serverConfig = serverConfig.withMaxConcurrentRequests(dbConfig.pool().maxSize());
+        }
         restServer.start(serverConfig);
+        return restServer;
     }
 
     /**
      * The main method starts the application from the properties files.
+     * The java.util.logging output of the persistence layer is sent to SLF4J, so all logging goes through the
+     * asynchronous appender of logback.xml.
      * @param args the command line arguments
      */
     public static void main(String[] args) {
+        SLF4JBridgeHandler.removeHandlersForRootLogger();
+        SLF4JBridgeHandler.install();
+
         Properties dbProperties = PropertiesLoader.loadProperties("db.properties");
         DBConfig databaseConfig = DBConfig.fromProperties(dbProperties, "aisdb");
 
         Properties serverProperties = PropertiesLoader.loadProperties("application.properties");
         ServerConfig serverConfig = ServerConfig.fromProperties(serverProperties);
 
-        start(databaseConfig, serverConfig);
+        start(databaseConfig, serverConfig, SearchCacheConfig.fromProperties(serverProperties));
     }
 }
\ No newline at end of file
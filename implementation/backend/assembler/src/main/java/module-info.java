@@ -14,4 +14,6 @@ module assembler_module {
     requires restapi_module;
 
     requires java.logging;
+    requires jul.to.slf4j;
+    requires org.slf4j;
 }
\ No newline at end of file
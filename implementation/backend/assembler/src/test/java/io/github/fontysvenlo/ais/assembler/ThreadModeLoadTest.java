@@ -0,0 +1,171 @@
+package io.github.fontysvenlo.ais.assembler;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.MountableFile;
+
+import io.github.fontysvenlo.ais.persistence.DBConfig;
+import io.github.fontysvenlo.ais.restapi.APIServer;
+import io.github.fontysvenlo.ais.restapi.ServerConfig;
+
+/**
+ * Compares the throughput of the platform-thread and the virtual-thread mode on the booking and search endpoints.
+ * Every mode gets its own server and connection pool on the same database, and is loaded by the same number of
+ * concurrent clients for the same time. The results are logged; the test only fails when requests fail.
+ * <p>
+ * This test takes a while, so it only runs with {@code -Dais.loadtest=true}. Clients and duration can be set with
+ * {@code -Dais.loadtest.clients} and {@code -Dais.loadtest.seconds}.
+ */
+@EnabledIfSystemProperty(named = "ais.loadtest", matches = "true")
+class ThreadModeLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModeLoadTest.class);
+    private static final int CLIENTS = Integer.getInteger("ais.loadtest.clients", 200);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("ais.loadtest.seconds", 10));
+    private static final int FIRST_PORT = 18080;
+    private static final int FLIGHTS = 15;
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("test")
+            .withUsername("test")
+            .withPassword("test")
+            .withCopyFileToContainer(MountableFile.forHostPath("../../../init.sql"), "/docker-entrypoint-initdb.d/init.sql");
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private static final List<APIServer> servers = new ArrayList<>();
+    private static int nextPort = FIRST_PORT;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        servers.forEach(APIServer::stop);
+        postgres.stop();
+    }
+
+    @Test
+    void testBookingThroughput() throws Exception {
+        for (ServerConfig.ThreadMode mode : ServerConfig.ThreadMode.values()) {
+            execute("DELETE FROM Booking");
+            String url = start(mode) + "/bookings";
+            Result result = load(() -> HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(randomBooking()))
+                    .build());
+            report(mode, "POST /bookings", result);
+            // 409 is a seat that was already taken, which is a handled request as well.
+            assertEquals(0, result.failed.get(), "failed requests");
+            assertTrue(result.handled.get() > 0);
+        }
+    }
+
+    @Test
+    void testSearchThroughput() throws Exception {
+        for (ServerConfig.ThreadMode mode : ServerConfig.ThreadMode.values()) {
+            String url = start(mode) + "/flights/search?departure=Amsterdam&arrival=London&datetime=2025-06-01T00:00:00Z";
+            Result result = load(() -> HttpRequest.newBuilder(URI.create(url)).GET().build());
+            report(mode, "GET /flights/search", result);
+            assertEquals(0, result.failed.get(), "failed requests");
+            assertTrue(result.handled.get() > 0);
+        }
+    }
+
+    private static String start(ServerConfig.ThreadMode mode) {
+        int port = nextPort++;
+        DBConfig dbConfig = new DBConfig("load-" + port, postgres.getHost(), postgres.getFirstMappedPort(), "test",
+                "public", "test", "test");
+        servers.add(Assembler.start(dbConfig, new ServerConfig(port, 5173, mode, 0, 5_000)));
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    private static Result load(Supplier<HttpRequest> requests) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        List<Thread> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        int status = client.send(requests.get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 503) {
+                            result.rejected.incrementAndGet();
+                        } else if (status < 500) {
+                            result.handled.incrementAndGet();
+                        } else {
+                            result.failed.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        result.failed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        return result;
+    }
+
+    private static void report(ServerConfig.ThreadMode mode, String endpoint, Result result) {
+        logger.atInfo()
+                .addKeyValue("mode", mode)
+                .addKeyValue("endpoint", endpoint)
+                .addKeyValue("requestsPerSecond", String.format("%.1f", result.handled.get() / (double) DURATION.toSeconds()))
+                .addKeyValue("handled", result.handled.get())
+                .addKeyValue("rejected", result.rejected.get())
+                .addKeyValue("failed", result.failed.get())
+                .log("Load test result");
+    }
+
+    private static String randomBooking() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int seat = random.nextInt(60);
+        String seatNumber = (seat / 6 + 1) + String.valueOf((char) ('A' + seat % 6));
+        return "{\"flightId\":" + (1 + random.nextInt(FLIGHTS)) + ",\"price\":150.00,\"luggage\":false,\"food\":false,"
+                + "\"classType\":\"Economy\",\"seatNumber\":\"" + seatNumber + "\",\"customerEmail\":\"john.doe@example.com\","
+                + "\"customerName\":\"John Doe\",\"paid\":true}";
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static final class Result {
+        final AtomicLong handled = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+    }
+}
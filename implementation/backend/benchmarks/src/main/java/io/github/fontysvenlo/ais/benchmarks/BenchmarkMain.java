@@ -0,0 +1,39 @@
+package io.github.fontysvenlo.ais.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Entry point of benchmarks.jar. Runs the JMH benchmarks with the given JMH command line options and,
+ * unless a result file is given, writes the results as JSON to {@value #DEFAULT_RESULT_FILE}, so runs
+ * of different releases can be compared.
+ * <p>
+ * Examples: {@code java -jar benchmarks.jar}, {@code java -jar benchmarks.jar FlightSearch -p flights=10000}.
+ */
+public final class BenchmarkMain {
+    static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     * @param args JMH command line options
+     * @throws RunnerException if JMH fails
+     * @throws IOException if the options cannot be parsed
+     */
+    public static void main(String[] args) throws RunnerException, IOException {
+        String[] options = args;
+        if (Arrays.stream(args).noneMatch(arg -> arg.equals("-rf") || arg.equals("-rff"))) {
+            options = Arrays.copyOf(args, args.length + 4);
+            options[args.length] = "-rf";
+            options[args.length + 1] = "json";
+            options[args.length + 2] = "-rff";
+            options[args.length + 3] = DEFAULT_RESULT_FILE;
+        }
+        Main.main(options);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.fontysvenlo.ais.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.fontysvenlo.ais.businesslogic.BookingManagerImpl;
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.exceptions.InvalidBookingDataException;
+import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
+
+/**
+ * Validation in {@link BookingManagerImpl}, for single bookings and for a full batch. The repository
+ * stores nothing, so only the validation is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingValidationBenchmark {
+    private final BookingManagerImpl manager = new BookingManagerImpl(new DiscardingRepository());
+    private final BookingData valid = booking("5C", "John Doe");
+    private final BookingData invalidName = booking("5C", "john doe");
+    private List<BookingData> batch;
+
+    @Setup
+    public void setUp() {
+        batch = new ArrayList<>();
+        for (int seat = 0; seat < 60; seat++) {
+            batch.add(booking((seat / 6 + 1) + String.valueOf((char) ('A' + seat % 6)), "John Doe"));
+        }
+    }
+
+    @Benchmark
+    public BookingData validBooking() throws Exception {
+        return manager.createBooking(valid);
+    }
+
+    @Benchmark
+    public Object invalidBooking() throws Exception {
+        try {
+            return manager.createBooking(invalidName);
+        } catch (InvalidBookingDataException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public List<BookingResult> batchOfSixty() throws Exception {
+        return manager.createBookings(batch);
+    }
+
+    private static BookingData booking(String seat, String name) {
+        return new BookingData(null, 1, new BigDecimal("150.00"), false, false, "Economy", seat,
+                "john.doe@example.com", name, true);
+    }
+
+    /**
+     * Accepts every booking without storing it.
+     */
+    private static final class DiscardingRepository implements BookingRepository {
+        @Override
+        public BookingData createBooking(BookingData booking) {
+            return booking;
+        }
+
+        @Override
+        public List<BookingResult> createBookings(List<BookingData> bookings) {
+            List<BookingResult> results = new ArrayList<>(bookings.size());
+            for (int i = 0; i < bookings.size(); i++) {
+                results.add(new BookingResult(i, BookingResult.Status.BOOKED, bookings.get(i), null));
+            }
+            return results;
+        }
+
+        @Override
+        public boolean isSeatAvailable(int flightId, String seatNumber) {
+            return true;
+        }
+
+        @Override
+        public boolean isFlightFull(int flightId) {
+            return false;
+        }
+
+        @Override
+        public int getAvailableSeatsCount(int flightId) {
+            return 60;
+        }
+
+        @Override
+        public List<String> getBookedSeats(int flightId) {
+            return List.of();
+        }
+
+        @Override
+        public String suggestNextSeat(int flightId) {
+            return "1A";
+        }
+
+        @Override
+        public FlightCapacityData getFlightCapacity(int flightId) {
+            return null;
+        }
+
+        @Override
+        public Map<Integer, FlightCapacityData> getFlightCapacities(Collection<Integer> flightIds) {
+            return Map.of();
+        }
+    }
+}
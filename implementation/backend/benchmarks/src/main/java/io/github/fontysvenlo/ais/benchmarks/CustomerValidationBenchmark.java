@@ -0,0 +1,48 @@
+package io.github.fontysvenlo.ais.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.fontysvenlo.ais.businesslogic.Customer;
+import io.github.fontysvenlo.ais.datarecords.CustomerData;
+
+/**
+ * Validation of new customers by {@link Customer#createCustomer(CustomerData)}: a valid customer, which runs
+ * every check, and a customer with an invalid phone number, which fails on the last check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerValidationBenchmark {
+    private final CustomerData valid =
+            new CustomerData("John", "Doe", LocalDate.of(1990, 5, 15), "john.doe@example.com", "+31 6 12345678");
+    private final CustomerData invalidPhone =
+            new CustomerData("John", "Doe", LocalDate.of(1990, 5, 15), "john.doe@example.com", "06-12345678");
+
+    @Benchmark
+    public Customer validCustomer() {
+        return Customer.createCustomer(valid);
+    }
+
+    @Benchmark
+    public Object invalidCustomer() {
+        try {
+            return Customer.createCustomer(invalidPhone);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.fontysvenlo.ais.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
+
+/**
+ * What a ranked search costs per itinerary after the search itself: ranking by earliest arrival and writing
+ * the itinerary as JSON. {@code epoch} uses {@link FlightData}, which keeps its times as epoch seconds and
+ * formats them while writing; {@code text} is the former flight with its times as strings, which the
+ * ranking parsed on every comparison. Both write the same JSON.
+ * <p>
+ * Scores are per itinerary. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes
+ * allocated per itinerary, e.g. {@code java -jar benchmarks.jar ItineraryAllocation -prof gc}.
+ * <p>
+ * Result of one run on a development machine (Java 21, allocation read from the thread's allocation counter):
+ * {@code text} allocates about 41 KB and takes about 29 &micro;s per itinerary, nearly all of it from parsing the
+ * times on every comparison. {@code epoch} allocated about 184 bytes while the serializer created a 19-character
+ * buffer per flight. With one buffer per thread it allocates about 72 bytes and takes about 0.7-0.9 &micro;s. The rest
+ * is the copied list, the sort and Jackson's per-call state, not the flights themselves. Expect other numbers on
+ * other hardware; compare the two methods against each other rather than with these numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItineraryAllocationBenchmark {
+    private static final int ITINERARIES = 1000;
+    private static final long START = FlightData.toEpochSecond("2025-06-01T06:00:00");
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private final Comparator<List<FlightData>> ranking = ItineraryRanking.EARLIEST_ARRIVAL.comparator();
+    private List<List<FlightData>> epochItineraries;
+    private List<List<TextFlight>> textItineraries;
+
+    @Setup
+    public void setUp() {
+        epochItineraries = new ArrayList<>(ITINERARIES);
+        textItineraries = new ArrayList<>(ITINERARIES);
+        for (int i = 0; i < ITINERARIES; i++) {
+            // Departures spread over a week, in an order the ranking has to change.
+            long departure = START + (i * 7_919L) % (7 * 24 * 60) * 60;
+            FlightData first = new FlightData(2 * i, "Amsterdam", "Paris", departure, departure + 75 * 60);
+            FlightData second = new FlightData(2 * i + 1, "Paris", "London", departure + 3 * 3_600, departure + 3 * 3_600 + 75 * 60);
+            epochItineraries.add(List.of(first, second));
+            textItineraries.add(List.of(TextFlight.of(first), TextFlight.of(second)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITINERARIES)
+    public void epoch() throws IOException {
+        List<List<FlightData>> ranked = new ArrayList<>(epochItineraries);
+        ranked.sort(ranking);
+        mapper.writeValue(out, ranked);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITINERARIES)
+    public void text() throws IOException {
+        List<List<TextFlight>> ranked = new ArrayList<>(textItineraries);
+        ranked.sort(TextFlight.EARLIEST_ARRIVAL);
+        mapper.writeValue(out, ranked);
+    }
+
+    /**
+     * A flight as it was before its times became epoch seconds.
+     */
+    public record TextFlight(Integer flightNumber, String flightDeparture, String flightDestination, String departureTime,
+            String arrivalTime) {
+
+        static final Comparator<List<TextFlight>> EARLIEST_ARRIVAL = (a, b) -> {
+            int result = ItineraryRanking.EARLIEST_ARRIVAL.compare(
+                    epochSecond(a.get(a.size() - 1).arrivalTime()), epochSecond(a.get(0).departureTime()), a.size(),
+                    epochSecond(b.get(b.size() - 1).arrivalTime()), epochSecond(b.get(0).departureTime()), b.size());
+            for (int i = 0; result == 0 && i < Math.min(a.size(), b.size()); i++) {
+                result = Integer.compare(a.get(i).flightNumber(), b.get(i).flightNumber());
+            }
+            return result;
+        };
+
+        static TextFlight of(FlightData flight) {
+            return new TextFlight(flight.flightNumber(), flight.flightDeparture(), flight.flightDestination(),
+                    flight.departureTime(), flight.arrivalTime());
+        }
+
+        private static long epochSecond(String time) {
+            return LocalDateTime.parse(time).atZone(FlightData.TIMETABLE_ZONE).toEpochSecond();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.fontysvenlo.ais.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+
+/**
+ * JSON (de)serialization of the records the REST API sends and receives most, with a plain ObjectMapper
+ * like the one Javalin uses by default.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+    private static final TypeReference<List<List<FlightData>>> ITINERARIES = new TypeReference<>() { };
+
+    /**
+     * Number of itineraries in a search result.
+     */
+    @Param({"10", "1000"})
+    public int itineraries;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private BookingData booking;
+    private String bookingJson;
+    private FlightCapacityData capacity;
+    private String capacityJson;
+    private List<List<FlightData>> searchResult;
+    private String searchResultJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        booking = new BookingData(1, 3, new BigDecimal("150.00"), true, false, "Economy", "5C",
+                "john.doe@example.com", "John Doe", true);
+        bookingJson = mapper.writeValueAsString(booking);
+
+        List<String> seats = new ArrayList<>();
+        for (int seat = 0; seat < 45; seat++) {
+            seats.add((seat / 6 + 1) + String.valueOf((char) ('A' + seat % 6)));
+        }
+        capacity = new FlightCapacityData(3, "London", "Amsterdam", "2025-07-01", 60, 45, 15, false, 75.0, seats);
+        capacityJson = mapper.writeValueAsString(capacity);
+
+        searchResult = new ArrayList<>(itineraries);
+        for (int i = 0; i < itineraries; i++) {
+            searchResult.add(List.of(
+                    new FlightData(i, "Amsterdam", "Paris", "2025-06-01T10:00:00", "2025-06-01T11:15:00"),
+                    new FlightData(i + 1, "Paris", "London", "2025-06-01T13:00:00", "2025-06-01T14:15:00")));
+        }
+        searchResultJson = mapper.writeValueAsString(searchResult);
+    }
+
+    @Benchmark
+    public String writeBooking() throws JsonProcessingException {
+        return mapper.writeValueAsString(booking);
+    }
+
+    @Benchmark
+    public BookingData readBooking() throws JsonProcessingException {
+        return mapper.readValue(bookingJson, BookingData.class);
+    }
+
+    @Benchmark
+    public String writeCapacity() throws JsonProcessingException {
+        return mapper.writeValueAsString(capacity);
+    }
+
+    @Benchmark
+    public FlightCapacityData readCapacity() throws JsonProcessingException {
+        return mapper.readValue(capacityJson, FlightCapacityData.class);
+    }
+
+    @Benchmark
+    public String writeSearchResult() throws JsonProcessingException {
+        return mapper.writeValueAsString(searchResult);
+    }
+
+    @Benchmark
+    public List<List<FlightData>> readSearchResult() throws JsonProcessingException {
+        return mapper.readValue(searchResultJson, ITINERARIES);
+    }
+}
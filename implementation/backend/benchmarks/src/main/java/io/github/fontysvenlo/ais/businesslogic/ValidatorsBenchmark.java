@@ -0,0 +1,74 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The scanners in {@link Validators} against the regular expressions they replaced, per field rule:
+ * {@link String#matches(String)} as the code used to call it, and a precompiled {@link Pattern}.
+ * <p>
+ * This benchmark lives in the businesslogic package because Validators is not public.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorsBenchmark {
+
+    @Param({"name", "email", "phone", "seat", "customerName"})
+    public String rule;
+
+    private String regex;
+    private Pattern pattern;
+    private Predicate<String> scanner;
+    private String value;
+
+    @Setup
+    public void setUp() {
+        switch (rule) {
+            case "name" -> use("^[\\p{L} ]+$", Validators::isLettersAndSpaces, "Anne Marie");
+            case "email" -> use("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$", Validators::isEmail, "john.doe@example.com");
+            case "phone" -> use("^[+]?[0-9\\s]+$", Validators::isPhoneNumber, "+31 6 12345678");
+            case "seat" -> use("^([1-9]|10)[A-F]$", Validators::isSeatNumber, "10F");
+            case "customerName" -> use("^[A-Z][a-z]+\\s+[A-Z][a-z]+.*$", Validators::isCapitalizedName, "John Smith");
+            default -> throw new IllegalArgumentException("Unknown rule " + rule);
+        }
+    }
+
+    @Benchmark
+    public boolean stringMatches() {
+        return value.matches(regex);
+    }
+
+    @Benchmark
+    public boolean compiledPattern() {
+        return pattern.matcher(value).matches();
+    }
+
+    @Benchmark
+    public boolean scanner() {
+        return scanner.test(value);
+    }
+
+    private void use(String regex, Predicate<String> scanner, String value) {
+        this.regex = regex;
+        this.pattern = Pattern.compile(regex);
+        this.scanner = scanner;
+        this.value = value;
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+
+/**
+ * {@link FlightRepositoryImpl#search} against a generated timetable in PostgreSQL (Docker is required),
+ * once with the recursive query in the database and once with the in-memory timetable.
+ * The timetable size is set with {@code -p airports=...,flights=...,days=...}.
+ * <p>
+ * This benchmark lives in the persistence package because the repository and its timetable are not public.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlightSearchBenchmark {
+    private static final int QUERIES = 16;
+    private static final long START = Instant.parse("2025-06-01T00:00:00Z").getEpochSecond();
+
+    @Param({"50"})
+    public int airports;
+
+    @Param({"1000", "5000"})
+    public int flights;
+
+    @Param({"30"})
+    public int days;
+
+    @Param({"sql", "timetable"})
+    public String source;
+
+    private SyntheticTimetable database;
+    private ConnectionPool pool;
+    private TimetableCache timetable;
+    private FlightRepositoryImpl repository;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new SyntheticTimetable(airports, flights, days, 42);
+        pool = new ConnectionPool(database.dataSource(), PoolConfig.defaults());
+        if ("timetable".equals(source)) {
+            timetable = new TimetableCache(database.dataSource());
+        }
+        repository = new FlightRepositoryImpl(pool, timetable);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (timetable != null) {
+            timetable.close();
+        }
+        pool.close();
+        database.close();
+    }
+
+    /**
+     * Searches between a rotating set of airport pairs, so not every call asks the same question.
+     * @return the itineraries
+     */
+    @Benchmark
+    public List<List<FlightData>> search() {
+        int i = query++ % QUERIES;
+        return repository.search(SyntheticTimetable.airport(i % airports), SyntheticTimetable.airport((i * 7 + 3) % airports),
+                START);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.MountableFile;
+
+/**
+ * A PostgreSQL container created from init.sql whose flights table is replaced by a generated timetable.
+ * Airports are named {@code AP000}, {@code AP001}, ...; flights depart at random times from {@link #FIRST_DAY}
+ * on and take one to four hours. The same sizes and seed always produce the same timetable.
+ */
+final class SyntheticTimetable implements AutoCloseable {
+    static final LocalDateTime FIRST_DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+    private static final int BATCH_SIZE = 1_000;
+
+    private final PostgreSQLContainer<?> postgres;
+
+    /**
+     * Starts the database and generates the timetable.
+     * @param airports number of airports
+     * @param flights number of flights
+     * @param days number of days the flights are spread over
+     * @param seed seed of the random generator
+     * @throws SQLException if the timetable cannot be stored
+     */
+    SyntheticTimetable(int airports, int flights, int days, long seed) throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                .withDatabaseName("benchmark")
+                .withUsername("benchmark")
+                .withPassword("benchmark")
+                .withCopyFileToContainer(MountableFile.forHostPath("../../../init.sql"), "/docker-entrypoint-initdb.d/init.sql");
+        postgres.start();
+        try {
+            generate(airports, flights, days, seed);
+        } catch (SQLException | RuntimeException e) {
+            postgres.stop();
+            throw e;
+        }
+    }
+
+    /**
+     * A DataSource that opens unpooled connections to the database.
+     * @return the DataSource
+     */
+    PGSimpleDataSource dataSource() {
+        PGSimpleDataSource source = new PGSimpleDataSource();
+        source.setUrl(postgres.getJdbcUrl());
+        source.setUser(postgres.getUsername());
+        source.setPassword(postgres.getPassword());
+        return source;
+    }
+
+    static String airport(int index) {
+        return String.format("AP%03d", index);
+    }
+
+    @Override
+    public void close() {
+        postgres.stop();
+    }
+
+    private void generate(int airports, int flights, int days, long seed) throws SQLException {
+        Random random = new Random(seed);
+        try (Connection connection = dataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("TRUNCATE flights CASCADE");
+            }
+            String sql = "INSERT INTO flights (departure, arrival, departuretime, arrivaltime) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                for (int i = 0; i < flights; i++) {
+                    int from = random.nextInt(airports);
+                    int to = (from + 1 + random.nextInt(airports - 1)) % airports;
+                    LocalDateTime departure = FIRST_DAY.plusMinutes(random.nextInt(days * 24 * 60));
+                    stmt.setString(1, airport(from));
+                    stmt.setString(2, airport(to));
+                    stmt.setTimestamp(3, Timestamp.valueOf(departure));
+                    stmt.setTimestamp(4, Timestamp.valueOf(departure.plusMinutes(60 + random.nextInt(180))));
+                    stmt.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            connection.commit();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ANALYZE flights");
+            }
+        }
+    }
+}
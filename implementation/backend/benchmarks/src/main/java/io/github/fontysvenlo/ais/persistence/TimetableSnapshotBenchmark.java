@@ -0,0 +1,133 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
+
+/**
+ * Searches in a large in-memory {@link TimetableSnapshot}, without a database. The timetable is generated
+ * like {@link SyntheticTimetable} does and loaded through the same builder as the flights table.
+ * Before the measurement the heap taken by the snapshot is printed, next to the heap the same flights take
+ * as a list of FlightData, which is how the timetable was kept before it was stored as columns.
+ * Large timetables need a larger heap, e.g. {@code -p flights=5000000 -jvmArgs -Xmx4g}.
+ * <p>
+ * The search is limited to three flights within a day with 30 minutes to 4 hours between flights; without
+ * limits the number of itineraries in a timetable of this size is far too large to enumerate.
+ * This benchmark lives in the persistence package because the snapshot is not public.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TimetableSnapshotBenchmark {
+    private static final int QUERIES = 16;
+    private static final FlightSearchConfig RULES = new FlightSearchConfig(3, 30, 240, 24 * 60);
+
+    @Param({"1000"})
+    public int airports;
+
+    @Param({"1000000"})
+    public int flights;
+
+    @Param({"30"})
+    public int days;
+
+    private TimetableSnapshot snapshot;
+    private long start;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        start = SyntheticTimetable.FIRST_DAY.toEpochSecond(ZoneOffset.UTC);
+
+        long before = usedHeap();
+        List<FlightData> list = generateList();
+        long listBytes = usedHeap() - before;
+        list = null;
+
+        before = usedHeap();
+        snapshot = generateSnapshot();
+        long snapshotBytes = usedHeap() - before;
+
+        System.out.printf("%n%d flights: %d MB as columns (%d bytes per flight), %d MB as FlightData (%d bytes per flight)%n",
+                flights, snapshotBytes >> 20, snapshotBytes / flights, listBytes >> 20, listBytes / flights);
+    }
+
+    /**
+     * Searches between a rotating set of airport pairs.
+     * @return the itineraries
+     */
+    @Benchmark
+    public List<List<FlightData>> search() {
+        int i = query++ % QUERIES;
+        return snapshot.search(SyntheticTimetable.airport(i % airports), SyntheticTimetable.airport((i * 7 + 3) % airports),
+                start, RULES);
+    }
+
+    /**
+     * The five earliest arrivals between the same airport pairs, which only scans the flights reachable from
+     * the departure airport and stops following flights that cannot beat the ones kept.
+     * @return the itineraries
+     */
+    @Benchmark
+    public List<List<FlightData>> ranked() {
+        int i = query++ % QUERIES;
+        return snapshot.search(SyntheticTimetable.airport(i % airports), SyntheticTimetable.airport((i * 7 + 3) % airports),
+                start, RULES, ItineraryRanking.EARLIEST_ARRIVAL, 5);
+    }
+
+    private TimetableSnapshot generateSnapshot() {
+        TimetableSnapshot.Builder builder = new TimetableSnapshot.Builder();
+        Random random = new Random(42);
+        for (int id = 1; id <= flights; id++) {
+            int from = random.nextInt(airports);
+            int to = (from + 1 + random.nextInt(airports - 1)) % airports;
+            long departure = start + random.nextInt(days * 24 * 60) * 60L;
+            long arrival = departure + (60 + random.nextInt(180)) * 60L;
+            // A new String per row, as a JDBC driver returns them.
+            builder.add(id, SyntheticTimetable.airport(from), SyntheticTimetable.airport(to), departure, arrival);
+        }
+        return builder.build(0);
+    }
+
+    private List<FlightData> generateList() {
+        List<FlightData> list = new ArrayList<>(flights);
+        Random random = new Random(42);
+        for (int id = 1; id <= flights; id++) {
+            int from = random.nextInt(airports);
+            int to = (from + 1 + random.nextInt(airports - 1)) % airports;
+            long departure = start + random.nextInt(days * 24 * 60) * 60L;
+            long arrival = departure + (60 + random.nextInt(180)) * 60L;
+            list.add(new FlightData(id, SyntheticTimetable.airport(from), SyntheticTimetable.airport(to), departure, arrival));
+        }
+        return list;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
+
+/**
+ * The recursive path query of {@link FlightRepositoryImpl} on a generated network in PostgreSQL (Docker is
+ * required), with the rules set by {@code -p rules=...}:
+ * <ul>
+ * <li>legacy: the query before airports were tracked, which follows every loop up to six flights;</li>
+ * <li>acyclic: the default rules, no airport visited twice;</li>
+ * <li>windowed: no airport visited twice, 30 minutes to 6 hours between flights and at most a day of travel.</li>
+ * </ul>
+ * Only the path query is measured; loading the legs is the same for all rules. Before the measurement the
+ * number of rows the recursion produced and the number of itineraries found are printed, totalled over the
+ * searched airport pairs.
+ * <p>
+ * This benchmark lives in the persistence package because the query is not public.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferQueryBenchmark {
+    private static final int QUERIES = 16;
+    private static final Timestamp START = Timestamp.from(Instant.parse("2025-06-01T00:00:00Z"));
+
+    private static final String LEGACY_FLIGHT_PATHS =
+        "WITH RECURSIVE flight_paths AS (" +
+        "   SELECT f1.id, f1.departure, f1.arrival, f1.departuretime as min_departure, f1.arrivaltime, ARRAY[f1.id] AS path " +
+        "   FROM flights f1 " +
+        "   WHERE f1.departure = ? AND f1.departuretime >= ? " +
+        "   UNION ALL " +
+        "   SELECT f2.id, f2.departure, f2.arrival, f2.departuretime, f2.arrivaltime, fp.path || f2.id " +
+        "   FROM flights f2 " +
+        "   JOIN flight_paths fp ON f2.departure = fp.arrival " +
+        "   WHERE f2.departuretime >= fp.arrivaltime " +
+        "   AND f2.departuretime >= fp.min_departure " +
+        "   AND array_length(fp.path, 1) < 6 " +
+        ") ";
+    private static final String ITINERARIES = "SELECT fp.path FROM flight_paths fp WHERE fp.arrival = ?";
+    private static final String EXPANDED = "SELECT count(*) FROM flight_paths";
+
+    @Param({"500"})
+    public int airports;
+
+    @Param({"5000"})
+    public int flights;
+
+    @Param({"7"})
+    public int days;
+
+    @Param({"legacy", "acyclic", "windowed"})
+    public String rules;
+
+    private SyntheticTimetable database;
+    private Connection connection;
+    private String flightPaths;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = new SyntheticTimetable(airports, flights, days, 42);
+        connection = database.dataSource().getConnection();
+        if ("legacy".equals(rules)) {
+            // The legacy query compares airports as they are stored, which idx_flight_search on lower(departure) cannot serve.
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE INDEX idx_flight_search_legacy ON flights(departure, departuretime) INCLUDE (arrival, arrivaltime, id)");
+                stmt.execute("ANALYZE flights");
+            }
+        }
+        flightPaths = switch (rules) {
+            case "legacy" -> LEGACY_FLIGHT_PATHS;
+            case "acyclic" -> FlightRepositoryImpl.flightPaths(FlightSearchConfig.defaults());
+            case "windowed" -> FlightRepositoryImpl.flightPaths(new FlightSearchConfig(6, 30, 6 * 60, 24 * 60));
+            default -> throw new IllegalArgumentException("Unknown rules: " + rules);
+        };
+
+        long expanded = 0;
+        long itineraries = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            try (PreparedStatement stmt = prepare(flightPaths + EXPANDED, i, false); ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                expanded += rs.getLong(1);
+            }
+            itineraries += itineraries(i);
+        }
+        System.out.printf("%n%s: %d rows expanded, %d itineraries for %d airport pairs%n", rules, expanded, itineraries, QUERIES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        database.close();
+    }
+
+    /**
+     * Runs the path query for a rotating set of airport pairs and reads all paths.
+     * @return the number of itineraries
+     * @throws SQLException if the query fails
+     */
+    @Benchmark
+    public int paths() throws SQLException {
+        return itineraries(query++ % QUERIES);
+    }
+
+    private int itineraries(int pair) throws SQLException {
+        int count = 0;
+        try (PreparedStatement stmt = prepare(flightPaths + ITINERARIES, pair, true); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rs.getArray(1).getArray();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private PreparedStatement prepare(String sql, int pair, boolean itineraries) throws SQLException {
+        String departure = SyntheticTimetable.airport(pair % airports);
+        String arrival = SyntheticTimetable.airport((pair * 7 + 3) % airports);
+        if (!"legacy".equals(rules)) {
+            // The current query compares airports in lower case.
+            departure = FlightRepository.airportKey(departure);
+            arrival = FlightRepository.airportKey(arrival);
+        }
+        PreparedStatement stmt = connection.prepareStatement(sql);
+        int index = 1;
+        stmt.setString(index++, departure);
+        stmt.setTimestamp(index++, START);
+        if (!"legacy".equals(rules)) {
+            // The current query stops paths at the arrival airport.
+            stmt.setString(index++, arrival);
+        }
+        if (itineraries) {
+            stmt.setString(index, arrival);
+        }
+        return stmt;
+    }
+}
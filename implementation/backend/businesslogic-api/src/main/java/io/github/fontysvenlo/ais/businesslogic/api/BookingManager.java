@@ -3,8 +3,10 @@ package io.github.fontysvenlo.ais.businesslogic.api;
 import java.util.List;
 
 import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
 import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
 import io.github.fontysvenlo.ais.exceptions.InvalidBookingDataException;
+import io.github.fontysvenlo.ais.persistence.api.FlightNotFoundException;
 import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
 
 public interface BookingManager {
@@ -16,11 +18,21 @@ public interface BookingManager {
      * @throws SeatNotAvailableException if the seat is not available or there is an error checking availability
      */
     BookingData createBooking(BookingData booking) throws InvalidBookingDataException, SeatNotAvailableException;
+
+    /**
+     * Creates several bookings at once, e.g. every leg of an itinerary for every traveller of a group.
+     * All bookings are validated first, and they are stored all or nothing.
+     * @param bookings the bookings
+     * @return per booking, in the same order, whether it was booked and if not, why
+     * @throws InvalidBookingDataException if the list itself is missing, empty or too large
+     */
+    List<BookingResult> createBookings(List<BookingData> bookings) throws InvalidBookingDataException;
     
     /**
      * Checks if a flight is full (no more seats available).
      * @param flightId the flight ID
      * @return true if the flight is full, false otherwise
+     * @throws FlightNotFoundException if the flight does not exist
      * @throws SeatNotAvailableException if there is an error checking flight capacity
      */
     boolean isFlightFull(int flightId) throws SeatNotAvailableException;
@@ -29,6 +41,7 @@ public interface BookingManager {
      * Gets the number of available seats for a flight.
      * @param flightId the flight ID
      * @return the number of available seats
+     * @throws FlightNotFoundException if the flight does not exist
      * @throws SeatNotAvailableException if there is an error checking availability
      */
     int getAvailableSeatsCount(int flightId) throws SeatNotAvailableException;
@@ -37,6 +50,7 @@ public interface BookingManager {
      * Gets all booked seats for a flight in sorted order.
      * @param flightId the flight ID
      * @return list of booked seat numbers (e.g., ["1A", "1B", "2C"])
+     * @throws FlightNotFoundException if the flight does not exist
      * @throws SeatNotAvailableException if there is an error retrieving booked seats
      */
     List<String> getBookedSeats(int flightId) throws SeatNotAvailableException;
@@ -45,6 +59,7 @@ public interface BookingManager {
      * Suggests the next available seat for a flight (smart assignment).
      * @param flightId the flight ID
      * @return the next available seat number, or null if flight is full
+     * @throws FlightNotFoundException if the flight does not exist
      * @throws SeatNotAvailableException if there is an error suggesting a seat
      */
     String suggestNextSeat(int flightId) throws SeatNotAvailableException;
@@ -53,6 +68,7 @@ public interface BookingManager {
      * Gets complete flight capacity information.
      * @param flightId the flight ID
      * @return FlightCapacityData with all capacity details
+     * @throws FlightNotFoundException if the flight does not exist
      * @throws SeatNotAvailableException if there is an error retrieving capacity data
      */
     FlightCapacityData getFlightCapacity(int flightId) throws SeatNotAvailableException;
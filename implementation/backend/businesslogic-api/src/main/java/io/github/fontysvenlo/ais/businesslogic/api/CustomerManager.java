@@ -1,10 +1,13 @@
 package io.github.fontysvenlo.ais.businesslogic.api;
 
 import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
 import io.github.fontysvenlo.ais.exceptions.DuplicateEmailException;
 import io.github.fontysvenlo.ais.exceptions.PersistenceException;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interface for objects that are able to manage Customers.
@@ -26,6 +29,44 @@ public interface CustomerManager {
      */
     public List<CustomerData> list();
 
+    /**
+     * Retrieve one customer by email.
+     *
+     * @param email the email of the customer
+     * @return the customer, or empty if it does not exist
+     */
+    public Optional<CustomerData> get(String email);
+
+    /**
+     * Search customers by first name, last name or phone number.
+     * A query of only digits and phone separators searches phone numbers, anything else searches names
+     * by prefix and by similarity.
+     *
+     * @param query the search text
+     * @param limit the maximum number of results
+     * @return the matching customers, best matches first
+     * @throws IllegalArgumentException if the query is blank, a phone query has fewer than three digits,
+     *         or the limit is out of range
+     */
+    public List<CustomerData> search(String query, int limit);
+
+    /**
+     * Retrieve one page of customers, ordered by email.
+     *
+     * @param after the nextCursor of the previous page, or null for the first page
+     * @param limit the maximum number of customers on the page
+     * @return the page
+     * @throws IllegalArgumentException if the limit is out of range
+     */
+    public CustomerPage list(String after, int limit);
+
+    /**
+     * Pass all customers, ordered by email, one by one to the action without loading them all.
+     *
+     * @param action receives the customers
+     */
+    public void forEach(Consumer<? super CustomerData> action);
+
        /**
      * Delete a customer by email.
      *
@@ -1,11 +1,39 @@
 package io.github.fontysvenlo.ais.businesslogic.api;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
 
 public interface FlightManager {
 
     public List<List<FlightData>> search(String departure, String arrival, String date);
 
+    /**
+     * Search flights like {@link #search(String, String, String)}, but pass the itineraries one by one to the
+     * action, so the request does not copy them into a list of its own or into a response buffer. The result of
+     * the search itself is cached, so it is in memory as a whole. The search is validated before the first
+     * itinerary is passed.
+     *
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param date the earliest departure, e.g. '2025-07-01T08:00:00Z'
+     * @param action receives the itineraries
+     */
+    public void search(String departure, String arrival, String date, Consumer<? super List<FlightData>> action);
+
+    /**
+     * Search only the best flights: only the best itineraries are kept and returned. Searches of the same route
+     * shortly after each other share one search, whatever their ranking.
+     *
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param date the earliest departure, e.g. '2025-07-01T08:00:00Z'
+     * @param ranking the order of the itineraries
+     * @param limit the maximum number of itineraries, from 1 to 100
+     * @return at most limit itineraries, best first
+     */
+    public List<List<FlightData>> search(String departure, String arrival, String date, ItineraryRanking ranking, int limit);
+
 }
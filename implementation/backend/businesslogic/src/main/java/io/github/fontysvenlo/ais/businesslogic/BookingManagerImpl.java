@@ -1,15 +1,22 @@
 package io.github.fontysvenlo.ais.businesslogic;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import io.github.fontysvenlo.ais.businesslogic.api.BookingManager;
 import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
 import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
 import io.github.fontysvenlo.ais.exceptions.InvalidBookingDataException;
 import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
 import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
 
 public class BookingManagerImpl implements BookingManager {
+    // 6 legs for a group of 25.
+    static final int MAX_BATCH_SIZE = 150;
+
     private final BookingRepository bookingRepository;
 
     public BookingManagerImpl(BookingRepository bookingRepository) {
@@ -24,10 +31,52 @@ public class BookingManagerImpl implements BookingManager {
         return bookingRepository.createBooking(booking);
     }
 
+    @Override
+    public List<BookingResult> createBookings(List<BookingData> bookings) throws InvalidBookingDataException {
+        if (bookings == null || bookings.isEmpty()) {
+            throw new InvalidBookingDataException("At least one booking is required");
+        }
+        if (bookings.size() > MAX_BATCH_SIZE) {
+            throw new InvalidBookingDataException("At most " + MAX_BATCH_SIZE + " bookings can be made at once");
+        }
+
+        // Everything is validated before anything is stored, so an invalid item costs no database work.
+        List<String> problems = new ArrayList<>(bookings.size());
+        Set<String> seats = new HashSet<>();
+        boolean valid = true;
+        for (BookingData booking : bookings) {
+            String problem = null;
+            try {
+                ValidateCreateBooking(booking);
+                if (!seats.add(booking.flightId() + "/" + booking.seatNumber())) {
+                    problem = "Seat " + booking.seatNumber() + " is booked more than once in this batch";
+                }
+            } catch (InvalidBookingDataException e) {
+                problem = e.getMessage();
+            }
+            problems.add(problem);
+            valid &= problem == null;
+        }
+        if (valid) {
+            return bookingRepository.createBookings(bookings);
+        }
+
+        List<BookingResult> results = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            results.add(problems.get(i) != null
+                    ? new BookingResult(i, BookingResult.Status.INVALID, bookings.get(i), problems.get(i))
+                    : new BookingResult(i, BookingResult.Status.NOT_BOOKED, bookings.get(i), "Another booking in the batch is invalid"));
+        }
+        return results;
+    }
+
     private void ValidateCreateBooking(BookingData booking) throws InvalidBookingDataException {
         if (booking == null) {
             throw new InvalidBookingDataException("Booking data cannot be null");
         }
+        if (booking.flightId() == null) {
+            throw new InvalidBookingDataException("Flight ID is required");
+        }
         
         if (booking.customerEmail() == null || booking.customerEmail().isBlank()) {
             throw new InvalidBookingDataException("Customer email is required");
@@ -37,14 +86,14 @@ public class BookingManagerImpl implements BookingManager {
         }
         
         // Professional seat format validation for 60-seat aircraft (rows 1-10, columns A-F)
-        if (!booking.seatNumber().matches("^([1-9]|10)[A-F]$")) {
+        if (!Validators.isSeatNumber(booking.seatNumber())) {
             throw new InvalidBookingDataException("Invalid seat format. Use rows 1-10 and columns A-F (e.g., '5A', '10F', '3C'). Aircraft has 60 seats total.");
         }
         
         // Teacher's example: Name capitalization validation (optional for now)
         if (booking.customerName() != null && !booking.customerName().isBlank()) {
             // Check if name starts with capital letters (First Last format)
-            if (!booking.customerName().matches("^[A-Z][a-z]+\\s+[A-Z][a-z]+.*$")) {
+            if (!Validators.isCapitalizedName(booking.customerName())) {
                 throw new InvalidBookingDataException("Customer name must start with capital letters (e.g., 'John Smith')");
             }
         }
@@ -20,7 +20,17 @@ public class BusinessLogicFactory {
      * @return the implementation of the BusinessLogic API
      */
     public static BusinessLogic getInstance(Persistence persistenceAPI) {
-        return new BusinessLogicImpl( persistenceAPI );
+        return getInstance(persistenceAPI, SearchCacheConfig.defaults());
+    }
+
+    /**
+     * Get the implementation of the BusinessLogic API.
+     * @param persistenceAPI the PersistenceAPI
+     * @param searchCacheConfig the settings of the flight search result cache
+     * @return the implementation of the BusinessLogic API
+     */
+    public static BusinessLogic getInstance(Persistence persistenceAPI, SearchCacheConfig searchCacheConfig) {
+        return new BusinessLogicImpl( persistenceAPI, searchCacheConfig );
     }
 
 }
@@ -4,22 +4,69 @@ import io.github.fontysvenlo.ais.businesslogic.api.BusinessLogic;
 import io.github.fontysvenlo.ais.businesslogic.api.CustomerManager;
 import io.github.fontysvenlo.ais.businesslogic.api.FlightManager;
 import io.github.fontysvenlo.ais.businesslogic.api.BookingManager;
+import io.github.fontysvenlo.ais.metrics.MetricRegistry;
 import io.github.fontysvenlo.ais.persistence.api.Persistence;
 
 /**
  * Actual business logic implementation.
+ * Every manager is created once and shared; the managers are thread-safe.
  */
 class BusinessLogicImpl implements BusinessLogic {
 
     final Persistence persistenceAPI;
+    private final CustomerManager customerManager;
+    private final FlightManager flightManager;
+    private final BookingManager bookingManager;
 
     /**
      * Constructor.
      * 
      * @param persistenceAPI the PersistenceAPI
+     * @param searchCacheConfig the settings of the flight search result cache
      */
-    BusinessLogicImpl(Persistence persistenceAPI) {
+    BusinessLogicImpl(Persistence persistenceAPI, SearchCacheConfig searchCacheConfig) {
         this.persistenceAPI = persistenceAPI;
+        // The repository searches its own timetable in memory; the cache only keeps the results.
+        SearchResultCache searchResultCache = new SearchResultCache(persistenceAPI.getFlightRepository(), searchCacheConfig);
+        SeatMapCache seatMapCache = new SeatMapCache(persistenceAPI.getBookingRepository());
+        this.customerManager = new CustomerManagerImpl(persistenceAPI.getCustomerRepository(), seatMapCache::invalidateAll);
+        this.flightManager = new FlightManagerImpl(searchResultCache);
+        this.bookingManager = new BookingManagerImpl(seatMapCache);
+        registerMetrics(MetricRegistry.global(), searchResultCache, seatMapCache);
+    }
+
+    /**
+     * Registers the statistics of the caches. A later instance replaces the metrics of an earlier one.
+     */
+    private static void registerMetrics(MetricRegistry registry, SearchResultCache searchResultCache, SeatMapCache seatMapCache) {
+        registry.counter("ais_cache_hits_total", "Reads answered from the cache.",
+                () -> searchResultCache.stats().hits(), "cache", "search");
+        registry.counter("ais_cache_misses_total", "Reads that had to load.",
+                () -> searchResultCache.stats().misses(), "cache", "search");
+        registry.counter("ais_cache_evictions_total", "Entries dropped because the cache was full or outdated.",
+                () -> searchResultCache.stats().evictions(), "cache", "search");
+        registry.gauge("ais_cache_size", "Entries currently cached.",
+                () -> searchResultCache.stats().size(), "cache", "search");
+        registry.gauge("ais_cache_hit_ratio", "Share of reads answered from the cache since start.",
+                () -> searchResultCache.stats().hitRatio(), "cache", "search");
+
+        registry.counter("ais_cache_hits_total", "Reads answered from the cache.",
+                seatMapCache::hits, "cache", "seatmap");
+        registry.counter("ais_cache_misses_total", "Reads that had to load.",
+                seatMapCache::misses, "cache", "seatmap");
+        registry.counter("ais_cache_evictions_total", "Entries dropped because the cache was full or outdated.",
+                seatMapCache::evictions, "cache", "seatmap");
+        registry.gauge("ais_cache_size", "Entries currently cached.",
+                seatMapCache::size, "cache", "seatmap");
+        registry.gauge("ais_cache_hit_ratio", "Share of reads answered from the cache since start.", () -> {
+            long hits = seatMapCache.hits();
+            long reads = hits + seatMapCache.misses();
+            return reads == 0 ? 0.0 : (double) hits / reads;
+        }, "cache", "seatmap");
+
+        CapacityLoader loader = seatMapCache.loader();
+        registry.counter("ais_capacity_loads_total", "Seat map loads asked for.", loader::loads);
+        registry.counter("ais_capacity_queries_total", "Queries the seat map loads were merged into.", loader::queries);
     }
 
     /**
@@ -29,16 +76,16 @@ class BusinessLogicImpl implements BusinessLogic {
      */
     @Override
     public CustomerManager getCustomerManager() {
-        return new CustomerManagerImpl(persistenceAPI.getCustomerRepository());
+        return customerManager;
     }
 
     @Override
     public FlightManager getFlightManager() {
-        return new FlightManagerImpl(persistenceAPI.getFlightRepository());
+        return flightManager;
     }
 
     @Override
     public BookingManager getBookingManager() {
-        return new BookingManagerImpl(persistenceAPI.getBookingRepository());
+        return bookingManager;
     }
 }
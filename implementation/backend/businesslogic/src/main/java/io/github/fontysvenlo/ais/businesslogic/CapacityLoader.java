@@ -0,0 +1,151 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
+import io.github.fontysvenlo.ais.persistence.api.FlightNotFoundException;
+import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
+
+/**
+ * Loads flight capacity data, merging concurrent loads into as few queries as possible.
+ * The first load opens a batch and waits one short window for others to join it. Loads of a flight that is already
+ * in the open batch wait for that flight's result; loads of other flights are added to the batch. Then the batch is
+ * closed and loaded with one query: {@link BookingRepository#getFlightCapacity(int)} for a single flight,
+ * {@link BookingRepository#getFlightCapacities(java.util.Collection)} for more.
+ * <p>
+ * A load never joins a query that has already started, so every result was read after its load was asked for.
+ * Loads that arrive while a batch is being queried open the next batch.
+ */
+final class CapacityLoader {
+    static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+    static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private final BookingRepository bookingRepository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    // Guarded by lock: the flights of the open batches, which have not been queried yet.
+    private final Map<Integer, CompletableFuture<FlightCapacityData>> queued = new HashMap<>();
+    // Guarded by lock: the batch that new flights are added to, or null if there is none.
+    private Map<Integer, CompletableFuture<FlightCapacityData>> open;
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    CapacityLoader(BookingRepository bookingRepository) {
+        this(bookingRepository, DEFAULT_WINDOW, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    CapacityLoader(BookingRepository bookingRepository, Duration window, int maxBatchSize) {
+        this.bookingRepository = bookingRepository;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Loads the capacity data of a flight, together with the concurrent loads.
+     * @param flightId the flight ID
+     * @return the capacity data
+     * @throws SeatNotAvailableException if the flight does not exist or the data cannot be read
+     */
+    FlightCapacityData load(int flightId) throws SeatNotAvailableException {
+        loads.incrementAndGet();
+        CompletableFuture<FlightCapacityData> result;
+        Map<Integer, CompletableFuture<FlightCapacityData>> batch = null;
+        synchronized (lock) {
+            result = queued.get(flightId);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                queued.put(flightId, result);
+                if (open == null || open.size() >= maxBatchSize) {
+                    open = new LinkedHashMap<>();
+                    batch = open;
+                }
+                open.put(flightId, result);
+            }
+        }
+        if (batch != null) {
+            waitForOthers();
+            synchronized (lock) {
+                if (open == batch) {
+                    open = null;
+                }
+                batch.forEach(queued::remove);
+            }
+            query(batch);
+        }
+        return join(result);
+    }
+
+    /**
+     * The number of loads asked for.
+     * @return the number of loads
+     */
+    long loads() {
+        return loads.get();
+    }
+
+    /**
+     * The number of queries the loads were merged into.
+     * @return the number of queries
+     */
+    long queries() {
+        return queries.get();
+    }
+
+    private void waitForOthers() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(windowNanos);
+        } catch (InterruptedException e) {
+            // Query what has been collected so far; the caller sees the interrupt later.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void query(Map<Integer, CompletableFuture<FlightCapacityData>> batch) {
+        queries.incrementAndGet();
+        try {
+            if (batch.size() == 1) {
+                Map.Entry<Integer, CompletableFuture<FlightCapacityData>> only = batch.entrySet().iterator().next();
+                only.getValue().complete(bookingRepository.getFlightCapacity(only.getKey()));
+                return;
+            }
+            Map<Integer, FlightCapacityData> capacities = bookingRepository.getFlightCapacities(batch.keySet());
+            batch.forEach((flightId, result) -> {
+                FlightCapacityData capacity = capacities.get(flightId);
+                if (capacity != null) {
+                    result.complete(capacity);
+                } else {
+                    result.completeExceptionally(new FlightNotFoundException(flightId));
+                }
+            });
+        } catch (SeatNotAvailableException | RuntimeException | Error e) {
+            batch.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private static FlightCapacityData join(CompletableFuture<FlightCapacityData> result) throws SeatNotAvailableException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SeatNotAvailableException seatNotAvailable) {
+                throw seatNotAvailable;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -67,7 +67,7 @@ public class Customer {
         if (firstName.length() < 2) {
             throw new FirstNameException("First name must be at least 2 characters");
         }
-        if (!firstName.matches("^[\\p{L} ]+$")) {
+        if (!Validators.isLettersAndSpaces(firstName)) {
             throw new FirstNameException("First name can only contain letters and spaces");
         }
     }
@@ -79,7 +79,7 @@ public class Customer {
         if (lastName.length() < 2) {
             throw new LastNameException("Last name must be at least 2 characters");
         }
-        if (!lastName.matches("^[\\p{L} ]+$")) {
+        if (!Validators.isLettersAndSpaces(lastName)) {
             throw new LastNameException("Last name can only contain letters and spaces");
         }
     }
@@ -103,7 +103,7 @@ public class Customer {
         if (email == null || email.isBlank()) {
             throw new EmailException("Email is required");
         }
-        if (!email.matches("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
+        if (!Validators.isEmail(email)) {
             throw new EmailException("Invalid email format");
         }
     }
@@ -112,10 +112,10 @@ public class Customer {
         if (phone == null || phone.isBlank()) {
             throw new PhoneException("Phone number is required");
         }
-        if (!phone.matches("^[+]?[0-9\\s]+$")) {
+        if (!Validators.isPhoneNumber(phone)) {
             throw new PhoneException("Phone number can only contain numbers, spaces, and optional + prefix");
         }
-        if (phone.replaceAll("[^0-9]", "").length() < 6) {
+        if (Validators.countDigits(phone) < Validators.MIN_PHONE_DIGITS) {
             throw new PhoneException("Phone number must contain at least 6 digits");
         }
     }
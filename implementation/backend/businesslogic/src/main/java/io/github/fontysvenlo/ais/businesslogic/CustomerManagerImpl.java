@@ -2,8 +2,12 @@ package io.github.fontysvenlo.ais.businesslogic;
 
 import io.github.fontysvenlo.ais.businesslogic.api.CustomerManager;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
 import io.github.fontysvenlo.ais.exceptions.DeletionFailedException;
 import io.github.fontysvenlo.ais.exceptions.DuplicateEmailException;
 import io.github.fontysvenlo.ais.exceptions.PersistenceException;
@@ -16,15 +20,29 @@ import io.github.fontysvenlo.ais.persistence.api.CustomerRepository;
  * in order to retrieve customers and to persist changes.
  */
 public class CustomerManagerImpl implements CustomerManager{
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_SEARCH_RESULTS = 50;
+    static final int MIN_PHONE_SEARCH_DIGITS = 3;
 
     private final CustomerRepository customerRepository;
+    private final Runnable afterDelete;
 
     /**
      * Constructor
      * @param CustomerRepository the customer storage service
      */
     public CustomerManagerImpl( CustomerRepository CustomerRepository ) {
-        this.customerRepository = CustomerRepository;
+        this(CustomerRepository, () -> { });
+    }
+
+    /**
+     * Constructor
+     * @param customerRepository the customer storage service
+     * @param afterDelete run after a customer was deleted, e.g. to forget cached bookings of that customer
+     */
+    CustomerManagerImpl(CustomerRepository customerRepository, Runnable afterDelete) {
+        this.customerRepository = customerRepository;
+        this.afterDelete = afterDelete;
     }
 
 /**
@@ -51,10 +69,76 @@ public CustomerData add(CustomerData customerData) {
         return customerRepository.getAll();
     }
 
+    @Override
+    public Optional<CustomerData> get(String email) {
+        return customerRepository.getOne(email);
+    }
+
+    /**
+     * A query of digits, spaces and '+', '-', '(' and ')' is a phone search on its digits; at least
+     * {@value #MIN_PHONE_SEARCH_DIGITS} are needed for the trigram index to be used. Anything else is a
+     * case-insensitive name search.
+     */
+    @Override
+    public List<CustomerData> search(String query, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        String term = query == null ? "" : query.strip();
+        if (term.isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        if (!isPhoneQuery(term)) {
+            return customerRepository.searchByName(term.toLowerCase(Locale.ROOT), limit);
+        }
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < MIN_PHONE_SEARCH_DIGITS) {
+            throw new IllegalArgumentException("Phone search needs at least " + MIN_PHONE_SEARCH_DIGITS + " digits");
+        }
+        return customerRepository.searchByPhone(digits.toString(), limit);
+    }
+
+    private static boolean isPhoneQuery(String term) {
+        boolean digit = false;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c != ' ' && c != '+' && c != '-' && c != '(' && c != ')') {
+                return false;
+            }
+        }
+        return digit;
+    }
+
+    @Override
+    public CustomerPage list(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return customerRepository.getPage(after == null || after.isEmpty() ? null : after, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super CustomerData> action) {
+        customerRepository.forEach(action);
+    }
+
     @Override
     public boolean delete(String email) throws DeletionFailedException {
-    return customerRepository.delete(email);
-}
+        try {
+            return customerRepository.delete(email);
+        } finally {
+            // The bookings of the customer are deleted with it.
+            afterDelete.run();
+        }
+    }
 
 
 
@@ -3,16 +3,21 @@ package io.github.fontysvenlo.ais.businesslogic;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.function.Consumer;
 
 import io.github.fontysvenlo.ais.businesslogic.api.FlightManager;
 import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
 import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
 
 /**
  * FlightManager handles flight operations.
  */
 public class FlightManagerImpl implements FlightManager {
+    static final int MAX_RANKED_RESULTS = 100;
+
     private final FlightRepository flightRepository;
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
@@ -30,9 +35,44 @@ public class FlightManagerImpl implements FlightManager {
      */
     @Override
     public List<List<FlightData>> search(String departure, String arrival, String datetime) {
+        departure = FlightRepository.airportKey(departure);
+        arrival = FlightRepository.airportKey(arrival);
+        return flightRepository.search(departure, arrival, validate(departure, arrival, datetime));
+    }
+
+    /**
+     * @see FlightManager#search(String, String, String, Consumer)
+     */
+    @Override
+    public void search(String departure, String arrival, String datetime, Consumer<? super List<FlightData>> action) {
+        departure = FlightRepository.airportKey(departure);
+        arrival = FlightRepository.airportKey(arrival);
+        flightRepository.search(departure, arrival, validate(departure, arrival, datetime), action);
+    }
+
+    /**
+     * @see FlightManager#search(String, String, String, ItineraryRanking, int)
+     */
+    @Override
+    public List<List<FlightData>> search(String departure, String arrival, String datetime, ItineraryRanking ranking, int limit) {
+        departure = FlightRepository.airportKey(departure);
+        arrival = FlightRepository.airportKey(arrival);
+        long departAfter = validate(departure, arrival, datetime);
+        if (ranking == null) {
+            throw new InvalidFlightSearchException("Ranking cannot be empty.");
+        }
+        if (limit < 1 || limit > MAX_RANKED_RESULTS) {
+            throw new InvalidFlightSearchException("Limit must be between 1 and " + MAX_RANKED_RESULTS + ".");
+        }
+        return flightRepository.search(departure, arrival, departAfter, ranking, limit);
+    }
+
+    /**
+     * Validates a search. The datetime is parsed here, once per search; the layers below get epoch seconds.
+     * @return the datetime in epoch seconds
+     */
+    private static long validate(String departure, String arrival, String datetime) {
         //it shoudl be checked if the data is correct for example same departure and arrival
-        departure = departure.toLowerCase();
-        arrival = arrival.toLowerCase();
         if (departure.equals(arrival)) {
         throw new InvalidFlightSearchException("Departure and arrival cannot be the same.");
         }
@@ -49,16 +89,17 @@ public class FlightManagerImpl implements FlightManager {
             throw new InvalidFlightSearchException("Datetime cannot be empty.");
         }
 
-        OffsetDateTime offsetDateTime = OffsetDateTime.parse(datetime, FORMATTER);
+        OffsetDateTime offsetDateTime;
+        try {
+            offsetDateTime = OffsetDateTime.parse(datetime, FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new InvalidFlightSearchException("Invalid datetime format. Expected e.g. '2025-07-01T08:00:00Z'");
+        }
 LocalDateTime dateTimeParsed = offsetDateTime.toLocalDateTime();
 
         if (!dateTimeParsed.isAfter(LocalDateTime.now())) {
             throw new InvalidFlightSearchException("Date and time has to be in the future.");
         }
-    
-
-        
-
-        return flightRepository.search(departure, arrival, datetime);
+        return offsetDateTime.toEpochSecond();
     }
 }
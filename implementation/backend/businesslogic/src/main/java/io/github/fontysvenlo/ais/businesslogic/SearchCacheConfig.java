@@ -0,0 +1,59 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.util.Properties;
+
+/**
+ * Settings of the flight search result cache.
+ * @param maxEntries the maximum number of cached (departure, arrival, time bucket) results
+ * @param ttlSeconds how long a result is used after it was searched
+ * @param bucketMinutes the width of the time buckets; searches within one bucket share one result
+ */
+public record SearchCacheConfig(int maxEntries, long ttlSeconds, long bucketMinutes) {
+
+    /**
+     * Validates the cache settings.
+     */
+    public SearchCacheConfig {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        if (ttlSeconds < 1 || bucketMinutes < 1) {
+            throw new IllegalArgumentException("ttlSeconds and bucketMinutes must be at least 1");
+        }
+    }
+
+    /**
+     * The cache settings used when nothing is configured: 1000 results, kept for a minute, in buckets of 15 minutes.
+     * @return the default cache settings
+     */
+    public static SearchCacheConfig defaults() {
+        return new SearchCacheConfig(1_000, 60, 15);
+    }
+
+    /**
+     * Create a SearchCacheConfig from a Properties object. Missing keys fall back to {@link #defaults()}.
+     * @param properties the properties with the optional keys search.cache.maxEntries, search.cache.ttlSeconds
+     *                   and search.cache.bucketMinutes
+     * @return the created SearchCacheConfig
+     */
+    public static SearchCacheConfig fromProperties(Properties properties) {
+        SearchCacheConfig defaults = defaults();
+        return new SearchCacheConfig(
+                (int) get(properties, "search.cache.maxEntries", defaults.maxEntries()),
+                get(properties, "search.cache.ttlSeconds", defaults.ttlSeconds()),
+                get(properties, "search.cache.bucketMinutes", defaults.bucketMinutes())
+        );
+    }
+
+    long bucketSeconds() {
+        return bucketMinutes * 60;
+    }
+
+    private static long get(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+/**
+ * Point-in-time statistics of a {@link SearchResultCache}.
+ * @param hits the number of searches answered from a cached or already running search
+ * @param misses the number of searches that had to search
+ * @param evictions the number of results dropped because the cache was full, the result had expired or the
+ *                  timetable had changed
+ * @param size the number of results currently cached
+ */
+public record SearchCacheStats(long hits, long misses, long evictions, int size) {
+
+    /**
+     * The share of searches answered from the cache.
+     * @return the hit ratio between 0 and 1, or 0 if nothing was searched yet
+     */
+    public double hitRatio() {
+        long searches = hits + misses;
+        return searches == 0 ? 0.0 : (double) hits / searches;
+    }
+}
@@ -0,0 +1,252 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
+import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
+
+/**
+ * Flight search result cache in front of a FlightRepository.
+ * Searches are cached per departure, arrival and time bucket: the wrapped repository is searched from the start
+ * of the bucket, and every search in that bucket gets the cached itineraries whose first flight departs at or after
+ * its own time. That is exactly what the repository would return, because the connections after the first flight
+ * do not depend on the requested time.
+ * <p>
+ * Identical searches that miss at the same time wait for one search instead of each searching. A result is used
+ * until its time to live has passed or the timetable version of the repository changes; the least recently used
+ * result is evicted when the cache is full.
+ */
+public class SearchResultCache implements FlightRepository {
+    private final FlightRepository flightRepository;
+    private final long bucketSeconds;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // Guarded by itself. Access order, so the eldest entry is the least recently used.
+    private final Map<Key, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param flightRepository the repository that is searched on a miss
+     * @param config the cache settings
+     */
+    public SearchResultCache(FlightRepository flightRepository, SearchCacheConfig config) {
+        this(flightRepository, config, System::nanoTime);
+    }
+
+    SearchResultCache(FlightRepository flightRepository, SearchCacheConfig config, LongSupplier clock) {
+        this.flightRepository = flightRepository;
+        this.bucketSeconds = config.bucketSeconds();
+        this.ttlNanos = config.ttlSeconds() * 1_000_000_000L;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > config.maxEntries()) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public List<List<FlightData>> search(String departure, String arrival, long departAfter) {
+        return cached(departure, arrival, departAfter).departingAtOrAfter(departAfter);
+    }
+
+    /**
+     * Passes the matching itineraries of the cached result on without copying them into a new list. On a miss
+     * the bucket is searched and cached first, as for the list search, so this path holds the whole bucket in
+     * memory. The action is only called once the bucket is cached: a slow client does not hold up the searches
+     * that wait for the same bucket.
+     */
+    @Override
+    public void search(String departure, String arrival, long departAfter, Consumer<? super List<FlightData>> action) {
+        cached(departure, arrival, departAfter).forEachDepartingAtOrAfter(departAfter, action);
+    }
+
+    /**
+     * Ranks the cached result of the bucket. On a miss the bucket is searched and cached first, as for the list
+     * search, so identical ranked searches that miss at the same time also wait for one search.
+     */
+    @Override
+    public List<List<FlightData>> search(String departure, String arrival, long departAfter, ItineraryRanking ranking, int limit) {
+        return cached(departure, arrival, departAfter).best(departAfter, ranking.comparator(), limit);
+    }
+
+    private Result cached(String departure, String arrival, long departAfter) {
+        Key key = key(departure, arrival, departAfter);
+        Lookup lookup = lookup(key);
+        if (lookup.load()) {
+            misses.incrementAndGet();
+            load(key, lookup.entry());
+        } else {
+            hits.incrementAndGet();
+        }
+        return join(lookup.entry().result());
+    }
+
+    /**
+     * The entry of a bucket. If there is no fresh one, a new entry is added that the caller has to load.
+     */
+    private Lookup lookup(Key key) {
+        long version = flightRepository.getTimetableVersion();
+
+        Entry entry;
+        boolean load = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && !fresh(entry, version)) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(new CompletableFuture<>(), clock.getAsLong(), version);
+                entries.put(key, entry);
+                load = true;
+            }
+        }
+        return new Lookup(entry, load);
+    }
+
+    private Key key(String departure, String arrival, long departAfter) {
+        return new Key(FlightRepository.airportKey(departure), FlightRepository.airportKey(arrival),
+                Math.floorDiv(departAfter, bucketSeconds) * bucketSeconds);
+    }
+
+    private boolean fresh(Entry entry, long version) {
+        return entry.version() == version && clock.getAsLong() - entry.createdAt() < ttlNanos;
+    }
+
+    @Override
+    public List<FlightData> getAllFlights() {
+        return flightRepository.getAllFlights();
+    }
+
+    @Override
+    public long getTimetableVersion() {
+        return flightRepository.getTimetableVersion();
+    }
+
+    /**
+     * Forgets all cached results.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * The current hit, miss and eviction counts.
+     * @return the statistics
+     */
+    public SearchCacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new SearchCacheStats(hits.get(), misses.get(), evictions.get(), size);
+    }
+
+    private void load(Key key, Entry entry) {
+        try {
+            entry.result().complete(Result.of(flightRepository.search(key.departure(), key.arrival(), key.bucketStart())));
+        } catch (RuntimeException | Error e) {
+            // The waiting searches fail as well; the next search tries again.
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.result().completeExceptionally(e);
+        }
+    }
+
+    private static Result join(CompletableFuture<Result> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String departure, String arrival, long bucketStart) {
+    }
+
+    private record Entry(CompletableFuture<Result> result, long createdAt, long version) {
+    }
+
+    private record Lookup(Entry entry, boolean load) {
+    }
+
+    /**
+     * The itineraries of a bucket, with the departure of the first flight of each, in epoch seconds.
+     */
+    private record Result(List<List<FlightData>> itineraries, long[] firstDepartures) {
+
+        static Result of(List<List<FlightData>> itineraries) {
+            List<List<FlightData>> copy = new ArrayList<>(itineraries.size());
+            long[] firstDepartures = new long[itineraries.size()];
+            for (int i = 0; i < itineraries.size(); i++) {
+                copy.add(List.copyOf(itineraries.get(i)));
+                firstDepartures[i] = itineraries.get(i).get(0).departureEpochSecond();
+            }
+            return new Result(List.copyOf(copy), firstDepartures);
+        }
+
+        List<List<FlightData>> departingAtOrAfter(long departAfter) {
+            List<List<FlightData>> matching = new ArrayList<>(itineraries.size());
+            for (int i = 0; i < itineraries.size(); i++) {
+                if (firstDepartures[i] >= departAfter) {
+                    matching.add(itineraries.get(i));
+                }
+            }
+            return matching;
+        }
+
+        List<List<FlightData>> best(long departAfter, Comparator<List<FlightData>> ranking, int limit) {
+            // Bounded heap with the worst kept itinerary at the head.
+            PriorityQueue<List<FlightData>> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+            for (int i = 0; i < itineraries.size(); i++) {
+                if (firstDepartures[i] >= departAfter) {
+                    best.add(itineraries.get(i));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            List<List<FlightData>> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            return ranked;
+        }
+
+        void forEachDepartingAtOrAfter(long departAfter, Consumer<? super List<FlightData>> action) {
+            for (int i = 0; i < itineraries.size(); i++) {
+                if (firstDepartures[i] >= departAfter) {
+                    action.accept(itineraries.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+
+/**
+ * Immutable seat occupation of one flight.
+ * The seats of the 10x6 layout that BookingManagerImpl accepts (1A..10F) are one bit each in a long,
+ * row by row. Booked seats outside that layout (older data such as '12A') are kept by name, so the
+ * counts still match the database.
+ */
+final class SeatMap {
+    static final int ROWS = 10;
+    static final int SEATS_PER_ROW = 6;
+    static final int LAYOUT_SEATS = ROWS * SEATS_PER_ROW;
+    private static final String[] SEAT_NAMES = new String[LAYOUT_SEATS];
+
+    static {
+        for (int i = 0; i < LAYOUT_SEATS; i++) {
+            SEAT_NAMES[i] = (i / SEATS_PER_ROW + 1) + String.valueOf((char) ('A' + i % SEATS_PER_ROW));
+        }
+    }
+
+    private final FlightCapacityData flight;
+    private final long booked;
+    private final Set<String> otherSeats;
+    private final List<String> bookedSeats;
+
+    private SeatMap(FlightCapacityData flight, long booked, Set<String> otherSeats) {
+        this.flight = flight;
+        this.booked = booked;
+        this.otherSeats = otherSeats;
+        this.bookedSeats = sortedBookedSeats(booked, otherSeats);
+    }
+
+    /**
+     * Creates the seat map from the capacity data of a flight.
+     * @param capacity the capacity data, including the booked seat numbers
+     * @return the seat map
+     */
+    static SeatMap of(FlightCapacityData capacity) {
+        long booked = 0;
+        Set<String> otherSeats = new TreeSet<>();
+        for (String seat : capacity.bookedSeatNumbers()) {
+            int index = indexOf(seat);
+            if (index >= 0) {
+                booked |= 1L << index;
+            } else {
+                otherSeats.add(seat);
+            }
+        }
+        return new SeatMap(capacity, booked, otherSeats);
+    }
+
+    /**
+     * Position of a seat in the layout.
+     * @param seat the seat number, e.g. "10F"
+     * @return the index from 0 (1A) to 59 (10F), or -1 if the seat is not in the layout
+     */
+    static int indexOf(String seat) {
+        if (seat == null || seat.length() < 2 || seat.length() > 3) {
+            return -1;
+        }
+        int column = seat.charAt(seat.length() - 1) - 'A';
+        if (column < 0 || column >= SEATS_PER_ROW) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 0; i < seat.length() - 1; i++) {
+            char c = seat.charAt(i);
+            if (c < '0' || c > '9' || (i == 0 && c == '0')) {
+                return -1;
+            }
+            row = row * 10 + (c - '0');
+        }
+        return row >= 1 && row <= ROWS ? (row - 1) * SEATS_PER_ROW + column : -1;
+    }
+
+    /**
+     * The seat map with one more seat booked.
+     * @param seat the booked seat
+     * @return the new seat map, or this one if the seat was already booked
+     */
+    SeatMap withBooked(String seat) {
+        int index = indexOf(seat);
+        if (index >= 0) {
+            long updated = booked | 1L << index;
+            return updated == booked ? this : new SeatMap(flight, updated, otherSeats);
+        }
+        if (otherSeats.contains(seat)) {
+            return this;
+        }
+        Set<String> updated = new TreeSet<>(otherSeats);
+        updated.add(seat);
+        return new SeatMap(flight, booked, updated);
+    }
+
+    int bookedCount() {
+        return Long.bitCount(booked) + otherSeats.size();
+    }
+
+    int availableCount() {
+        return flight.totalSeats() - bookedCount();
+    }
+
+    boolean isFull() {
+        return bookedCount() >= flight.totalSeats();
+    }
+
+    /**
+     * The booked seats, sorted by seat number like the database does.
+     * @return the booked seats
+     */
+    List<String> bookedSeats() {
+        return bookedSeats;
+    }
+
+    /**
+     * The first free seat of the layout, row by row.
+     * @return the seat number, or null if every seat of the layout is booked
+     */
+    String suggestNextSeat() {
+        long free = ~booked & ((1L << LAYOUT_SEATS) - 1);
+        return free == 0 ? null : SEAT_NAMES[Long.numberOfTrailingZeros(free)];
+    }
+
+    FlightCapacityData capacity() {
+        int bookedCount = bookedCount();
+        int total = flight.totalSeats();
+        double occupancy = total > 0 ? Math.round(bookedCount * 10000.0 / total) / 100.0 : 0.0;
+        return new FlightCapacityData(flight.flightId(), flight.departure(), flight.arrival(), flight.date(),
+                total, bookedCount, total - bookedCount, bookedCount >= total, occupancy, bookedSeats);
+    }
+
+    private static List<String> sortedBookedSeats(long booked, Set<String> otherSeats) {
+        Set<String> sorted = new TreeSet<>(otherSeats);
+        for (long bits = booked; bits != 0; bits &= bits - 1) {
+            sorted.add(SEAT_NAMES[Long.numberOfTrailingZeros(bits)]);
+        }
+        return List.copyOf(sorted);
+    }
+}
@@ -0,0 +1,290 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
+import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
+
+/**
+ * Seat availability cache in front of a BookingRepository.
+ * The first read of a flight loads its capacity data once into a {@link SeatMap}; after that, the five
+ * availability reads are answered from memory, without SQL, while the seat map is younger than the time to live.
+ * Bookings made through this cache update the seat map of their flight. A seat that turns out to be taken means
+ * the seat map is outdated (another instance booked it), so that flight is loaded again on its next read; other
+ * bookings by other instances are seen after the time to live. The least recently read flight is evicted when
+ * the cache is full.
+ * <p>
+ * Deleting a customer deletes their bookings (ON DELETE CASCADE), without saying on which flights, so
+ * {@link #invalidateAll()} must be called after a customer or a booking is deleted.
+ * <p>
+ * Seat maps are loaded through a {@link CapacityLoader}, so the many requests that find the same flight
+ * missing at the same moment, e.g. when sales open, cause one query instead of one each.
+ */
+public class SeatMapCache implements BookingRepository {
+    static final int DEFAULT_MAX_SIZE = 10_000;
+    static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    // Flights share write counters by flight ID modulo this, so the counters do not grow with the flights.
+    private static final int WRITE_STRIPES = 1024;
+
+    private final BookingRepository bookingRepository;
+    private final CapacityLoader loader;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // Guarded by itself. Access order, so the eldest entry is the least recently read.
+    private final Map<Integer, Entry> entries;
+    // Guarded by entries: the writes per stripe of flights, so a load that raced with a booking is not cached.
+    private final long[] writes = new long[WRITE_STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor with the default size of {@value #DEFAULT_MAX_SIZE} flights and a time to live of 30 seconds.
+     * @param bookingRepository the repository the bookings are stored in
+     */
+    public SeatMapCache(BookingRepository bookingRepository) {
+        this(bookingRepository, DEFAULT_MAX_SIZE, DEFAULT_TTL);
+    }
+
+    /**
+     * Constructor
+     * @param bookingRepository the repository the bookings are stored in
+     * @param maxSize the maximum number of cached seat maps
+     * @param ttl how long a seat map is served from the cache after it was loaded
+     */
+    public SeatMapCache(BookingRepository bookingRepository, int maxSize, Duration ttl) {
+        this(bookingRepository, maxSize, ttl, System::nanoTime);
+    }
+
+    SeatMapCache(BookingRepository bookingRepository, int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.bookingRepository = bookingRepository;
+        this.loader = new CapacityLoader(bookingRepository);
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > SeatMapCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public BookingData createBooking(BookingData booking) throws SeatNotAvailableException {
+        try {
+            BookingData created = bookingRepository.createBooking(booking);
+            booked(created.flightId(), created.seatNumber());
+            return created;
+        } catch (SeatNotAvailableException e) {
+            invalidate(booking.flightId());
+            throw e;
+        }
+    }
+
+    @Override
+    public List<BookingResult> createBookings(List<BookingData> bookings) {
+        List<BookingResult> results = bookingRepository.createBookings(bookings);
+        for (BookingResult result : results) {
+            if (result.status() == BookingResult.Status.BOOKED) {
+                booked(result.booking().flightId(), result.booking().seatNumber());
+            } else if (result.status() == BookingResult.Status.SEAT_TAKEN) {
+                invalidate(result.booking().flightId());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public boolean isSeatAvailable(int flightId, String seatNumber) throws SeatNotAvailableException {
+        return !seatMap(flightId).bookedSeats().contains(seatNumber);
+    }
+
+    @Override
+    public boolean isFlightFull(int flightId) throws SeatNotAvailableException {
+        return seatMap(flightId).isFull();
+    }
+
+    @Override
+    public int getAvailableSeatsCount(int flightId) throws SeatNotAvailableException {
+        return seatMap(flightId).availableCount();
+    }
+
+    @Override
+    public List<String> getBookedSeats(int flightId) throws SeatNotAvailableException {
+        return seatMap(flightId).bookedSeats();
+    }
+
+    @Override
+    public String suggestNextSeat(int flightId) throws SeatNotAvailableException {
+        return seatMap(flightId).suggestNextSeat();
+    }
+
+    @Override
+    public FlightCapacityData getFlightCapacity(int flightId) throws SeatNotAvailableException {
+        return seatMap(flightId).capacity();
+    }
+
+    /**
+     * Answers the flights that have a seat map from memory and reads the others with one query,
+     * without caching them.
+     */
+    @Override
+    public Map<Integer, FlightCapacityData> getFlightCapacities(Collection<Integer> flightIds) throws SeatNotAvailableException {
+        Map<Integer, FlightCapacityData> capacities = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer flightId : flightIds) {
+            SeatMap seatMap = cached(flightId);
+            if (seatMap != null) {
+                capacities.put(flightId, seatMap.capacity());
+            } else {
+                missing.add(flightId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            capacities.putAll(bookingRepository.getFlightCapacities(missing));
+        }
+        return capacities;
+    }
+
+    /**
+     * Forgets the seat map of a flight, so it is loaded again on its next read.
+     * @param flightId the flight ID
+     */
+    public void invalidate(int flightId) {
+        synchronized (entries) {
+            writes[stripe(flightId)]++;
+            entries.remove(flightId);
+        }
+    }
+
+    /**
+     * Forgets all seat maps. Must be called after bookings were deleted, e.g. with their customer.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            for (int i = 0; i < writes.length; i++) {
+                writes[i]++;
+            }
+            entries.clear();
+        }
+    }
+
+    /**
+     * The number of reads answered from a seat map in memory.
+     * @return the number of hits
+     */
+    long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * The number of reads that had to load the seat map.
+     * @return the number of misses
+     */
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * The number of seat maps dropped because the cache was full or the seat map was too old.
+     * @return the number of evictions
+     */
+    long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * The number of flights that have a seat map in memory.
+     * @return the number of seat maps
+     */
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    CapacityLoader loader() {
+        return loader;
+    }
+
+    private void booked(int flightId, String seatNumber) {
+        synchronized (entries) {
+            writes[stripe(flightId)]++;
+            Entry entry = entries.get(flightId);
+            if (entry != null) {
+                entries.put(flightId, new Entry(entry.seatMap().withBooked(seatNumber), entry.loadedAt()));
+            }
+        }
+    }
+
+    private SeatMap seatMap(int flightId) throws SeatNotAvailableException {
+        long loadStarted;
+        synchronized (entries) {
+            SeatMap seatMap = cached(flightId);
+            if (seatMap != null) {
+                hits.increment();
+                return seatMap;
+            }
+            loadStarted = writes[stripe(flightId)];
+        }
+        misses.increment();
+        long loadedAt = clock.getAsLong();
+        SeatMap loaded = SeatMap.of(loader.load(flightId));
+        synchronized (entries) {
+            Entry current = entries.get(flightId);
+            if (current != null) {
+                return current.seatMap();
+            }
+            // A booking that was stored while loading may be missing from the loaded data: use it this once only.
+            if (writes[stripe(flightId)] == loadStarted) {
+                entries.put(flightId, new Entry(loaded, loadedAt));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * The seat map of a flight if it is cached and not too old.
+     */
+    private SeatMap cached(int flightId) {
+        synchronized (entries) {
+            Entry entry = entries.get(flightId);
+            if (entry == null) {
+                return null;
+            }
+            if (clock.getAsLong() - entry.loadedAt() < ttlNanos) {
+                return entry.seatMap();
+            }
+            entries.remove(flightId);
+            evictions.increment();
+            return null;
+        }
+    }
+
+    private static int stripe(int flightId) {
+        return Math.floorMod(flightId, WRITE_STRIPES);
+    }
+
+    private record Entry(SeatMap seatMap, long loadedAt) {
+    }
+}
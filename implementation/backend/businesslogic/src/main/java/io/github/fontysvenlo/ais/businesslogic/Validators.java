@@ -0,0 +1,181 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+/**
+ * Field rules of customers and bookings as hand-written scanners.
+ * Each method accepts exactly the strings the regular expression in its comment accepts with
+ * {@link String#matches(String)}, but without compiling a pattern or allocating on every call.
+ */
+final class Validators {
+    static final int MIN_PHONE_DIGITS = 6;
+
+    private Validators() {
+    }
+
+    /**
+     * {@code ^[\p{L} ]+$}: one or more letters, in any script, and spaces.
+     * @param value the value to check
+     * @return true if the value matches
+     */
+    static boolean isLettersAndSpaces(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); ) {
+            int c = value.codePointAt(i);
+            if (c != ' ' && !Character.isLetter(c)) {
+                return false;
+            }
+            i += Character.charCount(c);
+        }
+        return true;
+    }
+
+    /**
+     * {@code ^[\w-\.]+@([\w-]+\.)+[\w-]{2,4}$}: a local part of word characters, dashes and dots, and a
+     * domain of at least two dot-separated labels of word characters and dashes, the last one 2 to 4 long.
+     * @param value the value to check
+     * @return true if the value matches
+     */
+    static boolean isEmail(String value) {
+        int at = value.indexOf('@');
+        if (at <= 0) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = value.charAt(i);
+            if (!isWordOrDash(c) && c != '.') {
+                return false;
+            }
+        }
+        int labels = 0;
+        int labelLength = 0;
+        for (int i = at + 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (labelLength == 0) {
+                    return false;
+                }
+                labels++;
+                labelLength = 0;
+            } else if (isWordOrDash(c)) {
+                labelLength++;
+            } else {
+                return false;
+            }
+        }
+        return labels >= 1 && labelLength >= 2 && labelLength <= 4;
+    }
+
+    /**
+     * {@code ^[+]?[0-9\s]+$}: an optional plus followed by one or more digits and whitespace.
+     * @param value the value to check
+     * @return true if the value matches
+     */
+    static boolean isPhoneNumber(String value) {
+        int start = value.startsWith("+") ? 1 : 0;
+        if (start == value.length()) {
+            return false;
+        }
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c) && !isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of digits 0-9, what {@code value.replaceAll("[^0-9]", "").length()} returns.
+     * @param value the value to count in
+     * @return the number of digits
+     */
+    static int countDigits(String value) {
+        int digits = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (isDigit(value.charAt(i))) {
+                digits++;
+            }
+        }
+        return digits;
+    }
+
+    /**
+     * {@code ^([1-9]|10)[A-F]$}: a seat of the 10x6 layout.
+     * @param value the value to check
+     * @return true if the value matches
+     */
+    static boolean isSeatNumber(String value) {
+        return SeatMap.indexOf(value) >= 0;
+    }
+
+    /**
+     * {@code ^[A-Z][a-z]+\s+[A-Z][a-z]+.*$}: a capitalized first and last name, optionally followed by
+     * anything on the same line.
+     * @param value the value to check
+     * @return true if the value matches
+     */
+    static boolean isCapitalizedName(String value) {
+        int i = capitalizedWord(value, 0);
+        if (i < 0) {
+            return false;
+        }
+        int spaces = i;
+        while (i < value.length() && isWhitespace(value.charAt(i))) {
+            i++;
+        }
+        if (i == spaces) {
+            return false;
+        }
+        i = capitalizedWord(value, i);
+        if (i < 0) {
+            return false;
+        }
+        // '.' does not match line terminators.
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans {@code [A-Z][a-z]+} from the given position.
+     * @return the position after the word, or -1 if there is no such word
+     */
+    private static int capitalizedWord(String value, int start) {
+        if (start >= value.length() || !isUpper(value.charAt(start))) {
+            return -1;
+        }
+        int i = start + 1;
+        while (i < value.length() && isLower(value.charAt(i))) {
+            i++;
+        }
+        return i > start + 1 ? i : -1;
+    }
+
+    private static boolean isWordOrDash(char c) {
+        return isUpper(c) || isLower(c) || isDigit(c) || c == '_' || c == '-';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLower(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * {@code \s} without the UNICODE_CHARACTER_CLASS flag.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -18,6 +18,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
 import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
 import io.github.fontysvenlo.ais.exceptions.InvalidBookingDataException;
 import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
@@ -486,4 +487,62 @@ class BookingManagerImplTest {
             bookingManager.getFlightCapacity(flightId);
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Test Scenario: Valid batch booking
+     * All bookings are passed to the repository in one call
+     */
+    @Test
+    void testCreateBookingsValidBatchIsDelegated() throws InvalidBookingDataException {
+        BookingData secondLeg = withSeat(validBooking, 102, "5A");
+        List<BookingData> batch = List.of(validBooking, secondLeg);
+        List<BookingResult> stored = List.of(
+                new BookingResult(0, BookingResult.Status.BOOKED, validBooking, null),
+                new BookingResult(1, BookingResult.Status.BOOKED, secondLeg, null));
+        when(mockRepository.createBookings(batch)).thenReturn(stored);
+
+        assertEquals(stored, bookingManager.createBookings(batch));
+    }
+
+    /**
+     * Test Scenario: Batch with an invalid booking
+     * Nothing is stored, the invalid booking is reported and the others are not booked
+     */
+    @Test
+    void testCreateBookingsInvalidItemStoresNothing() throws InvalidBookingDataException {
+        BookingData invalid = withSeat(validBooking, 102, "11A");
+
+        List<BookingResult> results = bookingManager.createBookings(List.of(validBooking, invalid));
+
+        assertEquals(BookingResult.Status.NOT_BOOKED, results.get(0).status());
+        assertEquals(BookingResult.Status.INVALID, results.get(1).status());
+        assertEquals(1, results.get(1).index());
+        verify(mockRepository, never()).createBookings(any());
+    }
+
+    /**
+     * Test Scenario: Batch books the same seat twice
+     * The second booking of the seat is invalid
+     */
+    @Test
+    void testCreateBookingsDuplicateSeatIsInvalid() throws InvalidBookingDataException {
+        List<BookingResult> results = bookingManager.createBookings(List.of(validBooking, validBooking));
+
+        assertEquals(BookingResult.Status.INVALID, results.get(1).status());
+        verify(mockRepository, never()).createBookings(any());
+    }
+
+    /**
+     * Test Scenario: Empty batch
+     * System throws InvalidBookingDataException
+     */
+    @Test
+    void testCreateBookingsEmptyBatch() {
+        assertThrows(InvalidBookingDataException.class, () -> bookingManager.createBookings(List.of()));
+    }
+
+    private static BookingData withSeat(BookingData booking, int flightId, String seatNumber) {
+        return new BookingData(booking.id(), flightId, booking.price(), booking.luggage(), booking.food(),
+                booking.classType(), seatNumber, booking.customerEmail(), booking.customerName(), booking.paid());
+    }
+}
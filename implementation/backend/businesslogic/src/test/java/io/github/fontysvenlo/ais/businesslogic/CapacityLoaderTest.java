@@ -0,0 +1,235 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
+import io.github.fontysvenlo.ais.persistence.api.FlightNotFoundException;
+import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
+
+class CapacityLoaderTest {
+    // Long enough for all test threads to arrive within one window.
+    private static final Duration WINDOW = Duration.ofMillis(200);
+
+    private CountingRepository repository;
+    private CapacityLoader loader;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CountingRepository(Set.of(1, 2, 3));
+        loader = new CapacityLoader(repository, WINDOW, 100);
+        executor = Executors.newFixedThreadPool(32);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSingleLoadUsesSingleFlightQuery() throws SeatNotAvailableException {
+        assertEquals(1, loader.load(1).flightId());
+
+        assertEquals(1, repository.singleQueries.get());
+        assertEquals(0, repository.batches.size());
+    }
+
+    @Test
+    void testConcurrentLoadsOfOneFlightShareOneQuery() throws Exception {
+        List<Future<FlightCapacityData>> results = loadAll(List.of(1, 1, 1, 1, 1, 1, 1, 1, 1, 1));
+
+        for (Future<FlightCapacityData> result : results) {
+            assertEquals(1, result.get(5, TimeUnit.SECONDS).flightId());
+        }
+        assertEquals(1, loader.queries());
+        assertEquals(10, loader.loads());
+        assertEquals(1, repository.singleQueries.get());
+    }
+
+    @Test
+    void testConcurrentLoadsOfDifferentFlightsAreBatched() throws Exception {
+        List<Future<FlightCapacityData>> results = loadAll(List.of(1, 2, 3, 2, 1));
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(List.of(1, 2, 3, 2, 1).get(i), results.get(i).get(5, TimeUnit.SECONDS).flightId());
+        }
+        assertEquals(1, loader.queries());
+        assertEquals(0, repository.singleQueries.get());
+        assertEquals(List.of(Set.of(1, 2, 3)), repository.batches);
+    }
+
+    @Test
+    void testFullBatchStartsNextBatch() throws Exception {
+        loader = new CapacityLoader(repository, WINDOW, 2);
+
+        for (Future<FlightCapacityData> result : loadAll(List.of(1, 2, 3))) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, loader.queries());
+    }
+
+    @Test
+    void testUnknownFlightFailsOnlyItsOwnLoads() throws Exception {
+        List<Future<FlightCapacityData>> results = loadAll(List.of(1, 99));
+
+        assertEquals(1, results.get(0).get(5, TimeUnit.SECONDS).flightId());
+        Exception e = assertThrows(Exception.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof FlightNotFoundException);
+    }
+
+    @Test
+    void testQueryFailureReachesAllWaiters() throws Exception {
+        repository.fail = true;
+
+        for (Future<FlightCapacityData> result : loadAll(List.of(1, 1, 2))) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof SeatNotAvailableException);
+        }
+        assertEquals(1, loader.queries());
+    }
+
+    @Test
+    void testLoadDoesNotJoinRunningQuery() throws Exception {
+        loader = new CapacityLoader(repository, Duration.ZERO, 100);
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        repository.querying = querying;
+        repository.release = release;
+
+        Future<FlightCapacityData> first = executor.submit(() -> loader.load(1));
+        assertTrue(querying.await(5, TimeUnit.SECONDS));
+        repository.querying = null;
+        repository.release = null;
+        // The running query may have read the flight before a booking this load should see.
+        Future<FlightCapacityData> second = executor.submit(() -> loader.load(1));
+        second.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, repository.singleQueries.get());
+    }
+
+    private List<Future<FlightCapacityData>> loadAll(List<Integer> flightIds) {
+        List<Future<FlightCapacityData>> results = new ArrayList<>();
+        for (int flightId : flightIds) {
+            results.add(executor.submit(() -> loader.load(flightId)));
+        }
+        return results;
+    }
+
+    /**
+     * Serves capacity data of the given flights and records the queries.
+     */
+    private static final class CountingRepository implements BookingRepository {
+        private final Set<Integer> flights;
+        final AtomicInteger singleQueries = new AtomicInteger();
+        final List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+        volatile boolean fail;
+        volatile CountDownLatch querying;
+        volatile CountDownLatch release;
+
+        CountingRepository(Set<Integer> flights) {
+            this.flights = flights;
+        }
+
+        @Override
+        public FlightCapacityData getFlightCapacity(int flightId) throws SeatNotAvailableException {
+            singleQueries.incrementAndGet();
+            CountDownLatch started = querying;
+            CountDownLatch go = release;
+            if (started != null) {
+                started.countDown();
+                try {
+                    go.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                throw new SeatNotAvailableException("Error getting flight capacity");
+            }
+            if (!flights.contains(flightId)) {
+                throw new FlightNotFoundException(flightId);
+            }
+            return capacity(flightId);
+        }
+
+        @Override
+        public Map<Integer, FlightCapacityData> getFlightCapacities(Collection<Integer> flightIds) throws SeatNotAvailableException {
+            batches.add(Set.copyOf(flightIds));
+            if (fail) {
+                throw new SeatNotAvailableException("Error getting flight capacity");
+            }
+            Map<Integer, FlightCapacityData> capacities = new HashMap<>();
+            for (int flightId : flightIds) {
+                if (flights.contains(flightId)) {
+                    capacities.put(flightId, capacity(flightId));
+                }
+            }
+            return capacities;
+        }
+
+        private static FlightCapacityData capacity(int flightId) {
+            return new FlightCapacityData(flightId, "Amsterdam", "London", "2025-06-01", 60, 0, 60, false, 0.0, List.of());
+        }
+
+        @Override
+        public BookingData createBooking(BookingData booking) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<BookingResult> createBookings(List<BookingData> bookings) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isSeatAvailable(int flightId, String seatNumber) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isFlightFull(int flightId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getAvailableSeatsCount(int flightId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> getBookedSeats(int flightId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String suggestNextSeat(int flightId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.fontysvenlo.ais.businesslogic;
 
 import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
 import io.github.fontysvenlo.ais.exceptions.DeletionFailedException;
 import io.github.fontysvenlo.ais.exceptions.DuplicateEmailException;
 import io.github.fontysvenlo.ais.exceptions.RetrievalFailedException;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -89,6 +91,17 @@ class CustomerManagerImplTest {
         verify(mockRepository).delete(email);
     }
 
+    @Test
+    void testDeleteCustomerForgetsCachedBookings() {
+        Runnable afterDelete = mock(Runnable.class);
+        customerManager = new CustomerManagerImpl(mockRepository, afterDelete);
+        when(mockRepository.delete(johnDoe.email())).thenReturn(true);
+
+        customerManager.delete(johnDoe.email());
+
+        verify(afterDelete).run();
+    }
+
     /**
      * Test Scenario: Delete customer - Extension 5a
      * "System failed to delete the customer due to server or database error"
@@ -133,4 +146,62 @@ class CustomerManagerImplTest {
         verify(mockRepository).add(johnDoe);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testListPage() {
+        CustomerPage page = new CustomerPage(List.of(johnDoe), "john.doe@example.com");
+        when(mockRepository.getPage("jane.smith@example.com", 1)).thenReturn(page);
+
+        assertEquals(page, customerManager.list("jane.smith@example.com", 1));
+    }
+
+    @Test
+    void testListFirstPageWithEmptyCursor() {
+        CustomerPage page = new CustomerPage(List.of(johnDoe), null);
+        when(mockRepository.getPage(null, 10)).thenReturn(page);
+
+        assertEquals(page, customerManager.list("", 10));
+        verify(mockRepository).getPage(null, 10);
+    }
+
+    @Test
+    void testListPageRejectsLimitOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> customerManager.list(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> customerManager.list(null, CustomerManagerImpl.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(mockRepository);
+    }
+
+    @Test
+    void testGetByEmail() {
+        when(mockRepository.getOne("john.doe@example.com")).thenReturn(Optional.of(johnDoe));
+
+        assertEquals(Optional.of(johnDoe), customerManager.get("john.doe@example.com"));
+        assertEquals(Optional.empty(), customerManager.get("nobody@example.com"));
+    }
+
+    @Test
+    void testSearchByNameIsCaseInsensitive() {
+        when(mockRepository.searchByName("doe", 20)).thenReturn(List.of(johnDoe));
+
+        assertEquals(List.of(johnDoe), customerManager.search("  Doe ", 20));
+        verify(mockRepository, never()).searchByPhone(anyString(), anyInt());
+    }
+
+    @Test
+    void testSearchByPhoneUsesDigitsOnly() {
+        when(mockRepository.searchByPhone("316123", 5)).thenReturn(List.of(johnDoe));
+
+        assertEquals(List.of(johnDoe), customerManager.search("+31 (6) 12-3", 5));
+        verify(mockRepository, never()).searchByName(anyString(), anyInt());
+    }
+
+    @Test
+    void testSearchRejectsUnusableQueries() {
+        assertThrows(IllegalArgumentException.class, () -> customerManager.search(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> customerManager.search(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> customerManager.search("+31", 10));
+        assertThrows(IllegalArgumentException.class, () -> customerManager.search("doe", 0));
+        assertThrows(IllegalArgumentException.class, () -> customerManager.search("doe", CustomerManagerImpl.MAX_SEARCH_RESULTS + 1));
+        verifyNoInteractions(mockRepository);
+    }
+
+}
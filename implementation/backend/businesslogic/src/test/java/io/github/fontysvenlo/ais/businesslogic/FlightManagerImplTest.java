@@ -1,6 +1,8 @@
 package io.github.fontysvenlo.ais.businesslogic;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -9,12 +11,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
 import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
 
 class FlightManagerImplTest {
@@ -29,7 +33,7 @@ class FlightManagerImplTest {
 
     @Test
     void testSearchFlightsValid() {
-        when(flightRepository.search("amsterdam", "london", "2025-07-01T08:00:00Z"))
+        when(flightRepository.search("amsterdam", "london", epoch("2025-07-01T08:00:00Z")))
                 .thenReturn(java.util.Collections.singletonList(List.of(
                         new FlightData(1, "Amsterdam", "London", "2025-07-01T08:00:00Z", "2025-07-01T10:00:00Z"))));
         List<List<FlightData>> search = flightManager.search("Amsterdam", "London", "2025-07-01T08:00:00Z");
@@ -39,21 +43,55 @@ class FlightManagerImplTest {
 
     @Test
     void testSearchFlightsNoResults() {
-        when(flightRepository.search("miami", "berlin", "2025-07-01T08:00:00Z")).thenReturn(List.of());
+        when(flightRepository.search("miami", "berlin", epoch("2025-07-01T08:00:00Z"))).thenReturn(List.of());
         List<List<FlightData>> search = flightManager.search("Miami", "Berlin", "2025-07-01T08:00:00Z");
 
         assertNotNull(search, "Search result should not be null");
         assertTrue(search.isEmpty(), "Search result should be empty for no matches");
     }
 
+    @Test
+    void testStreamingSearchIsValidatedBeforeSearching() {
+        assertThrows(InvalidFlightSearchException.class,
+                () -> flightManager.search("Amsterdam", "Amsterdam", "2099-07-01T08:00:00Z", itinerary -> { }));
+
+        verify(flightRepository, never()).search(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void testStreamingSearchPassesNormalizedRoute() {
+        Consumer<List<FlightData>> action = itinerary -> { };
+
+        flightManager.search("Amsterdam", "London", "2099-07-01T08:00:00Z", action);
+
+        verify(flightRepository).search("amsterdam", "london", epoch("2099-07-01T08:00:00Z"), action);
+    }
+
+    @Test
+    void testRankedSearchPassesNormalizedRoute() {
+        flightManager.search("Amsterdam", "London", "2099-07-01T08:00:00Z", ItineraryRanking.FEWEST_LEGS, 5);
+
+        verify(flightRepository).search("amsterdam", "london", epoch("2099-07-01T08:00:00Z"), ItineraryRanking.FEWEST_LEGS, 5);
+    }
+
+    @Test
+    void testRankedSearchLimitOutOfRange() {
+        for (int limit : new int[] {0, FlightManagerImpl.MAX_RANKED_RESULTS + 1}) {
+            InvalidFlightSearchException exception = assertThrows(InvalidFlightSearchException.class,
+                    () -> flightManager.search("Amsterdam", "London", "2099-07-01T08:00:00Z", ItineraryRanking.EARLIEST_ARRIVAL, limit));
+            assertEquals("Limit must be between 1 and 100.", exception.getMessage());
+        }
+        verify(flightRepository, never()).search(any(), any(), anyLong(), any(), Mockito.anyInt());
+    }
+
     @Test
     void testSearchFlightsSameDeaprtureAndArrival() {
-        when(flightRepository.search("amsterdam", "amsterdam", "2025-07-01T08:00:00Z")).thenReturn(List.of());
+        when(flightRepository.search("amsterdam", "amsterdam", epoch("2025-07-01T08:00:00Z"))).thenReturn(List.of());
         InvalidFlightSearchException exception = assertThrows(InvalidFlightSearchException.class, () -> {
             flightManager.search("Amsterdam", "Amsterdam", "2025-07-01T08:00:00Z");
         });
         assertEquals("Departure and arrival cannot be the same.", exception.getMessage());
-        verify(flightRepository, never()).search(any(), any(), any());
+        verify(flightRepository, never()).search(any(), any(), anyLong());
     }
 
     @Test
@@ -63,7 +101,7 @@ class FlightManagerImplTest {
                     flightManager.search("", "London", "2025-07-01T08:00:00Z");
                 });
         assertEquals("Departure cannot be empty.", exception.getMessage());
-        verify(flightRepository, never()).search(any(), any(), any());
+        verify(flightRepository, never()).search(any(), any(), anyLong());
     }
 
     @Test
@@ -73,7 +111,7 @@ class FlightManagerImplTest {
                     flightManager.search("Amsterdam", "", "2025-07-01T08:00:00Z");
                 });
         assertEquals("Arrival cannot be empty.", exception.getMessage());
-        verify(flightRepository, never()).search(any(), any(), any());
+        verify(flightRepository, never()).search(any(), any(), anyLong());
     }
 
     @Test
@@ -83,7 +121,7 @@ class FlightManagerImplTest {
                     flightManager.search("Amsterdam", "London", "");
                 });
         assertEquals("Datetime cannot be empty.", exception.getMessage());
-        verify(flightRepository, never()).search(any(), any(), any());
+        verify(flightRepository, never()).search(any(), any(), anyLong());
     }
 
     @Test
@@ -93,7 +131,18 @@ class FlightManagerImplTest {
                     flightManager.search("Amsterdam", "London", "2020-01-01T08:00:00Z");
                 });
         assertEquals("Date and time has to be in the future.", exception.getMessage());
-        verify(flightRepository, never()).search(any(), any(), any());
+        verify(flightRepository, never()).search(any(), any(), anyLong());
     }
 
+    @Test
+    void testSearchFlightsInvalidDatetime() {
+        InvalidFlightSearchException exception = assertThrows(InvalidFlightSearchException.class,
+                () -> flightManager.search("Amsterdam", "London", "tomorrow"));
+        assertEquals("Invalid datetime format. Expected e.g. '2025-07-01T08:00:00Z'", exception.getMessage());
+        verify(flightRepository, never()).search(any(), any(), anyLong());
+    }
+
+    private static long epoch(String datetime) {
+        return OffsetDateTime.parse(datetime).toEpochSecond();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
+import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
+
+class SearchResultCacheTest {
+    private static final SearchCacheConfig CONFIG = new SearchCacheConfig(2, 60, 15);
+
+    private final AtomicLong now = new AtomicLong();
+    private CountingRepository repository;
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CountingRepository();
+        cache = new SearchResultCache(repository, CONFIG, now::get);
+    }
+
+    @Test
+    void testSearchesInOneBucketShareOneResult() {
+        // Flight 1 departs at 06:00Z; the bucket runs from 06:00Z to 06:15Z.
+        for (String time : List.of("2025-06-01T06:00:00Z", "2025-06-01T06:01:00Z", "2025-06-01T06:14:59Z")) {
+            assertEquals(SeedTimetable.search("amsterdam", "london", at(time)), cache.search("amsterdam", "london", at(time)));
+        }
+
+        assertEquals(1, repository.searches.get());
+        assertEquals(new SearchCacheStats(2, 1, 0, 1), cache.stats());
+        assertFalse(cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z")).isEmpty());
+    }
+
+    @Test
+    void testStreamingSearchPassesCachedItineraries() {
+        List<List<FlightData>> passed = new ArrayList<>();
+
+        cache.search("amsterdam", "london", at("2025-06-01T06:01:00Z"), passed::add);
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"), itinerary -> { });
+
+        assertEquals(SeedTimetable.search("amsterdam", "london", at("2025-06-01T06:01:00Z")), passed);
+        assertEquals(new SearchCacheStats(1, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void testSlowStreamingClientDoesNotHoldUpWaitingSearches() throws Exception {
+        CountDownLatch passing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slow = executor.submit(() -> cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"), itinerary -> {
+                passing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(passing.await(5, TimeUnit.SECONDS));
+
+            // The bucket is cached before the first itinerary is passed on, so this search does not wait for the client.
+            assertEquals(SeedTimetable.search("amsterdam", "london", at("2025-06-01T06:00:00Z")),
+                    cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z")));
+
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(1, repository.searches.get());
+    }
+
+    @Test
+    void testRankedSearchRanksCachedResult() {
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+
+        List<List<FlightData>> best = cache.search("amsterdam", "london", at("2025-06-01T06:01:00Z"), ItineraryRanking.SHORTEST_DURATION, 2);
+
+        assertEquals(ranked(ItineraryRanking.SHORTEST_DURATION, at("2025-06-01T06:01:00Z"), 2), best);
+        assertEquals(1, repository.searches.get());
+        assertEquals(new SearchCacheStats(1, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void testRankedSearchMissCachesTheBucket() {
+        List<List<FlightData>> best = cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"), ItineraryRanking.EARLIEST_ARRIVAL, 3);
+        List<List<FlightData>> all = cache.search("amsterdam", "london", at("2025-06-01T06:01:00Z"));
+
+        assertEquals(ranked(ItineraryRanking.EARLIEST_ARRIVAL, at("2025-06-01T06:00:00Z"), 3), best);
+        assertEquals(SeedTimetable.search("amsterdam", "london", at("2025-06-01T06:01:00Z")), all);
+        assertEquals(1, repository.searches.get());
+        assertEquals(new SearchCacheStats(1, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void testConcurrentIdenticalRankedMissesSearchOnce() throws Exception {
+        int clients = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        repository.gate = release;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<List<List<FlightData>>>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> cache.search("amsterdam", "london", at("2025-06-01T06:05:00Z"),
+                        ItineraryRanking.FEWEST_LEGS, 2)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.stats().hits() < clients - 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<List<List<FlightData>>> result : results) {
+                assertEquals(ranked(ItineraryRanking.FEWEST_LEGS, at("2025-06-01T06:05:00Z"), 2), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, repository.searches.get());
+    }
+
+    @Test
+    void testRouteIsCaseInsensitive() {
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+        cache.search(" Amsterdam", "LONDON", at("2025-06-01T06:00:00Z"));
+
+        assertEquals(1, repository.searches.get());
+    }
+
+    @Test
+    void testOtherBucketIsSearched() {
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+        cache.search("amsterdam", "london", at("2025-06-01T06:15:00Z"));
+
+        assertEquals(2, repository.searches.get());
+    }
+
+    @Test
+    void testExpiredResultIsSearchedAgain() {
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+
+        assertEquals(2, repository.searches.get());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testTimetableChangeInvalidates() {
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+        repository.version.incrementAndGet();
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+
+        assertEquals(2, repository.searches.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvictedWhenFull() {
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+        cache.search("paris", "berlin", at("2025-06-01T06:00:00Z"));
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+        cache.search("berlin", "rome", at("2025-06-01T06:00:00Z"));
+        cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z"));
+
+        assertEquals(3, repository.searches.get());
+        assertEquals(new SearchCacheStats(2, 3, 1, 2), cache.stats());
+    }
+
+    @Test
+    void testFailedSearchIsNotCached() {
+        repository.failures.set(1);
+
+        assertThrows(IllegalStateException.class, () -> cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z")));
+        assertFalse(cache.search("amsterdam", "london", at("2025-06-01T06:00:00Z")).isEmpty());
+        assertEquals(2, repository.searches.get());
+    }
+
+    @Test
+    void testConcurrentIdenticalMissesSearchOnce() throws Exception {
+        int clients = 16;
+        CountDownLatch release = new CountDownLatch(1);
+        repository.gate = release;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<List<List<FlightData>>>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> cache.search("amsterdam", "london", at("2025-06-01T06:05:00Z"))));
+            }
+            // Every client but the searching one waits for its result before the search is let go.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.stats().hits() < clients - 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<List<List<FlightData>>> result : results) {
+                assertEquals(SeedTimetable.search("amsterdam", "london", at("2025-06-01T06:05:00Z")), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, repository.searches.get());
+        assertEquals(clients - 1, cache.stats().hits());
+    }
+
+    private static List<List<FlightData>> ranked(ItineraryRanking ranking, long departAfter, int limit) {
+        return SeedTimetable.search("amsterdam", "london", departAfter).stream().sorted(ranking.comparator()).limit(limit).toList();
+    }
+
+    private static long at(String time) {
+        return Instant.parse(time).getEpochSecond();
+    }
+
+    /**
+     * Searches the seed timetable and counts the searches.
+     */
+    private static final class CountingRepository implements FlightRepository {
+        final AtomicInteger searches = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicLong version = new AtomicLong();
+        volatile CountDownLatch gate;
+
+        @Override
+        public List<List<FlightData>> search(String departure, String arrival, long departAfter) {
+            searches.incrementAndGet();
+            CountDownLatch latch = gate;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            return SeedTimetable.search(departure, arrival, departAfter);
+        }
+
+        @Override
+        public List<FlightData> getAllFlights() {
+            return SeedTimetable.FLIGHTS;
+        }
+
+        @Override
+        public long getTimetableVersion() {
+            return version.get();
+        }
+    }
+}
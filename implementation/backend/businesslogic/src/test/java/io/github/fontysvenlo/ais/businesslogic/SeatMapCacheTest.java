@@ -0,0 +1,193 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
+import io.github.fontysvenlo.ais.persistence.api.FlightNotFoundException;
+import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
+
+/**
+ * Tests for SeatMapCache, with flight 1 of the seed data: 60 seats, booked 2B, 12A, 14C and 16A.
+ */
+class SeatMapCacheTest {
+
+    private BookingRepository repository;
+    private SeatMapCache cache;
+
+    @BeforeEach
+    void setUp() throws SeatNotAvailableException {
+        repository = mock(BookingRepository.class);
+        when(repository.getFlightCapacity(1)).thenReturn(new FlightCapacityData(1, "Amsterdam", "London", "2025-06-01",
+                60, 4, 56, false, 6.67, List.of("12A", "14C", "16A", "2B")));
+        cache = new SeatMapCache(repository);
+    }
+
+    @Test
+    void testReadsAfterWarmUpRunNoQueries() throws SeatNotAvailableException {
+        assertFalse(cache.isFlightFull(1));
+        assertEquals(56, cache.getAvailableSeatsCount(1));
+        assertEquals(List.of("12A", "14C", "16A", "2B"), cache.getBookedSeats(1));
+        assertEquals("1A", cache.suggestNextSeat(1));
+        FlightCapacityData capacity = cache.getFlightCapacity(1);
+        assertEquals(4, capacity.bookedSeats());
+        assertEquals(6.67, capacity.occupancyPercentage(), 0.0);
+
+        verify(repository, times(1)).getFlightCapacity(1);
+        verify(repository, never()).isFlightFull(anyInt());
+        verify(repository, never()).getAvailableSeatsCount(anyInt());
+        verify(repository, never()).getBookedSeats(anyInt());
+        verify(repository, never()).suggestNextSeat(anyInt());
+    }
+
+    @Test
+    void testBookingUpdatesSeatMap() throws SeatNotAvailableException {
+        BookingData booking = booking("1A");
+        when(repository.createBooking(booking)).thenReturn(booking);
+        cache.getFlightCapacity(1);
+
+        cache.createBooking(booking);
+
+        assertEquals(55, cache.getAvailableSeatsCount(1));
+        assertEquals("1B", cache.suggestNextSeat(1));
+        assertEquals(List.of("12A", "14C", "16A", "1A", "2B"), cache.getBookedSeats(1));
+        verify(repository, times(1)).getFlightCapacity(1);
+    }
+
+    @Test
+    void testTakenSeatReloadsSeatMap() throws SeatNotAvailableException {
+        BookingData booking = booking("1A");
+        when(repository.createBooking(booking)).thenThrow(new SeatNotAvailableException("Seat is taken"));
+        cache.getFlightCapacity(1);
+
+        assertThrows(SeatNotAvailableException.class, () -> cache.createBooking(booking));
+        cache.getFlightCapacity(1);
+
+        verify(repository, times(2)).getFlightCapacity(1);
+    }
+
+    @Test
+    void testLoadThatRacedWithBookingIsNotCached() throws SeatNotAvailableException {
+        BookingData booking = booking("1A");
+        when(repository.createBooking(booking)).thenReturn(booking);
+        // The booking is stored while the seat map is loaded, so the loaded data does not contain it.
+        when(repository.getFlightCapacity(1)).thenAnswer(invocation -> {
+            cache.createBooking(booking);
+            return new FlightCapacityData(1, "Amsterdam", "London", "2025-06-01",
+                    60, 4, 56, false, 6.67, List.of("12A", "14C", "16A", "2B"));
+        });
+
+        cache.getFlightCapacity(1);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testFullLayoutHasNoSuggestion() throws SeatNotAvailableException {
+        cache.getFlightCapacity(1);
+        for (int i = 0; i < SeatMap.LAYOUT_SEATS; i++) {
+            BookingData booking = booking((i / 6 + 1) + String.valueOf((char) ('A' + i % 6)));
+            when(repository.createBooking(booking)).thenReturn(booking);
+            cache.createBooking(booking);
+        }
+
+        // The 60 seats of the layout plus the three seed bookings outside it.
+        assertNull(cache.suggestNextSeat(1));
+        assertTrue(cache.isFlightFull(1));
+        assertEquals(63, cache.getFlightCapacity(1).bookedSeats());
+    }
+
+    @Test
+    void testSeatMapIsLoadedAgainAfterTimeToLive() throws SeatNotAvailableException {
+        AtomicLong now = new AtomicLong();
+        cache = new SeatMapCache(repository, 10, Duration.ofSeconds(30), now::get);
+        cache.getFlightCapacity(1);
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        cache.getFlightCapacity(1);
+        verify(repository, times(1)).getFlightCapacity(1);
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.getFlightCapacity(1);
+        verify(repository, times(2)).getFlightCapacity(1);
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void testLeastRecentlyReadFlightIsEvictedWhenFull() throws SeatNotAvailableException {
+        for (int flightId = 2; flightId <= 3; flightId++) {
+            when(repository.getFlightCapacity(flightId)).thenReturn(new FlightCapacityData(flightId, "Amsterdam", "Paris",
+                    "2025-06-01", 60, 0, 60, false, 0.0, List.of()));
+        }
+        cache = new SeatMapCache(repository, 2, Duration.ofMinutes(1));
+        cache.getFlightCapacity(1);
+        cache.getFlightCapacity(2);
+        cache.getFlightCapacity(1);
+
+        cache.getFlightCapacity(3);
+        cache.getFlightCapacity(1);
+        cache.getFlightCapacity(2);
+
+        assertEquals(2, cache.size());
+        verify(repository, times(1)).getFlightCapacity(1);
+        verify(repository, times(2)).getFlightCapacity(2);
+    }
+
+    @Test
+    void testInvalidateAllForgetsDeletedBookings() throws SeatNotAvailableException {
+        cache.getFlightCapacity(1);
+
+        cache.invalidateAll();
+        cache.getFlightCapacity(1);
+
+        verify(repository, times(2)).getFlightCapacity(1);
+    }
+
+    @Test
+    void testUnknownFlightIsNotFoundOnEveryRead() throws SeatNotAvailableException {
+        when(repository.getFlightCapacity(99)).thenThrow(new FlightNotFoundException(99));
+
+        assertThrows(FlightNotFoundException.class, () -> cache.isFlightFull(99));
+        assertThrows(FlightNotFoundException.class, () -> cache.getAvailableSeatsCount(99));
+        assertThrows(FlightNotFoundException.class, () -> cache.getBookedSeats(99));
+        assertThrows(FlightNotFoundException.class, () -> cache.suggestNextSeat(99));
+        assertThrows(FlightNotFoundException.class, () -> cache.getFlightCapacity(99));
+
+        // Nothing is cached for it, so a flight that is added later is found.
+        verify(repository, times(5)).getFlightCapacity(99);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testSeatIndexFollowsLayout() {
+        assertEquals(0, SeatMap.indexOf("1A"));
+        assertEquals(59, SeatMap.indexOf("10F"));
+        assertEquals(-1, SeatMap.indexOf("12A"));
+        assertEquals(-1, SeatMap.indexOf("0A"));
+        assertEquals(-1, SeatMap.indexOf("1G"));
+        assertEquals(-1, SeatMap.indexOf("A1"));
+    }
+
+    private static BookingData booking(String seat) {
+        return new BookingData(null, 1, new BigDecimal("150.00"), false, false, "Economy", seat,
+                "john.doe@example.com", "John Doe", true);
+    }
+}
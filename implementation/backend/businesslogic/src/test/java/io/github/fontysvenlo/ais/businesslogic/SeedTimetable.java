@@ -0,0 +1,82 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
+
+/**
+ * The flights from the seed data in init.sql, as FlightRepositoryImpl returns them.
+ */
+final class SeedTimetable {
+
+    static final List<FlightData> FLIGHTS = List.of(
+            new FlightData(1, "Amsterdam", "London", "2025-06-01T08:00:00", "2025-06-01T09:30:00"),
+            new FlightData(2, "Paris", "Berlin", "2025-07-02T10:00:00", "2025-07-02T11:45:00"),
+            new FlightData(3, "London", "Amsterdam", "2025-07-01T14:00:00", "2025-07-01T15:15:00"),
+            new FlightData(4, "Amsterdam", "London", "2025-07-03T16:00:00", "2025-07-03T17:30:00"),
+            new FlightData(5, "London", "Paris", "2025-04-02T09:00:00", "2025-04-02T11:00:00"),
+            new FlightData(6, "London", "Paris", "2025-04-04T13:00:00", "2025-04-04T15:00:00"),
+            new FlightData(7, "London", "Amsterdam", "2025-05-04T11:00:00", "2025-05-04T12:15:00"),
+            new FlightData(8, "Berlin", "Rome", "2025-06-15T07:30:00", "2025-06-15T10:00:00"),
+            new FlightData(9, "Rome", "Madrid", "2025-06-20T15:00:00", "2025-06-20T17:00:00"),
+            new FlightData(10, "Madrid", "London", "2025-06-25T12:00:00", "2025-06-25T14:15:00"),
+            new FlightData(11, "Amsterdam", "Paris", "2025-06-01T10:00:00", "2025-06-01T11:15:00"),
+            new FlightData(12, "Paris", "London", "2025-06-01T13:00:00", "2025-06-01T14:15:00"),
+            new FlightData(13, "London", "Berlin", "2025-07-02T14:00:00", "2025-07-02T15:45:00"),
+            new FlightData(14, "Berlin", "Amsterdam", "2025-07-02T17:00:00", "2025-07-02T18:15:00"),
+            new FlightData(15, "Amsterdam", "Rome", "2025-06-15T09:00:00", "2025-06-15T11:30:00"));
+
+    static final List<String> AIRPORTS = List.of("Amsterdam", "London", "Paris", "Berlin", "Rome", "Madrid");
+
+    /**
+     * The itineraries the repository finds in the seed data with the default search rules: up to six flights,
+     * every next flight departing from where the previous one arrived, at or after its arrival, and no airport
+     * visited twice.
+     * @param from the departure airport, in any case
+     * @param to the arrival airport, in any case
+     * @param departAfter the earliest departure of the first flight, in epoch seconds
+     * @return the itineraries, each a list of flights in travel order
+     */
+    static List<List<FlightData>> search(String from, String to, long departAfter) {
+        List<List<FlightData>> itineraries = new ArrayList<>();
+        for (FlightData flight : FLIGHTS) {
+            if (FlightRepository.airportKey(flight.flightDeparture()).equals(FlightRepository.airportKey(from))
+                    && flight.departureEpochSecond() >= departAfter) {
+                List<FlightData> path = new ArrayList<>();
+                path.add(flight);
+                walk(path, FlightRepository.airportKey(to), itineraries);
+            }
+        }
+        return itineraries;
+    }
+
+    private static void walk(List<FlightData> path, String to, List<List<FlightData>> itineraries) {
+        FlightData last = path.get(path.size() - 1);
+        String airport = FlightRepository.airportKey(last.flightDestination());
+        for (FlightData flight : path) {
+            if (FlightRepository.airportKey(flight.flightDeparture()).equals(airport)) {
+                return;
+            }
+        }
+        if (airport.equals(to)) {
+            itineraries.add(List.copyOf(path));
+            return;
+        }
+        if (path.size() == 6) {
+            return;
+        }
+        for (FlightData next : FLIGHTS) {
+            if (FlightRepository.airportKey(next.flightDeparture()).equals(airport)
+                    && next.departureEpochSecond() >= last.arrivalEpochSecond()) {
+                path.add(next);
+                walk(path, to, itineraries);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    private SeedTimetable() {
+    }
+}
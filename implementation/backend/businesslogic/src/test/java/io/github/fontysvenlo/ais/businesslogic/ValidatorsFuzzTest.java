@@ -0,0 +1,128 @@
+package io.github.fontysvenlo.ais.businesslogic;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the scanners in Validators accept exactly what the regular expressions they replace accept,
+ * on random strings and on random edits of valid values.
+ */
+class ValidatorsFuzzTest {
+    private static final int RUNS = 200_000;
+    // Characters the rules treat differently: letters in and outside ASCII, digits, word and separator characters,
+    // every kind of whitespace and line terminator, and a letter outside the BMP plus a lone surrogate.
+    private static final String ALPHABET = "AaFfGZzbq059_-.@+ \t\n\u000B\f\r\u0085\u00A0\u2028\u2029\u00E9\u00C9\u00DF\u0436\u0416\u6F22\u01C5'!/\uD835\uDC9C\uD800";
+
+    private final Random random = new Random(20251018);
+
+    @Test
+    void testLettersAndSpacesAgreesWithRegex() {
+        assertAgrees("^[\\p{L} ]+$", Validators::isLettersAndSpaces, List.of("John", "Anne Marie", "Ørjan", "José Luis"));
+    }
+
+    @Test
+    void testEmailAgreesWithRegex() {
+        assertAgrees("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$", Validators::isEmail,
+                List.of("john.doe@example.com", "a-b_c@mail.co.uk", "x@y-z.info", ".@a.bc"));
+    }
+
+    @Test
+    void testPhoneNumberAgreesWithRegex() {
+        assertAgrees("^[+]?[0-9\\s]+$", Validators::isPhoneNumber, List.of("+31 6 12345678", "0612345678", " 1\t2"));
+    }
+
+    @Test
+    void testCountDigitsAgreesWithReplaceAll() {
+        for (int run = 0; run < RUNS; run++) {
+            String value = randomString(12);
+            assertEquals(value.replaceAll("[^0-9]", "").length(), Validators.countDigits(value), () -> describe(value));
+        }
+    }
+
+    @Test
+    void testSeatNumberAgreesWithRegex() {
+        assertAgrees("^([1-9]|10)[A-F]$", Validators::isSeatNumber, List.of("1A", "5C", "10F", "9F"));
+    }
+
+    @Test
+    void testCapitalizedNameAgreesWithRegex() {
+        assertAgrees("^[A-Z][a-z]+\\s+[A-Z][a-z]+.*$", Validators::isCapitalizedName,
+                List.of("John Smith", "Jane Doe-Smith", "Ab\tCd e!", "Mary Ann Lee"));
+    }
+
+    @Test
+    void testKnownEdgeCases() {
+        assertFalse(Validators.isEmail("john@example"));
+        assertFalse(Validators.isEmail("john@example.comma"));
+        assertFalse(Validators.isEmail("@example.com"));
+        assertFalse(Validators.isPhoneNumber("+"));
+        assertFalse(Validators.isSeatNumber("0A"));
+        assertFalse(Validators.isSeatNumber("11A"));
+        assertFalse(Validators.isCapitalizedName("John Smith\n"));
+        assertTrue(Validators.isCapitalizedName("John Smith Jr"));
+        assertTrue(Validators.isLettersAndSpaces("\uD835\uDC9C"));
+    }
+
+    private void assertAgrees(String regex, Predicate<String> scanner, List<String> validSamples) {
+        Pattern pattern = Pattern.compile(regex);
+        for (String sample : validSamples) {
+            assertTrue(scanner.test(sample), () -> describe(sample));
+        }
+        for (int run = 0; run < RUNS; run++) {
+            String value = run % 2 == 0
+                    ? randomString(10)
+                    : mutate(validSamples.get(random.nextInt(validSamples.size())));
+            assertEquals(pattern.matcher(value).matches(), scanner.test(value), () -> describe(value));
+        }
+    }
+
+    private String randomString(int maxLength) {
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            value.append(randomChar());
+        }
+        return value.toString();
+    }
+
+    private String mutate(String sample) {
+        StringBuilder value = new StringBuilder(sample);
+        int edits = 1 + random.nextInt(3);
+        for (int edit = 0; edit < edits; edit++) {
+            int position = random.nextInt(value.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> value.insert(position, randomChar());
+                case 1 -> {
+                    if (position < value.length()) {
+                        value.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (position < value.length()) {
+                        value.setCharAt(position, randomChar());
+                    }
+                }
+            }
+        }
+        return value.toString();
+    }
+
+    private char randomChar() {
+        return ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    }
+
+    private static String describe(String value) {
+        StringBuilder escaped = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            escaped.append(c >= 0x20 && c < 0x7F ? String.valueOf(c) : String.format("\\u%04X", (int) c));
+        }
+        return escaped.append('"').toString();
+    }
+}
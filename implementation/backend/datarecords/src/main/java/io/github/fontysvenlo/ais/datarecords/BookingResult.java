@@ -0,0 +1,30 @@
+package io.github.fontysvenlo.ais.datarecords;
+
+/**
+ * Outcome of one booking in a batch booking.
+ * A batch is booked all-or-nothing: either every item is BOOKED, or none is.
+ * @param index the position of the booking in the batch
+ * @param status what happened to the booking
+ * @param booking the stored booking with its ID when BOOKED, otherwise the booking as requested
+ * @param message why the booking was not made, or null when BOOKED
+ */
+public record BookingResult(
+    int index,
+    Status status,
+    BookingData booking,
+    String message
+) {
+    /**
+     * What happened to one booking of a batch.
+     */
+    public enum Status {
+        /** The booking is stored. */
+        BOOKED,
+        /** The seat was already booked. */
+        SEAT_TAKEN,
+        /** The booking data is invalid. */
+        INVALID,
+        /** The booking itself was fine, but it was not made because another booking in the batch failed. */
+        NOT_BOOKED
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.fontysvenlo.ais.datarecords;
+
+import java.util.List;
+
+/**
+ * One page of customers, ordered by email.
+ * @param customers the customers on this page
+ * @param nextCursor the email to pass as 'after' to get the next page, or null if this is the last page
+ */
+public record CustomerPage(
+    List<CustomerData> customers,
+    String nextCursor
+) {}
@@ -1,5 +1,89 @@
 package io.github.fontysvenlo.ais.datarecords;
 
-public record FlightData(Integer flightNumber, String flightDeparture, String flightDestination, String departureTime,
-        String arrivalTime) {
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneRules;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * A flight. The departure and arrival are epoch seconds, so searching and ranking only compare numbers.
+ * In JSON they are local times of the timetable, e.g. "2025-06-01T08:00:00", formatted when the flight is
+ * written; see {@link FlightDataJson}.
+ * @param flightNumber the id of the flight
+ * @param flightDeparture the departure airport
+ * @param flightDestination the arrival airport
+ * @param departureEpochSecond the departure, in epoch seconds
+ * @param arrivalEpochSecond the arrival, in epoch seconds
+ */
+@JsonSerialize(using = FlightDataJson.Serializer.class)
+@JsonDeserialize(using = FlightDataJson.Deserializer.class)
+public record FlightData(Integer flightNumber, String flightDeparture, String flightDestination, long departureEpochSecond,
+        long arrivalEpochSecond) {
+
+    /**
+     * The zone of the times in the flights table.
+     */
+    public static final ZoneId TIMETABLE_ZONE = ZoneId.of("Europe/Amsterdam");
+    private static final ZoneRules TIMETABLE_RULES = TIMETABLE_ZONE.getRules();
+
+    /**
+     * Create a flight from its times as text.
+     * @param flightNumber the id of the flight
+     * @param flightDeparture the departure airport
+     * @param flightDestination the arrival airport
+     * @param departureTime the departure, a local time of the timetable or a time with an offset
+     * @param arrivalTime the arrival, a local time of the timetable or a time with an offset
+     */
+    public FlightData(Integer flightNumber, String flightDeparture, String flightDestination, String departureTime, String arrivalTime) {
+        this(flightNumber, flightDeparture, flightDestination, toEpochSecond(departureTime), toEpochSecond(arrivalTime));
+    }
+
+    /**
+     * The departure as a local time of the timetable. Formats on every call; meant for logging and tests.
+     * @return the departure, e.g. "2025-06-01T08:00:00"
+     */
+    public String departureTime() {
+        return format(departureEpochSecond);
+    }
+
+    /**
+     * The arrival as a local time of the timetable. Formats on every call; meant for logging and tests.
+     * @return the arrival, e.g. "2025-06-01T09:30:00"
+     */
+    public String arrivalTime() {
+        return format(arrivalEpochSecond);
+    }
+
+    /**
+     * Parses a time as it is written in the timetable, or a time with an offset.
+     * @param time e.g. "2025-06-01T08:00:00" or "2025-06-01T06:00:00Z"
+     * @return the time in epoch seconds
+     * @throws DateTimeParseException if the time cannot be parsed
+     */
+    public static long toEpochSecond(String time) {
+        try {
+            return LocalDateTime.parse(time).atZone(TIMETABLE_ZONE).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(time).toEpochSecond();
+        }
+    }
+
+    /**
+     * Formats a time as a local time of the timetable.
+     * @param epochSecond the time in epoch seconds
+     * @return the time, e.g. "2025-06-01T08:00:00"
+     */
+    public static String format(long epochSecond) {
+        char[] text = new char[FlightDataJson.TIME_LENGTH];
+        return new String(text, 0, FlightDataJson.format(epochSecond, text));
+    }
+
+    static long localEpochSecond(long epochSecond) {
+        return epochSecond + TIMETABLE_RULES.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
 }
@@ -0,0 +1,155 @@
+package io.github.fontysvenlo.ais.datarecords;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * JSON form of {@link FlightData}: {"flightNumber":1,"flightDeparture":"Amsterdam","flightDestination":"London",
+ * "departureTime":"2025-06-01T08:00:00","arrivalTime":"2025-06-01T09:30:00"}. The times are written straight
+ * from their epoch seconds into the output, without creating a String or a LocalDateTime per time.
+ */
+public final class FlightDataJson {
+    static final int TIME_LENGTH = 19;
+    private static final long SECONDS_PER_DAY = 86_400;
+    // Days from 0000-03-01 to 1970-01-01, for the civil calendar conversion below.
+    private static final long DAYS_0000_TO_1970 = 719_468;
+    // The generator copies the characters, so a thread can reuse one buffer for every time it writes.
+    private static final ThreadLocal<char[]> TIME_BUFFER = ThreadLocal.withInitial(() -> new char[TIME_LENGTH]);
+
+    private FlightDataJson() {
+    }
+
+    /**
+     * Writes a time as a local time of the timetable, yyyy-MM-ddTHH:mm:ss.
+     * @return the number of characters written
+     */
+    static int format(long epochSecond, char[] text) {
+        long local = FlightData.localEpochSecond(epochSecond);
+        long days = Math.floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(local, SECONDS_PER_DAY);
+
+        // Civil date from a day number, with years starting on March 1 so the leap day comes last.
+        long z = days + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0 || year > 9_999) {
+            String fallback = LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            fallback.getChars(0, Math.min(fallback.length(), text.length), text, 0);
+            return Math.min(fallback.length(), text.length);
+        }
+        digits(text, 0, (int) year, 4);
+        text[4] = '-';
+        digits(text, 5, month, 2);
+        text[7] = '-';
+        digits(text, 8, day, 2);
+        text[10] = 'T';
+        digits(text, 11, secondOfDay / 3_600, 2);
+        text[13] = ':';
+        digits(text, 14, secondOfDay / 60 % 60, 2);
+        text[16] = ':';
+        digits(text, 17, secondOfDay % 60, 2);
+        return TIME_LENGTH;
+    }
+
+    private static void digits(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Writes a flight, formatting its times.
+     */
+    public static final class Serializer extends StdSerializer<FlightData> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor, used by Jackson.
+         */
+        public Serializer() {
+            super(FlightData.class);
+        }
+
+        @Override
+        public void serialize(FlightData flight, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStartObject(flight);
+            if (flight.flightNumber() == null) {
+                json.writeNullField("flightNumber");
+            } else {
+                json.writeNumberField("flightNumber", flight.flightNumber());
+            }
+            json.writeStringField("flightDeparture", flight.flightDeparture());
+            json.writeStringField("flightDestination", flight.flightDestination());
+            char[] text = TIME_BUFFER.get();
+            json.writeFieldName("departureTime");
+            json.writeString(text, 0, format(flight.departureEpochSecond(), text));
+            json.writeFieldName("arrivalTime");
+            json.writeString(text, 0, format(flight.arrivalEpochSecond(), text));
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a flight written by {@link Serializer}. The times may also have an offset.
+     */
+    public static final class Deserializer extends StdDeserializer<FlightData> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor, used by Jackson.
+         */
+        public Deserializer() {
+            super(FlightData.class);
+        }
+
+        @Override
+        public FlightData deserialize(JsonParser json, DeserializationContext context) throws IOException {
+            if (!json.isExpectedStartObjectToken()) {
+                return (FlightData) context.handleUnexpectedToken(FlightData.class, json);
+            }
+            Integer flightNumber = null;
+            String departure = null;
+            String destination = null;
+            String departureTime = null;
+            String arrivalTime = null;
+            for (String field = json.nextFieldName(); field != null; field = json.nextFieldName()) {
+                JsonToken value = json.nextToken();
+                switch (field) {
+                    case "flightNumber" -> flightNumber = value == JsonToken.VALUE_NULL ? null : json.getIntValue();
+                    case "flightDeparture" -> departure = json.getValueAsString();
+                    case "flightDestination" -> destination = json.getValueAsString();
+                    case "departureTime" -> departureTime = json.getValueAsString();
+                    case "arrivalTime" -> arrivalTime = json.getValueAsString();
+                    default -> json.skipChildren();
+                }
+            }
+            if (departureTime == null || arrivalTime == null) {
+                return (FlightData) context.handleWeirdStringValue(FlightData.class, null, "departureTime and arrivalTime are required");
+            }
+            try {
+                return new FlightData(flightNumber, departure, destination, departureTime, arrivalTime);
+            } catch (DateTimeParseException e) {
+                return (FlightData) context.handleWeirdStringValue(FlightData.class, e.getParsedString(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.fontysvenlo.ais.datarecords;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The order in which itineraries are ranked, best first.
+ * Every ranking orders by its own criterion first and then by the other two, so that the order is complete;
+ * itineraries that are equal on all three are ordered by their flight numbers.
+ */
+public enum ItineraryRanking {
+    /** The earliest arrival at the destination; then the fewest legs, then the latest departure. */
+    EARLIEST_ARRIVAL,
+    /** The fewest flights; then the earliest arrival, then the latest departure. */
+    FEWEST_LEGS,
+    /** The shortest time from the first departure to the last arrival; then the earliest arrival, then the fewest legs. */
+    SHORTEST_DURATION;
+
+    /**
+     * Compares two itineraries by this ranking, given their key figures.
+     * @param arrivalA the last arrival of the first itinerary, in epoch seconds
+     * @param departureA the first departure of the first itinerary, in epoch seconds
+     * @param legsA the number of flights of the first itinerary
+     * @param arrivalB the last arrival of the second itinerary, in epoch seconds
+     * @param departureB the first departure of the second itinerary, in epoch seconds
+     * @param legsB the number of flights of the second itinerary
+     * @return a negative number if the first ranks better, positive if the second does, 0 if they rank the same
+     */
+    public int compare(long arrivalA, long departureA, int legsA, long arrivalB, long departureB, int legsB) {
+        int result = switch (this) {
+            case EARLIEST_ARRIVAL -> Long.compare(arrivalA, arrivalB);
+            case FEWEST_LEGS -> Integer.compare(legsA, legsB);
+            case SHORTEST_DURATION -> Long.compare(arrivalA - departureA, arrivalB - departureB);
+        };
+        if (result != 0) {
+            return result;
+        }
+        result = this == FEWEST_LEGS || this == SHORTEST_DURATION
+                ? Long.compare(arrivalA, arrivalB)
+                : Integer.compare(legsA, legsB);
+        if (result != 0) {
+            return result;
+        }
+        return this == SHORTEST_DURATION
+                ? Integer.compare(legsA, legsB)
+                : Long.compare(departureB, departureA);
+    }
+
+    /**
+     * The ranking as a comparator of itineraries, best first.
+     * @return the comparator
+     */
+    public Comparator<List<FlightData>> comparator() {
+        return (a, b) -> {
+            int result = compare(a.get(a.size() - 1).arrivalEpochSecond(), a.get(0).departureEpochSecond(), a.size(),
+                    b.get(b.size() - 1).arrivalEpochSecond(), b.get(0).departureEpochSecond(), b.size());
+            for (int i = 0; result == 0 && i < Math.min(a.size(), b.size()); i++) {
+                result = Integer.compare(a.get(i).flightNumber(), b.get(i).flightNumber());
+            }
+            return result;
+        };
+    }
+}
@@ -2,6 +2,8 @@
  * Module datarecords_module.
  */
 module datarecords_module {       
+    requires com.fasterxml.jackson.databind;
+
     exports io.github.fontysvenlo.ais.datarecords;
     exports io.github.fontysvenlo.ais.exceptions;
 }
\ No newline at end of file
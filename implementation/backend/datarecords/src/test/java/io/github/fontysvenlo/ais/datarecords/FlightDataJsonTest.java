@@ -0,0 +1,83 @@
+package io.github.fontysvenlo.ais.datarecords;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+class FlightDataJsonTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testFormatMatchesLocalTimeOfTimetable() {
+        // Every 17 minutes and 13 seconds over four years, across leap days and daylight saving changes.
+        long start = Instant.parse("2023-01-01T00:00:00Z").getEpochSecond();
+        long end = Instant.parse("2027-01-01T00:00:00Z").getEpochSecond();
+        for (long epochSecond = start; epochSecond < end; epochSecond += 17 * 60 + 13) {
+            String expected = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), FlightData.TIMETABLE_ZONE)
+                    .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            assertEquals(expected, FlightData.format(epochSecond));
+        }
+    }
+
+    @Test
+    void testFormatAroundDaylightSavingChange() {
+        assertEquals("2025-03-30T01:59:59", FlightData.format(Instant.parse("2025-03-30T00:59:59Z").getEpochSecond()));
+        assertEquals("2025-03-30T03:00:00", FlightData.format(Instant.parse("2025-03-30T01:00:00Z").getEpochSecond()));
+        assertEquals("2025-10-26T02:30:00", FlightData.format(Instant.parse("2025-10-26T00:30:00Z").getEpochSecond()));
+        assertEquals("2025-10-26T02:30:00", FlightData.format(Instant.parse("2025-10-26T01:30:00Z").getEpochSecond()));
+    }
+
+    @Test
+    void testTimesAreWrittenAsLocalTimes() throws Exception {
+        FlightData flight = new FlightData(1, "Amsterdam", "London", "2025-06-01T08:00:00", "2025-06-01T09:30:00");
+
+        assertEquals("{\"flightNumber\":1,\"flightDeparture\":\"Amsterdam\",\"flightDestination\":\"London\","
+                + "\"departureTime\":\"2025-06-01T08:00:00\",\"arrivalTime\":\"2025-06-01T09:30:00\"}",
+                mapper.writeValueAsString(flight));
+    }
+
+    @Test
+    void testTimeWithOffsetIsConverted() {
+        FlightData flight = new FlightData(1, "Amsterdam", "London", "2025-06-01T06:00:00Z", "2025-06-01T07:30:00Z");
+
+        assertEquals("2025-06-01T08:00:00", flight.departureTime());
+        assertEquals("2025-06-01T09:30:00", flight.arrivalTime());
+    }
+
+    @Test
+    void testItinerariesSurviveRoundTrip() throws Exception {
+        List<List<FlightData>> itineraries = List.of(
+                List.of(new FlightData(1, "Amsterdam", "Paris", "2025-06-01T10:00:00", "2025-06-01T11:15:00"),
+                        new FlightData(2, "Paris", "London", "2025-06-01T13:00:00", "2025-06-01T14:15:00")),
+                List.of(new FlightData(null, "Amsterdam", "London", "2025-12-31T23:30:00", "2026-01-01T00:45:00")));
+
+        String json = mapper.writeValueAsString(itineraries);
+
+        assertEquals(itineraries, mapper.readValue(json, new TypeReference<List<List<FlightData>>>() { }));
+    }
+
+    @Test
+    void testUnknownFieldsAreIgnoredWhenReading() throws Exception {
+        FlightData flight = mapper.readValue("{\"flightNumber\":3,\"gate\":{\"name\":\"D7\"},\"flightDeparture\":\"Paris\","
+                + "\"flightDestination\":\"Rome\",\"departureTime\":\"2025-06-01T08:00:00\",\"arrivalTime\":\"2025-06-01T10:00:00\"}",
+                FlightData.class);
+
+        assertEquals(new FlightData(3, "Paris", "Rome", "2025-06-01T08:00:00", "2025-06-01T10:00:00"), flight);
+    }
+
+    @Test
+    void testInvalidTimeIsRejectedWhenReading() {
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue("{\"flightNumber\":3,\"flightDeparture\":\"Paris\","
+                + "\"flightDestination\":\"Rome\",\"departureTime\":\"tomorrow\",\"arrivalTime\":\"2025-06-01T10:00:00\"}",
+                FlightData.class));
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.fontysvenlo.ais.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up. Counting does not allocate and does not block.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Adds one.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Adds an amount.
+     * @param amount the amount to add, not negative
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * The current count.
+     * @return the count
+     */
+    public long value() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.fontysvenlo.ais.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations over fixed buckets. Recording a duration does not allocate and does not block,
+ * so it can be used on every request.
+ */
+public final class Histogram {
+    /**
+     * Bucket bounds for request and query latencies: 0.5 ms up to 5 s.
+     */
+    public static final long[] LATENCY_BOUNDS_NANOS = {
+        500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L
+    };
+
+    private final long[] boundsNanos;
+    // Not cumulative; the last bucket counts everything above the last bound.
+    private final LongAdder[] buckets;
+    private final LongAdder sumNanos = new LongAdder();
+    private final String[] boundLabels;
+
+    /**
+     * Creates a histogram that is not registered anywhere.
+     * @param boundsNanos the upper bounds of the buckets (inclusive, in nanoseconds), ascending
+     */
+    public Histogram(long[] boundsNanos) {
+        for (int i = 1; i < boundsNanos.length; i++) {
+            if (boundsNanos[i] <= boundsNanos[i - 1]) {
+                throw new IllegalArgumentException("Histogram bounds must be ascending");
+            }
+        }
+        this.boundsNanos = boundsNanos.clone();
+        this.buckets = new LongAdder[boundsNanos.length + 1];
+        this.boundLabels = new String[boundsNanos.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        for (int i = 0; i < boundsNanos.length; i++) {
+            boundLabels[i] = BigDecimal.valueOf(boundsNanos[i], 9).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /**
+     * Records one duration.
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < boundsNanos.length && nanos > boundsNanos[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Records the time since a moment taken with {@link System#nanoTime()}.
+     * @param startNanos the start of the duration
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * The number of recorded durations.
+     * @return the count
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * The sum of the recorded durations.
+     * @return the sum in nanoseconds
+     */
+    public long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * The upper bounds of the buckets.
+     * @return a copy of the bounds (inclusive, in nanoseconds)
+     */
+    public long[] boundsNanos() {
+        return boundsNanos.clone();
+    }
+
+    /**
+     * The number of recorded durations per bucket.
+     * @return the counts, not cumulative; the last entry counts everything above the last bound
+     */
+    public long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    void write(StringBuilder out, String name, String labels) {
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(labels);
+            if (!labels.isEmpty()) {
+                out.append(',');
+            }
+            out.append("le=\"").append(i < boundLabels.length ? boundLabels[i] : "+Inf").append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        out.append(name).append("_sum");
+        MetricRegistry.appendLabels(out, labels);
+        out.append(' ').append(sumNanos.sum() / 1e9).append('\n');
+        out.append(name).append("_count");
+        MetricRegistry.appendLabels(out, labels);
+        out.append(' ').append(cumulative).append('\n');
+    }
+}
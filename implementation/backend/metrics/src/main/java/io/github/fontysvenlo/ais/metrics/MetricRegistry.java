@@ -0,0 +1,187 @@
+package io.github.fontysvenlo.ais.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * The metrics of the application, written in the Prometheus text exposition format (version 0.0.4).
+ * <p>
+ * A metric is registered once, by name and label values, and the caller keeps the returned {@link Counter} or
+ * {@link Histogram}, so recording never looks anything up. Asking for the same name and labels again returns
+ * the same instance. Values that are already counted elsewhere, such as cache statistics, are registered as
+ * functions and read when the metrics are written; registering such a function again replaces the previous one.
+ * <p>
+ * Labels are given as name-value pairs: {@code histogram("ais_http_request_duration_seconds", "...", bounds,
+ * "method", "GET", "route", "/flights/search")}.
+ */
+public final class MetricRegistry {
+    private static final MetricRegistry GLOBAL = new MetricRegistry();
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * The registry that the layers of the application record into and that is exposed at /metrics.
+     * @return the application-wide registry
+     */
+    public static MetricRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Gets or registers a counter.
+     * @param name the metric name, ending in _total
+     * @param help the description of the metric
+     * @param labels the label names and values, alternating
+     * @return the counter
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).children
+                .computeIfAbsent(labelText(labels), key -> new Counter());
+    }
+
+    /**
+     * Gets or registers a histogram of durations, written in seconds.
+     * @param name the metric name, ending in _seconds
+     * @param help the description of the metric
+     * @param boundsNanos the upper bounds of the buckets in nanoseconds, used when the histogram is new
+     * @param labels the label names and values, alternating
+     * @return the histogram
+     */
+    public Histogram histogram(String name, String help, long[] boundsNanos, String... labels) {
+        return (Histogram) family(name, help, Type.HISTOGRAM).children
+                .computeIfAbsent(labelText(labels), key -> new Histogram(boundsNanos));
+    }
+
+    /**
+     * Registers a counter whose value is counted elsewhere.
+     * @param name the metric name, ending in _total
+     * @param help the description of the metric
+     * @param value reads the current count
+     * @param labels the label names and values, alternating
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).children.put(labelText(labels), value);
+    }
+
+    /**
+     * Registers a gauge, a value that goes up and down.
+     * @param name the metric name
+     * @param help the description of the metric
+     * @param value reads the current value
+     * @param labels the label names and values, alternating
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).children.put(labelText(labels), value);
+    }
+
+    /**
+     * Writes all metrics, ordered by name and labels.
+     * @return the metrics in the text exposition format
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type.text).append('\n');
+            for (Map.Entry<String, Object> child : family.children.entrySet()) {
+                String labels = child.getKey();
+                Object metric = child.getValue();
+                if (metric instanceof Histogram histogram) {
+                    histogram.write(out, name, labels);
+                    continue;
+                }
+                out.append(name);
+                appendLabels(out, labels);
+                out.append(' ');
+                if (metric instanceof Counter counter) {
+                    out.append(counter.value());
+                } else if (metric instanceof LongSupplier supplier) {
+                    out.append(supplier.getAsLong());
+                } else {
+                    appendDouble(out, ((DoubleSupplier) metric).getAsDouble());
+                }
+                out.append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    static void appendLabels(StringBuilder out, String labels) {
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type.text);
+        }
+        return family;
+    }
+
+    private static String labelText(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name-value pairs");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\' -> text.append("\\\\");
+                    case '"' -> text.append("\\\"");
+                    case '\n' -> text.append("\\n");
+                    default -> text.append(ch);
+                }
+            }
+            text.append('"');
+        }
+        return text.toString();
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static void appendDouble(StringBuilder out, double value) {
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            out.append(value);
+        }
+    }
+
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), HISTOGRAM("histogram");
+
+        private final String text;
+
+        Type(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final class Family {
+        private final String help;
+        private final Type type;
+        // Counter, Histogram, LongSupplier or DoubleSupplier, by label text.
+        private final Map<String, Object> children = new ConcurrentSkipListMap<>();
+
+        private Family(String help, Type type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
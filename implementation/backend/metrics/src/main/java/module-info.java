@@ -0,0 +1,6 @@
+/**
+ * Module metrics_module.
+ */
+module metrics_module {
+    exports io.github.fontysvenlo.ais.metrics;
+}
@@ -0,0 +1,114 @@
+package io.github.fontysvenlo.ais.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class MetricRegistryTest {
+    private static final long MILLIS = 1_000_000L;
+
+    private final MetricRegistry registry = new MetricRegistry();
+
+    @Test
+    void testSameLabelsReturnSameCounter() {
+        Counter first = registry.counter("ais_rows_total", "Rows.", "method", "getAll");
+        Counter second = registry.counter("ais_rows_total", "Rows.", "method", "getAll");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testCounterIsWrittenWithHelpTypeAndLabels() {
+        registry.counter("ais_rows_total", "Rows read.", "method", "getAll").add(3);
+
+        assertEquals("""
+                # HELP ais_rows_total Rows read.
+                # TYPE ais_rows_total counter
+                ais_rows_total{method="getAll"} 3
+                """, registry.scrape());
+    }
+
+    @Test
+    void testHistogramIsWrittenCumulativeInSeconds() {
+        Histogram histogram = registry.histogram("ais_duration_seconds", "Duration.",
+                new long[] {MILLIS, 10 * MILLIS}, "route", "/flights");
+        histogram.record(MILLIS / 2);
+        histogram.record(5 * MILLIS);
+        histogram.record(20 * MILLIS);
+
+        assertEquals("""
+                # HELP ais_duration_seconds Duration.
+                # TYPE ais_duration_seconds histogram
+                ais_duration_seconds_bucket{route="/flights",le="0.001"} 1
+                ais_duration_seconds_bucket{route="/flights",le="0.01"} 2
+                ais_duration_seconds_bucket{route="/flights",le="+Inf"} 3
+                ais_duration_seconds_sum{route="/flights"} 0.0255
+                ais_duration_seconds_count{route="/flights"} 3
+                """, registry.scrape());
+        assertEquals(3, histogram.count());
+    }
+
+    @Test
+    void testBucketBoundIsInclusive() {
+        Histogram histogram = new Histogram(new long[] {MILLIS});
+        histogram.record(MILLIS);
+
+        StringBuilder out = new StringBuilder();
+        histogram.write(out, "d", "");
+        assertTrue(out.toString().startsWith("d_bucket{le=\"0.001\"} 1\n"), out.toString());
+    }
+
+    @Test
+    void testBucketCountsAreNotCumulative() {
+        Histogram histogram = new Histogram(new long[] {MILLIS, 10 * MILLIS});
+        histogram.record(MILLIS / 2);
+        histogram.record(5 * MILLIS);
+        histogram.record(20 * MILLIS);
+        histogram.record(30 * MILLIS);
+
+        assertArrayEquals(new long[] {MILLIS, 10 * MILLIS}, histogram.boundsNanos());
+        assertArrayEquals(new long[] {1, 1, 2}, histogram.bucketCounts());
+    }
+
+    @Test
+    void testFunctionsAreReadAtScrape() {
+        AtomicLong hits = new AtomicLong();
+        registry.counter("ais_cache_hits_total", "Hits.", hits::get, "cache", "customer");
+        registry.gauge("ais_cache_size", "Entries.", () -> 2.5);
+        hits.set(7);
+
+        String scrape = registry.scrape();
+
+        assertTrue(scrape.contains("ais_cache_hits_total{cache=\"customer\"} 7\n"), scrape);
+        assertTrue(scrape.contains("ais_cache_size 2.5\n"), scrape);
+    }
+
+    @Test
+    void testLabelValuesAreEscaped() {
+        registry.counter("ais_total", "Total.", "path", "a\"b\\c\nd").increment();
+
+        assertTrue(registry.scrape().contains("ais_total{path=\"a\\\"b\\\\c\\nd\"} 1\n"));
+    }
+
+    @Test
+    void testNameCannotChangeType() {
+        registry.counter("ais_total", "Total.");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("ais_total", "Total.", () -> 1));
+    }
+
+    @Test
+    void testLabelsMustBePairs() {
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("ais_total", "Total.", "method"));
+    }
+
+    @Test
+    void testBoundsMustAscend() {
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(new long[] {2, 1}));
+    }
+}
@@ -1,12 +1,29 @@
 package io.github.fontysvenlo.ais.persistence.api;
 
 import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
 import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface BookingRepository {
+    /**
+     * Stores a booking if its seat is still free, atomically.
+     * @param booking the booking to store
+     * @return the stored booking, with its ID
+     * @throws SeatNotAvailableException if the seat is already booked on this flight
+     */
     BookingData createBooking(BookingData booking) throws SeatNotAvailableException;
 
+    /**
+     * Stores several bookings in one transaction, all or nothing.
+     * If any seat is already booked, nothing is stored.
+     * @param bookings the bookings to store
+     * @return per booking, in the same order, BOOKED with the stored booking, or SEAT_TAKEN or NOT_BOOKED
+     */
+    List<BookingResult> createBookings(List<BookingData> bookings);
+
     /**
      * Checks if a seat is available for a given flight.
      * @param flightId the flight ID
@@ -55,4 +72,12 @@ public interface BookingRepository {
      * @throws SeatNotAvailableException if there is an error retrieving capacity data
      */
     FlightCapacityData getFlightCapacity(int flightId) throws SeatNotAvailableException;
+
+    /**
+     * Gets complete flight capacity information of several flights in one query.
+     * @param flightIds the flight IDs
+     * @return the capacity data per flight ID; flights that do not exist are left out
+     * @throws SeatNotAvailableException if there is an error retrieving capacity data
+     */
+    Map<Integer, FlightCapacityData> getFlightCapacities(Collection<Integer> flightIds) throws SeatNotAvailableException;
 } 
\ No newline at end of file
@@ -1,10 +1,13 @@
 package io.github.fontysvenlo.ais.persistence.api;
 
 import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
 import io.github.fontysvenlo.ais.exceptions.DuplicateEmailException;
 import io.github.fontysvenlo.ais.exceptions.PersistenceException;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interface that describes all services offered by the CustomerRepository.
@@ -23,6 +26,46 @@ public interface CustomerRepository {
      */
     List<CustomerData> getAll();
 
+    /**
+     * Retrieves one customer by its email.
+     * @param email the email of the customer
+     * @return the customer, or empty if there is no customer with this email
+     */
+    Optional<CustomerData> getOne(String email);
+
+    /**
+     * Searches customers whose first or last name starts with, or looks like, the given term.
+     * Prefix matches come first, then the closest fuzzy matches.
+     * @param term the lower case name or name prefix, without wildcards
+     * @param limit the maximum number of customers to return
+     * @return the matching customers
+     */
+    List<CustomerData> searchByName(String term, int limit);
+
+    /**
+     * Searches customers whose phone number contains the given digits, ignoring separators such as
+     * '+', '-' and spaces. Numbers that start with the digits come first.
+     * @param digits the digits to look for, at least three
+     * @param limit the maximum number of customers to return
+     * @return the matching customers
+     */
+    List<CustomerData> searchByPhone(String digits, int limit);
+
+    /**
+     * Retrieves one page of customers, ordered by email.
+     * @param after the email of the last customer of the previous page, or null for the first page
+     * @param limit the maximum number of customers on the page
+     * @return the page
+     */
+    CustomerPage getPage(String after, int limit);
+
+    /**
+     * Passes every customer, ordered by email, to the action while reading them from the storage,
+     * so the customers are never all in memory at the same time.
+     * @param action receives the customers one by one
+     */
+    void forEach(Consumer<? super CustomerData> action);
+
     /**
  * Deletes a customer from the storage.
  * @param email the email of the customer to delete
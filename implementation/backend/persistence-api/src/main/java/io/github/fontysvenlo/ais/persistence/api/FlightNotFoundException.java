@@ -0,0 +1,11 @@
+package io.github.fontysvenlo.ais.persistence.api;
+
+/**
+ * The flight asked for does not exist. A SeatNotAvailableException, so callers that do not tell the two apart
+ * keep working; callers that do can answer "not found" instead of reporting an error.
+ */
+public class FlightNotFoundException extends SeatNotAvailableException {
+    public FlightNotFoundException(int flightId) {
+        super("Flight not found: " + flightId);
+    }
+}
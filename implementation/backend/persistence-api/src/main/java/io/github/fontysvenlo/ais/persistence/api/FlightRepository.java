@@ -1,10 +1,76 @@
 package io.github.fontysvenlo.ais.persistence.api;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
 
+/**
+ * Stores the timetable and searches it. Searches match airports regardless of case and surrounding spaces,
+ * see {@link #airportKey(String)}; the flights found carry the airport codes of the timetable, not the codes
+ * that were searched for. The original SQL search compared the codes exactly, so "amsterdam" used to find
+ * nothing where it now finds the flights from "Amsterdam".
+ */
 public interface FlightRepository extends Helpers {
 
-    List<List<FlightData>> search(String departure, String arrival, String datetime);
+    /**
+     * The form in which searches compare airport codes: without surrounding spaces and in lower case, so
+     * "Amsterdam", "amsterdam" and "AMSTERDAM " are the same airport.
+     * @param airport an airport code, may be null
+     * @return the code to compare, empty for null
+     */
+    static String airportKey(String airport) {
+        return airport == null ? "" : airport.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds all itineraries from one airport to another.
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param departAfter the earliest departure of the first flight, in epoch seconds
+     * @return the itineraries, each a list of flights in travel order
+     */
+    List<List<FlightData>> search(String departure, String arrival, long departAfter);
+
+    /**
+     * Passes the itineraries of a search to the action one by one. Implementations that find the itineraries
+     * one at a time pass each as soon as it is found, without collecting them; by default the search result
+     * is passed on.
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param departAfter the earliest departure of the first flight, in epoch seconds
+     * @param action receives the itineraries, each a list of flights in travel order
+     */
+    default void search(String departure, String arrival, long departAfter, Consumer<? super List<FlightData>> action) {
+        search(departure, arrival, departAfter).forEach(action);
+    }
+
+    /**
+     * Finds the best itineraries of a search. Implementations that can stop searching once the best ones are
+     * known should do so; by default the whole search result is ranked.
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param departAfter the earliest departure of the first flight, in epoch seconds
+     * @param ranking the order of the itineraries
+     * @param limit the maximum number of itineraries, at least 1
+     * @return at most limit itineraries, best first
+     */
+    default List<List<FlightData>> search(String departure, String arrival, long departAfter, ItineraryRanking ranking, int limit) {
+        return search(departure, arrival, departAfter).stream().sorted(ranking.comparator()).limit(limit).toList();
+    }
+
+    /**
+     * Retrieves the complete timetable.
+     * @return all flights, ordered by departure time
+     */
+    List<FlightData> getAllFlights();
+
+    /**
+     * A number that changes whenever the timetable changes, so callers that keep their own copy
+     * of the timetable know when to reload it.
+     * @return the version of the timetable, or -1 if changes are not tracked
+     */
+    long getTimetableVersion();
 }
@@ -0,0 +1,116 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
+
+/**
+ * Immutable table of airport codes, each numbered by a small int in the order it was added.
+ * The timetable stores the numbers instead of the codes, so every code is kept once, however many flights
+ * use it, and a search can mark airports in a boolean array instead of a set of strings.
+ * <p>
+ * Codes are looked up by {@link FlightRepository#airportKey(String)}, so codes that differ only in case are one
+ * airport; its code is the one it was first added with.
+ */
+final class AirportCodes {
+    static final AirportCodes EMPTY = new AirportCodes(new String[0]);
+
+    private final String[] codes;
+    private final Map<String, Integer> numbers;
+
+    private AirportCodes(String[] codes) {
+        this.codes = codes;
+        this.numbers = new HashMap<>(codes.length * 2);
+        for (int i = 0; i < codes.length; i++) {
+            numbers.put(FlightRepository.airportKey(codes[i]), i);
+        }
+    }
+
+    /**
+     * Number of airports in this table.
+     * @return the number of airports
+     */
+    int size() {
+        return codes.length;
+    }
+
+    /**
+     * The number of an airport.
+     * @param code the airport code, in any case
+     * @return the number, or -1 if the airport is not in this table
+     */
+    int numberOf(String code) {
+        Integer number = numbers.get(FlightRepository.airportKey(code));
+        return number != null ? number : -1;
+    }
+
+    /**
+     * The code of an airport. Always the same String instance for the same number.
+     * @param number the number of the airport
+     * @return the code
+     */
+    String code(int number) {
+        return codes[number];
+    }
+
+    /**
+     * A table with the given codes added after the existing ones, so every existing number stays the same.
+     * @param added the codes to add; codes already in the table are skipped
+     * @return this table if nothing was added, otherwise a new table
+     */
+    AirportCodes withAll(Iterable<String> added) {
+        Map<String, String> unknown = new LinkedHashMap<>();
+        for (String code : added) {
+            String key = FlightRepository.airportKey(code);
+            if (!numbers.containsKey(key)) {
+                unknown.putIfAbsent(key, code);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return this;
+        }
+        String[] next = Arrays.copyOf(codes, codes.length + unknown.size());
+        int i = codes.length;
+        for (String code : unknown.values()) {
+            next[i++] = code;
+        }
+        return new AirportCodes(next);
+    }
+
+    /**
+     * Numbers airports while a timetable is loaded.
+     */
+    static final class Builder {
+        private final List<String> codes = new ArrayList<>();
+        private final Map<String, Integer> numbers = new HashMap<>();
+
+        /**
+         * The number of an airport, adding it if it is new.
+         * @param code the airport code, in any case
+         * @return the number
+         */
+        int intern(String code) {
+            String key = FlightRepository.airportKey(code);
+            Integer number = numbers.get(key);
+            if (number == null) {
+                number = codes.size();
+                numbers.put(key, number);
+                codes.add(code);
+            }
+            return number;
+        }
+
+        int size() {
+            return codes.size();
+        }
+
+        AirportCodes build() {
+            return new AirportCodes(codes.toArray(new String[0]));
+        }
+    }
+}
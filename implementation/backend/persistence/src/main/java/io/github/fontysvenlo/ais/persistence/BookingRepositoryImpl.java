@@ -1,33 +1,67 @@
 package io.github.fontysvenlo.ais.persistence;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
 import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
 import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.exceptions.PersistenceException;
 import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
+import io.github.fontysvenlo.ais.persistence.api.FlightNotFoundException;
 import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
 
 public class BookingRepositoryImpl implements BookingRepository {
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private static final String CAPACITY_QUERY = "SELECT f.id, f.departure, f.arrival, f.departuretime::DATE::VARCHAR AS date, f.totalSeats, "
+            + "ARRAY(SELECT b.SeatNumber FROM Booking b WHERE b.FlightID = f.id ORDER BY b.SeatNumber) AS bookedSeatNumbers "
+            + "FROM flights f ";
+
+    private static final QueryMetrics CREATE_BOOKING = QueryMetrics.of("BookingRepository", "createBooking");
+    private static final QueryMetrics CREATE_BOOKINGS = QueryMetrics.of("BookingRepository", "createBookings");
+    private static final QueryMetrics IS_SEAT_AVAILABLE = QueryMetrics.of("BookingRepository", "isSeatAvailable");
+    private static final QueryMetrics IS_FLIGHT_FULL = QueryMetrics.of("BookingRepository", "isFlightFull");
+    private static final QueryMetrics GET_AVAILABLE_SEATS_COUNT = QueryMetrics.of("BookingRepository", "getAvailableSeatsCount");
+    private static final QueryMetrics GET_BOOKED_SEATS = QueryMetrics.of("BookingRepository", "getBookedSeats");
+    private static final QueryMetrics SUGGEST_NEXT_SEAT = QueryMetrics.of("BookingRepository", "suggestNextSeat");
+    private static final QueryMetrics GET_FLIGHT_CAPACITY = QueryMetrics.of("BookingRepository", "getFlightCapacity");
+    private static final QueryMetrics GET_FLIGHT_CAPACITIES = QueryMetrics.of("BookingRepository", "getFlightCapacities");
+
     private final DataSource db;
 
     public BookingRepositoryImpl(DBConfig config) {
-        this.db = DBProvider.getDataSource(config);
+        this(DBProvider.getDataSource(config));
+        DBProvider.getSeatCounterReconciler(config);
+    }
+
+    BookingRepositoryImpl(DataSource db) {
+        this.db = db;
     }
 
+    /**
+     * Reserves the seat and stores the booking in one statement. The UNIQUE(FlightID, SeatNumber)
+     * constraint decides who gets a seat, so there is no window between checking and inserting.
+     */
     @Override
     public BookingData createBooking(BookingData booking) throws SeatNotAvailableException {
-        if (!isSeatAvailable(booking.flightId(), booking.seatNumber())) {
-            throw new SeatNotAvailableException("Seat is taken");
-        }
-
-        String sql = "INSERT INTO Booking (FlightID, Price, Luggage, Food, ClassType, SeatNumber, CustomerEmail, CustomerName, Paid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING ID";
+        String sql = "INSERT INTO Booking (FlightID, Price, Luggage, Food, ClassType, SeatNumber, CustomerEmail, CustomerName, Paid) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (FlightID, SeatNumber) DO NOTHING RETURNING ID";
+        long start = System.nanoTime();
+        int rows = 0;
         try (Connection conn = db.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, booking.flightId());
@@ -39,65 +73,216 @@ public class BookingRepositoryImpl implements BookingRepository {
             stmt.setString(7, booking.customerEmail());
             stmt.setString(8, booking.customerName());
             stmt.setBoolean(9, booking.paid());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    // No row inserted: the seat was already booked.
+                    throw new SeatNotAvailableException("Seat is taken");
+                }
                 int id = rs.getInt(1);
+                rows = 1;
                 return new BookingData(id, booking.flightId(), booking.price(), booking.luggage(), booking.food(), booking.classType(), booking.seatNumber(), booking.customerEmail(), booking.customerName(), booking.paid());
-            } else {
-                throw new SQLException("Failed to insert booking");
             }
         } catch (SQLException e) {
-            throw new SeatNotAvailableException("Seat is taken", e);
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                throw new SeatNotAvailableException("Seat is taken", e);
+            }
+            throw new PersistenceException("Failed to create booking", e);
+        } finally {
+            CREATE_BOOKING.record(start, rows);
         }
     }
 
+    /**
+     * Sends all bookings as one JDBC batch in one transaction. Conflicting seats are skipped by the
+     * statement, which shows as an update count of 0; if there is any, the whole transaction is rolled back.
+     * A booking for a flight or customer that does not exist fails the whole batch with a foreign key
+     * violation, which does not say which booking it was; the flights and customers of the batch are then
+     * looked up to report those bookings as INVALID.
+     */
+    @Override
+    public List<BookingResult> createBookings(List<BookingData> bookings) {
+        String sql = "INSERT INTO Booking (FlightID, Price, Luggage, Food, ClassType, SeatNumber, CustomerEmail, CustomerName, Paid) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (FlightID, SeatNumber) DO NOTHING";
+        long start = System.nanoTime();
+        int rows = 0;
+        try (Connection conn = db.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, new String[] {"id"})) {
+                for (BookingData booking : bookings) {
+                    stmt.setInt(1, booking.flightId());
+                    stmt.setBigDecimal(2, booking.price());
+                    stmt.setBoolean(3, booking.luggage());
+                    stmt.setBoolean(4, booking.food());
+                    stmt.setString(5, booking.classType());
+                    stmt.setString(6, booking.seatNumber());
+                    stmt.setString(7, booking.customerEmail());
+                    stmt.setString(8, booking.customerName());
+                    stmt.setBoolean(9, booking.paid());
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+
+                List<BookingResult> results = new ArrayList<>(bookings.size());
+                boolean conflict = false;
+                for (int count : counts) {
+                    conflict |= count == 0;
+                }
+                if (conflict) {
+                    conn.rollback();
+                    for (int i = 0; i < bookings.size(); i++) {
+                        results.add(counts[i] == 0
+                                ? new BookingResult(i, BookingResult.Status.SEAT_TAKEN, bookings.get(i), "Seat is taken")
+                                : new BookingResult(i, BookingResult.Status.NOT_BOOKED, bookings.get(i), "Another booking in the batch failed"));
+                    }
+                    return results;
+                }
+
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (int i = 0; i < bookings.size(); i++) {
+                        if (!keys.next()) {
+                            throw new SQLException("Missing generated key for booking " + i);
+                        }
+                        BookingData booking = bookings.get(i);
+                        results.add(new BookingResult(i, BookingResult.Status.BOOKED, new BookingData(keys.getInt(1), booking.flightId(), booking.price(), booking.luggage(), booking.food(), booking.classType(), booking.seatNumber(), booking.customerEmail(), booking.customerName(), booking.paid()), null));
+                    }
+                }
+                conn.commit();
+                rows = results.size();
+                return results;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (isForeignKeyViolation(e)) {
+                    List<BookingResult> results = invalidReferences(conn, bookings);
+                    conn.rollback();
+                    return results;
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Failed to create bookings", e);
+        } finally {
+            CREATE_BOOKINGS.record(start, rows);
+        }
+    }
+
+    private static boolean isForeignKeyViolation(SQLException e) {
+        // A failed batch may report the error of the statement itself as the next exception.
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            if (FOREIGN_KEY_VIOLATION.equals(next.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reports the bookings of a batch that failed on a foreign key: bookings for a flight or customer that
+     * does not exist are INVALID, the others NOT_BOOKED.
+     */
+    private static List<BookingResult> invalidReferences(Connection conn, List<BookingData> bookings) throws SQLException {
+        Set<Integer> flights = new HashSet<>();
+        Set<String> customers = new HashSet<>();
+        for (BookingData booking : bookings) {
+            flights.add(booking.flightId());
+            if (booking.customerEmail() != null) {
+                customers.add(booking.customerEmail());
+            }
+        }
+        Set<Integer> knownFlights = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM flights WHERE id = ANY(?)")) {
+            stmt.setArray(1, conn.createArrayOf("integer", flights.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    knownFlights.add(rs.getInt(1));
+                }
+            }
+        }
+        Set<String> knownCustomers = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT Email FROM Customer WHERE Email = ANY(?)")) {
+            stmt.setArray(1, conn.createArrayOf("varchar", customers.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    knownCustomers.add(rs.getString(1));
+                }
+            }
+        }
+
+        List<BookingResult> results = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            BookingData booking = bookings.get(i);
+            if (!knownFlights.contains(booking.flightId())) {
+                results.add(new BookingResult(i, BookingResult.Status.INVALID, booking, "Flight not found: " + booking.flightId()));
+            } else if (booking.customerEmail() != null && !knownCustomers.contains(booking.customerEmail())) {
+                results.add(new BookingResult(i, BookingResult.Status.INVALID, booking, "Customer not found: " + booking.customerEmail()));
+            } else {
+                results.add(new BookingResult(i, BookingResult.Status.NOT_BOOKED, booking, "Another booking in the batch failed"));
+            }
+        }
+        return results;
+    }
+
     @Override
     public boolean isSeatAvailable(int flightId, String seatNumber) throws SeatNotAvailableException {
         String sql = "SELECT COUNT(*) FROM Booking WHERE FlightID = ? AND SeatNumber = ?";
+        long start = System.nanoTime();
+        int rows = 0;
         try (Connection conn = db.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, flightId);
             stmt.setString(2, seatNumber);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                rows = 1;
                 int count = rs.getInt(1);
                 return count == 0;
             }
             return false;
         } catch (SQLException e) {
             throw new SeatNotAvailableException("Error checking seat availability", e);
+        } finally {
+            IS_SEAT_AVAILABLE.record(start, rows);
         }
     }
 
     @Override
     public boolean isFlightFull(int flightId) throws SeatNotAvailableException {
         String sql = "SELECT is_flight_full(?)";
+        long start = System.nanoTime();
+        int rows = 0;
         try (Connection conn = db.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, flightId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                rows = 1;
                 return rs.getBoolean(1);
             }
             return false;
         } catch (SQLException e) {
             throw new SeatNotAvailableException("Error checking if flight is full", e);
+        } finally {
+            IS_FLIGHT_FULL.record(start, rows);
         }
     }
 
     @Override
     public int getAvailableSeatsCount(int flightId) throws SeatNotAvailableException {
         String sql = "SELECT get_available_seats_count(?)";
+        long start = System.nanoTime();
+        int rows = 0;
         try (Connection conn = db.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, flightId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                rows = 1;
                 return rs.getInt(1);
             }
             return 0;
         } catch (SQLException e) {
             throw new SeatNotAvailableException("Error getting available seats count", e);
+        } finally {
+            GET_AVAILABLE_SEATS_COUNT.record(start, rows);
         }
     }
 
@@ -105,6 +290,7 @@ public class BookingRepositoryImpl implements BookingRepository {
     public List<String> getBookedSeats(int flightId) throws SeatNotAvailableException {
         String sql = "SELECT * FROM get_booked_seats(?)";
         List<String> bookedSeats = new ArrayList<>();
+        long start = System.nanoTime();
         try (Connection conn = db.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, flightId);
@@ -115,50 +301,102 @@ public class BookingRepositoryImpl implements BookingRepository {
             return bookedSeats;
         } catch (SQLException e) {
             throw new SeatNotAvailableException("Error getting booked seats", e);
+        } finally {
+            GET_BOOKED_SEATS.record(start, bookedSeats.size());
         }
     }
 
     @Override
     public String suggestNextSeat(int flightId) throws SeatNotAvailableException {
         String sql = "SELECT suggest_next_seat(?)";
+        long start = System.nanoTime();
+        int rows = 0;
         try (Connection conn = db.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, flightId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                rows = 1;
                 return rs.getString(1); // Returns null if flight is full
             }
             return null;
         } catch (SQLException e) {
             throw new SeatNotAvailableException("Error suggesting next seat", e);
+        } finally {
+            SUGGEST_NEXT_SEAT.record(start, rows);
         }
     }
 
+    /**
+     * Reads the flight and its booked seats with one query over one connection. Only the bookings of
+     * this flight are read, through idx_booking_flight_id.
+     */
     @Override
     public FlightCapacityData getFlightCapacity(int flightId) throws SeatNotAvailableException {
-        String sql = "SELECT * FROM FlightAvailability WHERE FlightID = ?";
+        String sql = CAPACITY_QUERY + "WHERE f.id = ?";
+        long start = System.nanoTime();
+        int rows = 0;
         try (Connection conn = db.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, flightId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                List<String> bookedSeats = getBookedSeats(flightId);
-                return new FlightCapacityData(
-                    rs.getInt("FlightID"),
-                    rs.getString("departure"),
-                    rs.getString("arrival"),
-                    rs.getString("date"),
-                    rs.getInt("TotalSeats"),
-                    rs.getInt("BookedSeats"),
-                    rs.getInt("AvailableSeats"),
-                    rs.getBoolean("IsFull"),
-                    rs.getDouble("OccupancyPercentage"),
-                    bookedSeats
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new FlightNotFoundException(flightId);
+                }
+                rows = 1;
+                return toCapacityData(rs);
             }
-            throw new SeatNotAvailableException("Flight not found: " + flightId);
         } catch (SQLException e) {
             throw new SeatNotAvailableException("Error getting flight capacity", e);
+        } finally {
+            GET_FLIGHT_CAPACITY.record(start, rows);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * The same query for all flights at once, with the flight IDs as one array parameter, so the statement
+     * is the same whatever the number of flights.
+     */
+    @Override
+    public Map<Integer, FlightCapacityData> getFlightCapacities(Collection<Integer> flightIds) throws SeatNotAvailableException {
+        String sql = CAPACITY_QUERY + "WHERE f.id = ANY(?)";
+        Map<Integer, FlightCapacityData> capacities = new HashMap<>();
+        long start = System.nanoTime();
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("integer", flightIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    FlightCapacityData capacity = toCapacityData(rs);
+                    capacities.put(capacity.flightId(), capacity);
+                }
+            }
+        } catch (SQLException e) {
+            throw new SeatNotAvailableException("Error getting flight capacity", e);
+        } finally {
+            GET_FLIGHT_CAPACITIES.record(start, capacities.size());
+        }
+        return capacities;
+    }
+
+    private static FlightCapacityData toCapacityData(ResultSet rs) throws SQLException {
+        int totalSeats = rs.getInt("totalSeats");
+        String[] bookedSeatNumbers = (String[]) rs.getArray("bookedSeatNumbers").getArray();
+        int bookedSeats = bookedSeatNumbers.length;
+        double occupancy = totalSeats > 0
+                ? BigDecimal.valueOf(bookedSeats * 100L).divide(BigDecimal.valueOf(totalSeats), 2, RoundingMode.HALF_UP).doubleValue()
+                : 0.0;
+        return new FlightCapacityData(
+            rs.getInt("id"),
+            rs.getString("departure"),
+            rs.getString("arrival"),
+            rs.getString("date"),
+            totalSeats,
+            bookedSeats,
+            totalSeats - bookedSeats,
+            bookedSeats >= totalSeats,
+            occupancy,
+            List.of(bookedSeatNumbers)
+        );
+    }
+}
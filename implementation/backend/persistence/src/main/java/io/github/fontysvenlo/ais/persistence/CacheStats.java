@@ -0,0 +1,20 @@
+package io.github.fontysvenlo.ais.persistence;
+
+/**
+ * Point-in-time statistics of a cache.
+ * @param hits the number of reads answered from the cache
+ * @param misses the number of reads that went to the database
+ * @param evictions the number of entries dropped because the cache was full or the entry had expired
+ * @param size the number of entries currently cached
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    /**
+     * The share of reads answered from the cache.
+     * @return the hit ratio between 0 and 1, or 0 if nothing was read yet
+     */
+    public double hitRatio() {
+        long reads = hits + misses;
+        return reads == 0 ? 0.0 : (double) hits / reads;
+    }
+}
@@ -0,0 +1,398 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import io.github.fontysvenlo.ais.metrics.Histogram;
+
+/**
+ * A bounded pool of database connections.
+ * Physical connections are opened through the wrapped DataSource and handed out as proxies;
+ * closing such a proxy returns the connection to the pool instead of closing it. The statements and metadata
+ * of a borrowed connection are proxies as well, so their getConnection returns the borrowed proxy.
+ * At most {@link PoolConfig#maxSize()} connections are borrowed at the same time, other callers
+ * wait up to {@link PoolConfig#acquireTimeoutMillis()} for one to be returned.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 5_000;
+
+    private final DataSource factory;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    // Used as a stack, so the most recently returned (warmest) connection is handed out first.
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final Histogram acquireTime;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Creates the pool and schedules the housekeeping (filling up to minSize, idle eviction and leak detection).
+     * @param factory the DataSource that opens the physical connections
+     * @param config the pool settings
+     */
+    ConnectionPool(DataSource factory, PoolConfig config) {
+        this(factory, config, new Histogram(Histogram.LATENCY_BOUNDS_NANOS));
+    }
+
+    /**
+     * Creates the pool, recording the time to acquire a connection in the given histogram.
+     * @param factory the DataSource that opens the physical connections
+     * @param config the pool settings
+     * @param acquireTime the histogram of acquisition times, usually registered in the metrics
+     */
+    ConnectionPool(DataSource factory, PoolConfig config, Histogram acquireTime) {
+        this.factory = factory;
+        this.config = config;
+        this.acquireTime = acquireTime;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ais-db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        waiters.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(config.acquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        if (!acquired) {
+            acquireTimeouts.increment();
+            throw new SQLTransientConnectionException("Timed out after " + config.acquireTimeoutMillis()
+                    + " ms waiting for a database connection (active=" + borrowed.size() + ", max=" + config.maxSize() + ")", "08001");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.borrowedAt = System.nanoTime();
+            pooled.borrowTrace = config.leakDetectionThresholdMillis() > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            acquireTime.recordSince(start);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new Handle(pooled));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool only hands out connections for its configured user");
+    }
+
+    /**
+     * Current statistics of the pool.
+     * @return a snapshot of the pool statistics
+     */
+    public PoolStats stats() {
+        return new PoolStats(borrowed.size(), idle.size(), waiters.get(), total.get(),
+                acquireTime.boundsNanos(), acquireTime.bucketCounts(), acquireTimeouts.sum());
+    }
+
+    /**
+     * Closes all idle connections and stops handing out new ones.
+     * Connections that are still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Keeps the pool at minSize, closes connections that were idle for too long and reports leaks.
+     * Runs periodically on the housekeeper thread.
+     */
+    void housekeep() {
+        try {
+            long now = System.nanoTime();
+            long idleTimeout = TimeUnit.MILLISECONDS.toNanos(config.idleTimeoutMillis());
+            for (PooledConnection pooled : idle) {
+                if (total.get() <= config.minSize()) {
+                    break;
+                }
+                if (now - pooled.lastUsed > idleTimeout && idle.remove(pooled)) {
+                    discard(pooled);
+                }
+            }
+
+            while (!closed && total.get() < config.minSize() && permits.tryAcquire()) {
+                try {
+                    PooledConnection pooled = create();
+                    pooled.lastUsed = System.nanoTime();
+                    idle.offerLast(pooled);
+                } finally {
+                    permits.release();
+                }
+            }
+
+            long leakThreshold = TimeUnit.MILLISECONDS.toNanos(config.leakDetectionThresholdMillis());
+            if (leakThreshold > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakThreshold) {
+                        pooled.leakReported = true;
+                        LOGGER.log(Level.WARNING, "Possible connection leak: connection borrowed for more than "
+                                + config.leakDetectionThresholdMillis() + " ms", pooled.borrowTrace);
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return create();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            // Only connections that were idle for a while are checked, to keep the hot path free of round trips.
+            return System.nanoTime() - pooled.lastUsed < VALIDATE_AFTER_IDLE_NANOS
+                    || pooled.physical.isValid(config.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = factory.getConnection();
+        total.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (closed || pooled.broken || pooled.physical.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastUsed = System.nanoTime();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        total.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Failed to close pooled connection", e);
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return factory.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        factory.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        factory.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return factory.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getLogger(ConnectionPool.class.getPackageName());
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection together with its bookkeeping.
+     */
+    private static final class PooledConnection {
+        final Connection physical;
+        volatile long lastUsed;
+        volatile long borrowedAt;
+        volatile Throwable borrowTrace;
+        volatile boolean leakReported;
+        volatile boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * The connection handed out to a caller. A new handle is created for every borrow,
+     * so a handle that is closed twice cannot return the connection to the pool twice.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private volatile boolean handleClosed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (handleClosed) {
+                throw new SQLException("Connection is closed");
+            }
+            Object result = call(pooled, pooled.physical, method, args);
+            Class<?> type = method.getReturnType();
+            if (result != null && (Statement.class.isAssignableFrom(type) || type == DatabaseMetaData.class)) {
+                // Statements and metadata hand out their connection; it has to be this handle, not the physical one.
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {type},
+                        new ChildHandle(pooled, proxy, result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A statement or the metadata of a borrowed connection. getConnection returns the borrowed handle, so a caller
+     * that closes that connection returns it to the pool instead of closing the physical connection.
+     */
+    private static final class ChildHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Object connection;
+        private final Object target;
+
+        ChildHandle(PooledConnection pooled, Object connection, Object target) {
+            this.pooled = pooled;
+            this.connection = connection;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + target + "]";
+                default:
+                    return call(pooled, target, method, args);
+            }
+        }
+    }
+
+    private static Object call(PooledConnection pooled, Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("08")) {
+                // Connection exception class: the physical connection cannot be trusted anymore.
+                pooled.broken = true;
+            }
+            throw cause;
+        }
+    }
+}
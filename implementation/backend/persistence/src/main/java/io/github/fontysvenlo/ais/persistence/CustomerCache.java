@@ -0,0 +1,178 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
+import io.github.fontysvenlo.ais.exceptions.DuplicateEmailException;
+import io.github.fontysvenlo.ais.exceptions.PersistenceException;
+import io.github.fontysvenlo.ais.persistence.api.CustomerRepository;
+
+/**
+ * Read-through cache of customers by email in front of a CustomerRepository.
+ * {@link #getOne(String)} is answered from memory while the entry is younger than the time to live; the least
+ * recently read customer is evicted when the cache is full. Lists, pages and searches always go to the repository.
+ * <p>
+ * Every write through this cache invalidates the customer it changed, after the write is stored. A load that was
+ * running while any write happened is returned but not cached, so once {@link #delete(String)} has returned true,
+ * no read can be answered with the deleted customer. Changes made by other instances are seen after the time to live.
+ */
+public class CustomerCache implements CustomerRepository {
+    static final int DEFAULT_MAX_SIZE = 10_000;
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final CustomerRepository customerRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // Guarded by itself. Access order, so the eldest entry is the least recently read.
+    private final Map<String, Entry> entries;
+    // Changed under the entries lock by every write, so a load that raced with a write is not cached.
+    private long writes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor with the default size of {@value #DEFAULT_MAX_SIZE} customers and a time to live of 5 minutes.
+     * @param customerRepository the repository the customers are stored in
+     */
+    public CustomerCache(CustomerRepository customerRepository) {
+        this(customerRepository, DEFAULT_MAX_SIZE, DEFAULT_TTL);
+    }
+
+    /**
+     * Constructor
+     * @param customerRepository the repository the customers are stored in
+     * @param maxSize the maximum number of cached customers
+     * @param ttl how long a customer is served from the cache after it was loaded
+     */
+    public CustomerCache(CustomerRepository customerRepository, int maxSize, Duration ttl) {
+        this(customerRepository, maxSize, ttl, System::nanoTime);
+    }
+
+    CustomerCache(CustomerRepository customerRepository, int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.customerRepository = customerRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CustomerCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Optional<CustomerData> getOne(String email) {
+        long loadStarted;
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null) {
+                if (clock.getAsLong() - entry.loadedAt() < ttlNanos) {
+                    hits.incrementAndGet();
+                    return Optional.of(entry.customer());
+                }
+                entries.remove(email);
+                evictions.incrementAndGet();
+            }
+            loadStarted = writes;
+        }
+        misses.incrementAndGet();
+        long loadedAt = clock.getAsLong();
+        Optional<CustomerData> customer = customerRepository.getOne(email);
+        if (customer.isPresent()) {
+            synchronized (entries) {
+                if (writes == loadStarted) {
+                    entries.put(email, new Entry(customer.get(), loadedAt));
+                }
+            }
+        }
+        return customer;
+    }
+
+    @Override
+    public CustomerData add(CustomerData customerData) throws DuplicateEmailException, PersistenceException {
+        try {
+            return customerRepository.add(customerData);
+        } finally {
+            invalidate(customerData.email());
+        }
+    }
+
+    @Override
+    public boolean delete(String email) {
+        try {
+            return customerRepository.delete(email);
+        } finally {
+            invalidate(email);
+        }
+    }
+
+    @Override
+    public List<CustomerData> getAll() {
+        return customerRepository.getAll();
+    }
+
+    @Override
+    public CustomerPage getPage(String after, int limit) {
+        return customerRepository.getPage(after, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super CustomerData> action) {
+        customerRepository.forEach(action);
+    }
+
+    @Override
+    public List<CustomerData> searchByName(String term, int limit) {
+        return customerRepository.searchByName(term, limit);
+    }
+
+    @Override
+    public List<CustomerData> searchByPhone(String digits, int limit) {
+        return customerRepository.searchByPhone(digits, limit);
+    }
+
+    /**
+     * Forgets a customer, so it is loaded again on its next read. Every write of a customer, including a future
+     * update, must call this after the write is stored.
+     * @param email the email of the customer
+     */
+    public void invalidate(String email) {
+        synchronized (entries) {
+            writes++;
+            entries.remove(email);
+        }
+    }
+
+    /**
+     * The current hit, miss and eviction counts.
+     * @return the statistics
+     */
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), size);
+    }
+
+    private record Entry(CustomerData customer, long loadedAt) {
+    }
+}
@@ -3,10 +3,13 @@ package io.github.fontysvenlo.ais.persistence;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
 import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
 import io.github.fontysvenlo.ais.persistence.api.CustomerRepository;
 import io.github.fontysvenlo.ais.exceptions.DeletionFailedException;
 import io.github.fontysvenlo.ais.exceptions.DuplicateEmailException;
@@ -27,13 +30,25 @@ import java.sql.Statement;
  * Normally it will connect to a database and do all the handling.
  */
 class CustomerRepositoryImpl implements CustomerRepository {
+    static final int FETCH_SIZE = 500;
+
+    private static final QueryMetrics ADD = QueryMetrics.of("CustomerRepository", "add");
+    private static final QueryMetrics GET_ONE = QueryMetrics.of("CustomerRepository", "getOne");
+    private static final QueryMetrics SEARCH_BY_NAME = QueryMetrics.of("CustomerRepository", "searchByName");
+    private static final QueryMetrics SEARCH_BY_PHONE = QueryMetrics.of("CustomerRepository", "searchByPhone");
+    private static final QueryMetrics GET_PAGE = QueryMetrics.of("CustomerRepository", "getPage");
+    private static final QueryMetrics FOR_EACH = QueryMetrics.of("CustomerRepository", "forEach");
+    private static final QueryMetrics DELETE = QueryMetrics.of("CustomerRepository", "delete");
     
     private final DataSource db;
     //private final List<CustomerData> customers = new ArrayList<>(Arrays.asList(new CustomerData(1, "John", "Doe", LocalDate.of(2025, 1, 1)))); 
-    private final List<CustomerData> customers = new ArrayList<>(); 
     
     public CustomerRepositoryImpl(DBConfig config) {
-        this.db = DBProvider.getDataSource(config);
+        this(DBProvider.getDataSource(config));
+    }
+
+    CustomerRepositoryImpl(DataSource db) {
+        this.db = db;
     }
 
     /**
@@ -44,6 +59,8 @@ class CustomerRepositoryImpl implements CustomerRepository {
 
         // // SQL query to insert a new customer into the database.
         String sql = "INSERT INTO Customer (Email, FirstName, LastName, BirthDate, Phone) VALUES (?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        int rows = 0;
         
         // // Opens a database connection and prepares the SQL query
         try (Connection conn = db.getConnection();
@@ -56,7 +73,7 @@ class CustomerRepositoryImpl implements CustomerRepository {
             stmt.setDate(4, java.sql.Date.valueOf(customerData.dateOfBirth()));
             stmt.setString(5, customerData.phone());
             
-            stmt.executeUpdate();
+            rows = stmt.executeUpdate();
             
             // Just return the original data (no ID needed)
             return customerData; 
@@ -67,6 +84,8 @@ class CustomerRepositoryImpl implements CustomerRepository {
             throw new DuplicateEmailException(customerData.email());
         }
         throw new PersistenceException("Failed to add customer", e); // wrap other DB errors
+        } finally {
+            ADD.record(start, rows);
         }
     }
 
@@ -75,48 +94,194 @@ class CustomerRepositoryImpl implements CustomerRepository {
      */
     @Override
 public List<CustomerData> getAll() {
-    // TODO: Implement the actual database storage. This is the actual implementation!
-    
-    // SQL query to select all customers from the database in a list. 
-    String sql = "SELECT Email, FirstName, LastName, BirthDate, Phone FROM Customer";
     List<CustomerData> result = new ArrayList<>();
-    
-    // Runs the query and stores results in a ResultSet
+    forEach(result::add);
+    return result; 
+}
+
+    /**
+     * Looks the customer up by its primary key.
+     * @see CustomerRepository#getOne(String)
+     */
+    @Override
+public Optional<CustomerData> getOne(String email) {
+    String sql = "SELECT Email, FirstName, LastName, BirthDate, Phone FROM Customer WHERE Email = ?";
+    long start = System.nanoTime();
+    int rows = 0;
     try (Connection conn = db.getConnection();
-         PreparedStatement stmt = conn.prepareStatement(sql);
-         ResultSet rs = stmt.executeQuery()) {
-        
-            // For each row in the result, a new CustomerData object is created and added to the list.
-        while (rs.next()) {
-            result.add(new CustomerData(
-                rs.getString("FirstName"),
-                rs.getString("LastName"),
-                rs.getDate("BirthDate").toLocalDate(),
-                rs.getString("Email"),
-                rs.getString("Phone")
-            ));
+         PreparedStatement stmt = conn.prepareStatement(sql)) {
+        stmt.setString(1, email);
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            rows = 1;
+            return Optional.of(toCustomerData(rs));
         }
     } catch (SQLException e) {
         throw new RetrievalFailedException("Customer data cannot be retrieved at the moment due to a temporary server issue. Please try again later!", e);
+    } finally {
+        GET_ONE.record(start, rows);
     }
-    
-    return result; 
+}
+
+    /**
+     * The prefix conditions use the lower() text_pattern_ops indexes, the fuzzy ones (pg_trgm's % operator,
+     * similarity above 0.3) the trigram indexes of init.sql, so neither reads the whole table.
+     * @see CustomerRepository#searchByName(String, int)
+     */
+    @Override
+public List<CustomerData> searchByName(String term, int limit) {
+    String sql = "SELECT Email, FirstName, LastName, BirthDate, Phone FROM Customer "
+            + "WHERE lower(LastName) LIKE ? OR lower(FirstName) LIKE ? OR lower(LastName) % ? OR lower(FirstName) % ? "
+            + "ORDER BY (lower(LastName) LIKE ? OR lower(FirstName) LIKE ?) DESC, "
+            + "GREATEST(similarity(lower(LastName), ?), similarity(lower(FirstName), ?)) DESC, Email "
+            + "LIMIT ?";
+    String prefix = escapeLike(term) + "%";
+    return search(SEARCH_BY_NAME, sql, limit, prefix, prefix, term, term, prefix, prefix, term, term);
+}
+
+    /**
+     * Matches on the digits of the phone number only, through the trigram index on that expression.
+     * @see CustomerRepository#searchByPhone(String, int)
+     */
+    @Override
+public List<CustomerData> searchByPhone(String digits, int limit) {
+    String sql = "SELECT Email, FirstName, LastName, BirthDate, Phone FROM Customer "
+            + "WHERE regexp_replace(Phone, '[^0-9]', '', 'g') LIKE ? "
+            + "ORDER BY regexp_replace(Phone, '[^0-9]', '', 'g') LIKE ? DESC, Email "
+            + "LIMIT ?";
+    return search(SEARCH_BY_PHONE, sql, limit, "%" + digits + "%", digits + "%");
+}
+
+private List<CustomerData> search(QueryMetrics metrics, String sql, int limit, String... parameters) {
+    List<CustomerData> customers = new ArrayList<>();
+    long start = System.nanoTime();
+    try (Connection conn = db.getConnection();
+         PreparedStatement stmt = conn.prepareStatement(sql)) {
+        for (int i = 0; i < parameters.length; i++) {
+            stmt.setString(i + 1, parameters[i]);
+        }
+        stmt.setInt(parameters.length + 1, limit);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                customers.add(toCustomerData(rs));
+            }
+        }
+    } catch (SQLException e) {
+        throw new RetrievalFailedException("Customer data cannot be retrieved at the moment due to a temporary server issue. Please try again later!", e);
+    } finally {
+        metrics.record(start, customers.size());
+    }
+    return customers;
+}
+
+/**
+ * Escapes the LIKE wildcards, so a '%' or '_' in the search term matches itself.
+ */
+private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+}
+
+    /**
+     * Keyset pagination: the page starts right after the given email, so the primary key index finds
+     * the start directly, however far the client has paged. One extra row tells whether there is a next page.
+     * @see CustomerRepository#getPage(String, int)
+     */
+    @Override
+public CustomerPage getPage(String after, int limit) {
+    String sql = after == null
+            ? "SELECT Email, FirstName, LastName, BirthDate, Phone FROM Customer ORDER BY Email LIMIT ?"
+            : "SELECT Email, FirstName, LastName, BirthDate, Phone FROM Customer WHERE Email > ? ORDER BY Email LIMIT ?";
+    List<CustomerData> customers = new ArrayList<>(limit);
+    long start = System.nanoTime();
+    try (Connection conn = db.getConnection();
+         PreparedStatement stmt = conn.prepareStatement(sql)) {
+        int parameter = 1;
+        if (after != null) {
+            stmt.setString(parameter++, after);
+        }
+        stmt.setInt(parameter, limit + 1);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                customers.add(toCustomerData(rs));
+            }
+        }
+    } catch (SQLException e) {
+        throw new RetrievalFailedException("Customer data cannot be retrieved at the moment due to a temporary server issue. Please try again later!", e);
+    } finally {
+        GET_PAGE.record(start, customers.size());
+    }
+
+    if (customers.size() <= limit) {
+        return new CustomerPage(customers, null);
+    }
+    customers.remove(limit);
+    return new CustomerPage(customers, customers.get(limit - 1).email());
+}
+
+    /**
+     * Reads the customers through a server-side cursor of {@value #FETCH_SIZE} rows at a time. PostgreSQL only
+     * uses a cursor inside a transaction, so auto-commit is off while reading.
+     * @see CustomerRepository#forEach(Consumer)
+     */
+    @Override
+public void forEach(Consumer<? super CustomerData> action) {
+    String sql = "SELECT Email, FirstName, LastName, BirthDate, Phone FROM Customer ORDER BY Email";
+    long start = System.nanoTime();
+    long rows = 0;
+    try (Connection conn = db.getConnection()) {
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(toCustomerData(rs));
+                    rows++;
+                }
+            }
+            conn.commit();
+        } finally {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+    } catch (SQLException e) {
+        throw new RetrievalFailedException("Customer data cannot be retrieved at the moment due to a temporary server issue. Please try again later!", e);
+    } finally {
+        FOR_EACH.record(start, rows);
+    }
+}
+
+private static CustomerData toCustomerData(ResultSet rs) throws SQLException {
+    return new CustomerData(
+        rs.getString("FirstName"),
+        rs.getString("LastName"),
+        rs.getDate("BirthDate").toLocalDate(),
+        rs.getString("Email"),
+        rs.getString("Phone")
+    );
 }
 
 @Override
 public boolean delete(String email) {
     String sql = "DELETE FROM Customer WHERE Email = ?";
+    long start = System.nanoTime();
+    int rowsAffected = 0;
     
     try (Connection conn = db.getConnection();
          PreparedStatement stmt = conn.prepareStatement(sql)) {
         
         stmt.setString(1, email);
-        int rowsAffected = stmt.executeUpdate();
+        rowsAffected = stmt.executeUpdate();
         return rowsAffected > 0;
         
     } catch (SQLException e) {
         
         throw new DeletionFailedException("Failed to delete customer with Email address: " + email, e);
+    } finally {
+        DELETE.record(start, rowsAffected);
     }
 }
 
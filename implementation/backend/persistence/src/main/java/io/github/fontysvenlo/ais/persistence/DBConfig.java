@@ -12,8 +12,40 @@ import java.util.Properties;
  * @param schema the schema of the database
  * @param username the username to connect to the database
  * @param password the password to connect to the database
+ * @param pool the settings of the connection pool
+ * @param search the rules of the flight search
  */
-public record DBConfig(String namespace, String host, int port, String name, String schema, String username, String password) {
+public record DBConfig(String namespace, String host, int port, String name, String schema, String username, String password,
+        PoolConfig pool, FlightSearchConfig search) {
+    /**
+     * Create a DBConfig with the default connection pool settings.
+     * @param namespace the namespace of the configuration
+     * @param host the host of the database
+     * @param port the port of the database
+     * @param name the name of the database
+     * @param schema the schema of the database
+     * @param username the username to connect to the database
+     * @param password the password to connect to the database
+     */
+    public DBConfig(String namespace, String host, int port, String name, String schema, String username, String password) {
+        this(namespace, host, port, name, schema, username, password, PoolConfig.defaults());
+    }
+
+    /**
+     * Create a DBConfig with the default flight search rules.
+     * @param namespace the namespace of the configuration
+     * @param host the host of the database
+     * @param port the port of the database
+     * @param name the name of the database
+     * @param schema the schema of the database
+     * @param username the username to connect to the database
+     * @param password the password to connect to the database
+     * @param pool the settings of the connection pool
+     */
+    public DBConfig(String namespace, String host, int port, String name, String schema, String username, String password, PoolConfig pool) {
+        this(namespace, host, port, name, schema, username, password, pool, FlightSearchConfig.defaults());
+    }
+
     /**
      * Create a DBConfig from a Properties object.
      * @param properties the properties to create the DBConfig from
@@ -28,7 +60,9 @@ public record DBConfig(String namespace, String host, int port, String name, Str
                 properties.getProperty(namespace + ".dbname"),
                 properties.getProperty(namespace + ".schema"),
                 properties.getProperty(namespace + ".username"),
-                properties.getProperty(namespace + ".password")
+                properties.getProperty(namespace + ".password"),
+                PoolConfig.fromProperties(properties, namespace),
+                FlightSearchConfig.fromProperties(properties, namespace)
         );
     }
 }
\ No newline at end of file
@@ -1,12 +1,17 @@
 package io.github.fontysvenlo.ais.persistence;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.sql.DataSource;
 import org.postgresql.ds.PGSimpleDataSource;
 
+import io.github.fontysvenlo.ais.metrics.Histogram;
+import io.github.fontysvenlo.ais.metrics.MetricRegistry;
+
 /**
  * Provides DataSources for the database connection.
+ * Every namespace gets one {@link ConnectionPool}, which is shared by all repositories.
+ * The maps are concurrent, so threads that ask for the same namespace at the same time get the same instance.
  */
 public class DBProvider {
     /**
@@ -14,24 +19,80 @@ public class DBProvider {
      */
     private DBProvider() {}
 
-    static Map<String, DataSource> cache = new HashMap<>();
+    static final Map<String, ConnectionPool> cache = new ConcurrentHashMap<>();
+    static final Map<String, TimetableCache> timetables = new ConcurrentHashMap<>();
+    static final Map<String, SeatCounterReconciler> reconcilers = new ConcurrentHashMap<>();
 
     static DataSource getDataSource(final DBConfig config) {
-        return cache.computeIfAbsent(config.namespace(), namespace -> {
-                PGSimpleDataSource source = new PGSimpleDataSource();
-
-                String[] serverNames = {config.host()};
-                source.setServerNames(serverNames);
-
-                int[] portNumbers = {config.port()};
-                source.setPortNumbers(portNumbers);
-                source.setUser(config.username());
-                source.setDatabaseName(config.name());
-                source.setPassword(config.password());
-                source.setCurrentSchema(config.schema());
-
-                return source;
-            }
-        );
+        return getConnectionPool(config);
+    }
+
+    static ConnectionPool getConnectionPool(final DBConfig config) {
+        return cache.computeIfAbsent(config.namespace(), namespace -> createConnectionPool(namespace, config));
+    }
+
+    /**
+     * Creates the pool of a namespace and registers its metrics, labelled with the namespace.
+     */
+    private static ConnectionPool createConnectionPool(String namespace, DBConfig config) {
+        MetricRegistry registry = MetricRegistry.global();
+        ConnectionPool pool = new ConnectionPool(createDataSource(config), config.pool(),
+                registry.histogram("ais_db_connection_acquire_seconds", "Time to acquire a database connection from the pool.",
+                        Histogram.LATENCY_BOUNDS_NANOS, "pool", namespace));
+        registry.gauge("ais_db_connections_active", "Connections borrowed from the pool.",
+                () -> pool.stats().active(), "pool", namespace);
+        registry.gauge("ais_db_connections_idle", "Open connections waiting in the pool.",
+                () -> pool.stats().idle(), "pool", namespace);
+        registry.gauge("ais_db_connections_total", "Open physical connections of the pool.",
+                () -> pool.stats().total(), "pool", namespace);
+        registry.gauge("ais_db_connection_waiters", "Callers waiting for a connection.",
+                () -> pool.stats().waiters(), "pool", namespace);
+        registry.counter("ais_db_connection_acquire_timeouts_total", "Connection requests that timed out.",
+                () -> pool.stats().acquireTimeouts(), "pool", namespace);
+        return pool;
+    }
+
+    /**
+     * Get the in-memory timetable of a configuration. It is loaded on first use and kept up to date
+     * over its own connection, outside the pool.
+     * @param config the configuration of the database
+     * @return the timetable
+     */
+    static TimetableCache getTimetable(final DBConfig config) {
+        return timetables.computeIfAbsent(config.namespace(), namespace -> new TimetableCache(createDataSource(config)));
+    }
+
+    /**
+     * Get the reconciler that keeps the seat counters of a configuration correct. It is started on first use
+     * and uses the connection pool.
+     * @param config the configuration of the database
+     * @return the reconciler
+     */
+    static SeatCounterReconciler getSeatCounterReconciler(final DBConfig config) {
+        return reconcilers.computeIfAbsent(config.namespace(), namespace -> new SeatCounterReconciler(getDataSource(config)));
+    }
+
+    private static PGSimpleDataSource createDataSource(final DBConfig config) {
+        PGSimpleDataSource source = new PGSimpleDataSource();
+
+        String[] serverNames = {config.host()};
+        source.setServerNames(serverNames);
+
+        int[] portNumbers = {config.port()};
+        source.setPortNumbers(portNumbers);
+        source.setUser(config.username());
+        source.setDatabaseName(config.name());
+        source.setPassword(config.password());
+        source.setCurrentSchema(config.schema());
+        return source;
+    }
+
+    /**
+     * Get the live statistics of the connection pool of a configuration.
+     * @param config the configuration of the database
+     * @return the statistics of the connection pool
+     */
+    public static PoolStats getPoolStats(final DBConfig config) {
+        return getConnectionPool(config).stats();
     }
 }
@@ -0,0 +1,188 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * The flights departing from one airport, stored as columns: the ids, the numbers of the destination
+ * airports (see {@link AirportCodes}) and the departure and arrival times in epoch seconds, all sorted by
+ * departure time and then id. A flight is a row index into the four arrays, so reading the timetable does
+ * not create objects, and a scan over the departures of an airport reads consecutive memory.
+ * Instances are immutable.
+ */
+final class FlightColumns {
+    static final FlightColumns EMPTY = new FlightColumns(new int[0], new int[0], new long[0], new long[0]);
+
+    private final int[] ids;
+    private final int[] destinations;
+    private final long[] departures;
+    private final long[] arrivals;
+
+    private FlightColumns(int[] ids, int[] destinations, long[] departures, long[] arrivals) {
+        this.ids = ids;
+        this.destinations = destinations;
+        this.departures = departures;
+        this.arrivals = arrivals;
+    }
+
+    /**
+     * Number of flights.
+     * @return the number of flights
+     */
+    int size() {
+        return ids.length;
+    }
+
+    int id(int row) {
+        return ids[row];
+    }
+
+    int destination(int row) {
+        return destinations[row];
+    }
+
+    long departure(int row) {
+        return departures[row];
+    }
+
+    long arrival(int row) {
+        return arrivals[row];
+    }
+
+    /**
+     * The first flight that departs at or after the given moment.
+     * @param time the moment, in epoch seconds
+     * @return the row of that flight, or {@link #size()} if there is none
+     */
+    int firstDepartureAtOrAfter(long time) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The row of a flight.
+     * @param id the id of the flight
+     * @return the row, or -1 if the flight is not in these columns
+     */
+    int rowOf(int id) {
+        for (int row = 0; row < ids.length; row++) {
+            if (ids[row] == id) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the flights of one airport. The flights may be added in any order; they are sorted when
+     * the columns are built, which is cheap when they already come in departure order.
+     */
+    static final class Builder {
+        private int[] ids = new int[8];
+        private int[] destinations = new int[8];
+        private long[] departures = new long[8];
+        private long[] arrivals = new long[8];
+        private int size;
+
+        /**
+         * A builder that starts with the given flights.
+         * @param columns the flights to start with
+         * @return the builder
+         */
+        static Builder of(FlightColumns columns) {
+            Builder builder = new Builder();
+            int n = columns.size();
+            builder.ids = Arrays.copyOf(columns.ids, Math.max(n, 8));
+            builder.destinations = Arrays.copyOf(columns.destinations, Math.max(n, 8));
+            builder.departures = Arrays.copyOf(columns.departures, Math.max(n, 8));
+            builder.arrivals = Arrays.copyOf(columns.arrivals, Math.max(n, 8));
+            builder.size = n;
+            return builder;
+        }
+
+        void add(int id, int destination, long departure, long arrival) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+                departures = Arrays.copyOf(departures, capacity);
+                arrivals = Arrays.copyOf(arrivals, capacity);
+            }
+            ids[size] = id;
+            destinations[size] = destination;
+            departures[size] = departure;
+            arrivals[size] = arrival;
+            size++;
+        }
+
+        /**
+         * Removes flights.
+         * @param removed the ids of the flights to remove
+         * @return the number of flights removed
+         */
+        int removeAll(Set<Integer> removed) {
+            int kept = 0;
+            for (int row = 0; row < size; row++) {
+                if (!removed.contains(ids[row])) {
+                    ids[kept] = ids[row];
+                    destinations[kept] = destinations[row];
+                    departures[kept] = departures[row];
+                    arrivals[kept] = arrivals[row];
+                    kept++;
+                }
+            }
+            int count = size - kept;
+            size = kept;
+            return count;
+        }
+
+        int size() {
+            return size;
+        }
+
+        FlightColumns build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            if (isSorted()) {
+                return new FlightColumns(Arrays.copyOf(ids, size), Arrays.copyOf(destinations, size),
+                        Arrays.copyOf(departures, size), Arrays.copyOf(arrivals, size));
+            }
+            Integer[] order = new Integer[size];
+            for (int row = 0; row < size; row++) {
+                order[row] = row;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingLong(row -> departures[row]).thenComparingInt(row -> ids[row]));
+            int[] sortedIds = new int[size];
+            int[] sortedDestinations = new int[size];
+            long[] sortedDepartures = new long[size];
+            long[] sortedArrivals = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedDestinations[i] = destinations[order[i]];
+                sortedDepartures[i] = departures[order[i]];
+                sortedArrivals[i] = arrivals[order[i]];
+            }
+            return new FlightColumns(sortedIds, sortedDestinations, sortedDepartures, sortedArrivals);
+        }
+
+        private boolean isSorted() {
+            for (int row = 1; row < size; row++) {
+                if (departures[row - 1] > departures[row] || departures[row - 1] == departures[row] && ids[row - 1] > ids[row]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -6,115 +6,268 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.sql.DataSource;
 
 import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
 import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
 
 
 
 class FlightRepositoryImpl implements FlightRepository {
+    private static final Logger LOGGER = Logger.getLogger(FlightRepositoryImpl.class.getName());
+    private static final String ALL_FLIGHTS_SQL =
+        "SELECT id, departure, arrival, departuretime, arrivaltime FROM flights ORDER BY departuretime, id";
 
     private final DataSource db;
+    // Null when searches should go to the database.
+    private final TimetableCache timetable;
+    private final FlightSearchConfig searchConfig;
+    private final String transferSql;
 
-    private static final ZoneId ZONE = ZoneId.of("Europe/Amsterdam");
-private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Only the database path is timed here; searches in the timetable do not run SQL.
+    private static final QueryMetrics GET_ALL_FLIGHTS = QueryMetrics.of("FlightRepository", "getAllFlights");
+    private static final QueryMetrics GET_TRANSFER_FLIGHTS = QueryMetrics.of("FlightRepository", "getTransferFlights");
 
     public FlightRepositoryImpl(DBConfig config) {
-        this.db = DBProvider.getDataSource(config);
+        this(DBProvider.getDataSource(config), DBProvider.getTimetable(config), config.search());
+    }
+
+    FlightRepositoryImpl(DataSource db) {
+        this(db, null);
+    }
+
+    FlightRepositoryImpl(DataSource db, TimetableCache timetable) {
+        this(db, timetable, FlightSearchConfig.defaults());
+    }
+
+    FlightRepositoryImpl(DataSource db, TimetableCache timetable, FlightSearchConfig searchConfig) {
+        this.db = db;
+        this.timetable = timetable;
+        this.searchConfig = searchConfig;
+        this.transferSql = flightPaths(searchConfig) + "SELECT fp.path FROM flight_paths fp WHERE fp.arrival = ?";
+    }
+
+    @Override
+    public List<List<FlightData>> search(String departure, String arrival, long departAfter) {
+        if (timetable != null) {
+            return timetable.current().search(departure, arrival, departAfter, searchConfig);
+        }
+        return getTransferFlights(departure, arrival, Timestamp.from(Instant.ofEpochSecond(departAfter)));
+    }
+
+    /**
+     * Passes every itinerary on as soon as the timetable search finds it.
+     */
+    @Override
+    public void search(String departure, String arrival, long departAfter, Consumer<? super List<FlightData>> action) {
+        if (timetable != null) {
+            timetable.current().search(departure, arrival, departAfter, searchConfig, action);
+            return;
+        }
+        FlightRepository.super.search(departure, arrival, departAfter, action);
+    }
+
+    /**
+     * Lets the timetable search stop following flights that cannot lead to one of the best itineraries.
+     */
+    @Override
+    public List<List<FlightData>> search(String departure, String arrival, long departAfter, ItineraryRanking ranking, int limit) {
+        if (timetable != null) {
+            return timetable.current().search(departure, arrival, departAfter, searchConfig, ranking, limit);
+        }
+        return FlightRepository.super.search(departure, arrival, departAfter, ranking, limit);
+    }
+
+
+    @Override
+    public List<FlightData> getAllFlights() {
+        if (timetable != null) {
+            return timetable.current().flights();
+        }
+        long start = System.nanoTime();
+        int rows = 0;
+        try (Connection conn = db.getConnection()) {
+            List<FlightData> flights = loadAllFlights(conn);
+            rows = flights.size();
+            return flights;
+        } catch (SQLException e) {
+            throw new FlightDataAccessException("Error retrieving flights", e);
+        } finally {
+            GET_ALL_FLIGHTS.record(start, rows);
+        }
     }
 
     @Override
-    public List<List<FlightData>> search(String departure, String arrival, String datetimeStr) {
-        List<List<FlightData>> resultPaths = new ArrayList<>();
-
-        Timestamp datetime;
-        try {
-            Instant instant = Instant.parse(datetimeStr); 
-ZonedDateTime zoned = instant.atZone(ZoneId.of("Europe/Amsterdam"));
-datetime = Timestamp.from(zoned.toInstant());
-        } catch (IllegalArgumentException e) {
-            throw new FlightDataAccessException("Invalid datetime format. Expected 'yyyy-MM-dd HH:mm:ss'", e);
+    public long getTimetableVersion() {
+        return timetable != null ? timetable.current().version() : -1;
+    }
+
+    static List<FlightData> loadAllFlights(Connection conn) throws SQLException {
+        List<FlightData> flights = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(ALL_FLIGHTS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                flights.add(toFlightData(rs));
+            }
         }
+        return flights;
+    }
 
-        resultPaths.addAll(getTransferFlights(departure, arrival, datetime));
+    /**
+     * Loads the complete table straight into a timetable snapshot, without a FlightData per row.
+     * The rows come in departure order, so the columns of every airport need no sorting.
+     */
+    static TimetableSnapshot loadTimetable(Connection conn, long version) throws SQLException {
+        TimetableSnapshot.Builder timetable = new TimetableSnapshot.Builder();
+        try (PreparedStatement stmt = conn.prepareStatement(ALL_FLIGHTS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                timetable.add(rs.getInt("id"), rs.getString("departure"), rs.getString("arrival"),
+                        rs.getTimestamp("departuretime").toInstant().getEpochSecond(),
+                        rs.getTimestamp("arrivaltime").toInstant().getEpochSecond());
+            }
+        }
+        return timetable.build(version);
+    }
 
-        return resultPaths;
+    /**
+     * The recursive part of the transfer search: every path from the departure airport that the search rules
+     * allow, as far as it can still reach the arrival airport. Parameters: the departure airport, the earliest
+     * departure and the arrival airport, both as {@link FlightRepository#airportKey(String)}.
+     * <p>
+     * Airports are compared in lower case, like the timetable in memory does, so {@code arrival} and
+     * {@code airports} of flight_paths are lower case too. Every step is a range scan on idx_flight_search
+     * (lower(departure), departuretime): the flights leaving the airport the path has reached, within the
+     * connection window. Paths stop at the arrival airport and never
+     * revisit an airport, so the number of rows is bounded by the simple paths instead of growing with every loop.
+     * The limits come from the configuration, not from the request, so they are part of the statement text.
+     */
+    static String flightPaths(FlightSearchConfig config) {
+        StringBuilder sql = new StringBuilder(1024)
+            .append("WITH RECURSIVE flight_paths AS (")
+            .append("   SELECT lower(f1.arrival)::varchar AS arrival, f1.departuretime, f1.arrivaltime, f1.departuretime AS first_departure, ")
+            .append("          ARRAY[f1.id] AS path, ARRAY[lower(f1.departure), lower(f1.arrival)]::varchar[] AS airports ")
+            .append("   FROM flights f1 ")
+            .append("   WHERE lower(f1.departure) = ? AND f1.departuretime >= ? AND lower(f1.arrival) <> lower(f1.departure) ");
+        if (config.maxTripMinutes() > 0) {
+            sql.append("   AND f1.arrivaltime <= f1.departuretime + ").append(minutes(config.maxTripMinutes()));
+        }
+        sql.append("   UNION ALL ")
+            .append("   SELECT lower(f2.arrival)::varchar, f2.departuretime, f2.arrivaltime, fp.first_departure, ")
+            .append("          fp.path || f2.id, fp.airports || lower(f2.arrival)::varchar ")
+            .append("   FROM flight_paths fp ")
+            .append("   JOIN flights f2 ON lower(f2.departure) = fp.arrival ")
+            .append("    AND f2.departuretime >= GREATEST(fp.arrivaltime + ").append(minutes(config.minConnectionMinutes()))
+            .append(", fp.departuretime) ");
+        if (config.maxConnectionMinutes() > 0) {
+            sql.append("    AND f2.departuretime <= fp.arrivaltime + ").append(minutes(config.maxConnectionMinutes())).append(' ');
+        }
+        sql.append("   WHERE fp.arrival <> ? ")
+            .append("   AND cardinality(fp.path) < ").append(config.maxLegs()).append(' ')
+            .append("   AND lower(f2.arrival) <> ALL(fp.airports) ");
+        if (config.maxTripMinutes() > 0) {
+            sql.append("   AND f2.arrivaltime <= fp.first_departure + ").append(minutes(config.maxTripMinutes()));
+        }
+        return sql.append(") ").toString();
     }
 
+    private static String minutes(long minutes) {
+        return "INTERVAL '" + minutes + " minutes'";
+    }
 
     private List<List<FlightData>> getTransferFlights(String departure, String arrival, Timestamp datetime) {
         List<List<FlightData>> flights = new ArrayList<>();
-        String sql =
-            "WITH RECURSIVE flight_paths AS (" +
-            "   SELECT f1.id, f1.departure, f1.arrival, f1.departuretime as min_departure, f1.arrivaltime, ARRAY[f1.id] AS path, f1.departure AS first_departure " +
-            "   FROM flights f1 " +
-            "   WHERE f1.departure = ? AND f1.departuretime >= ? " +
-            "   UNION ALL " +
-            "   SELECT f2.id, f2.departure, f2.arrival, f2.departuretime, f2.arrivaltime, fp.path || f2.id, fp.first_departure " +
-            "   FROM flights f2 " +
-            "   JOIN flight_paths fp ON f2.departure = fp.arrival " +
-            "   WHERE f2.departuretime >= fp.arrivaltime " +
-            "AND f2.departuretime >= fp.min_departure" +
-            "   AND array_length(fp.path, 1) < 6 " +
-            ") " +
-            "SELECT fp.path FROM flight_paths fp WHERE fp.arrival = ?";
-
-        try (Connection conn = db.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, departure);
-            stmt.setTimestamp(2, datetime);
-            stmt.setString(3, arrival);
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Integer[] pathIds = (Integer[]) rs.getArray("path").getArray();
+        // The paths and all their legs are loaded over one connection with two statements,
+        // instead of one extra query (and connection) per leg.
+        long start = System.nanoTime();
+        try (Connection conn = db.getConnection()) {
+            List<Integer[]> paths = new ArrayList<>();
+            Set<Integer> legIds = new LinkedHashSet<>();
+
+            try (PreparedStatement stmt = conn.prepareStatement(transferSql)) {
+                stmt.setString(1, FlightRepository.airportKey(departure));
+                stmt.setTimestamp(2, datetime);
+                stmt.setString(3, FlightRepository.airportKey(arrival));
+                stmt.setString(4, FlightRepository.airportKey(arrival));
 
-                    List<FlightData> fullPath = new ArrayList<>();
-                    for (int id : pathIds) {
-                        fullPath.add(getFlightById(id));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Integer[] pathIds = (Integer[]) rs.getArray("path").getArray();
+                        paths.add(pathIds);
+                        Collections.addAll(legIds, pathIds);
                     }
-                    System.out.println("Full flight path: " + fullPath);
+                }
+            }
 
-                    flights.add(fullPath);
+            if (paths.isEmpty()) {
+                return flights;
+            }
+
+            Map<Integer, FlightData> legs = getFlightsByIds(conn, legIds);
+            boolean logPaths = LOGGER.isLoggable(Level.FINEST);
+            for (Integer[] pathIds : paths) {
+                List<FlightData> fullPath = new ArrayList<>(pathIds.length);
+                for (Integer id : pathIds) {
+                    FlightData leg = legs.get(id);
+                    if (leg == null) {
+                        throw new FlightDataAccessException("Error retrieving flight");
+                    }
+                    fullPath.add(leg);
                 }
+                if (logPaths) {
+                    LOGGER.log(Level.FINEST, "Flight path {0} -> {1}: {2}", new Object[] {departure, arrival, fullPath});
+                }
+
+                flights.add(fullPath);
             }
 
         } catch (SQLException e) {
             throw new FlightDataAccessException("Error retrieving flight by ID ", e);
+        } finally {
+            GET_TRANSFER_FLIGHTS.record(start, flights.size());
         }
 
         return flights;
     }
 
-    private FlightData getFlightById(int id) throws SQLException {
-        String sql = "SELECT id, departure, arrival, departuretime, arrivaltime FROM flights WHERE id = ?";
-        try (Connection conn = db.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
+    static Map<Integer, FlightData> getFlightsByIds(Connection conn, Collection<Integer> ids) throws SQLException {
+        String sql = "SELECT id, departure, arrival, departuretime, arrivaltime FROM flights WHERE id = ANY(?)";
+        Map<Integer, FlightData> flights = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
 
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return new FlightData(
-                        rs.getInt("id"),
-                        rs.getString("departure"),
-                        rs.getString("arrival"),
-                        rs.getTimestamp("departuretime").toInstant().atZone(ZONE).toLocalDateTime().format(FORMATTER),
-    rs.getTimestamp("arrivaltime").toInstant().atZone(ZONE).toLocalDateTime().format(FORMATTER)
-                    );
-                } else {
-                    throw new FlightDataAccessException("Error retrieving flight");
+                while (rs.next()) {
+                    FlightData flight = toFlightData(rs);
+                    flights.put(flight.flightNumber(), flight);
                 }
-            } catch (SQLException e) {
-                throw new FlightDataAccessException("Error retrieving flight by ID ", e);
             }
         }
+        return flights;
+    }
+
+    private static FlightData toFlightData(ResultSet rs) throws SQLException {
+        return new FlightData(
+            rs.getInt("id"),
+            rs.getString("departure"),
+            rs.getString("arrival"),
+            rs.getTimestamp("departuretime").toInstant().getEpochSecond(),
+            rs.getTimestamp("arrivaltime").toInstant().getEpochSecond()
+        );
     }
 }
@@ -0,0 +1,75 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.util.Properties;
+
+/**
+ * Rules for the itineraries a flight search finds, in the database as well as in the in-memory timetable.
+ * An itinerary never visits an airport twice. A limit of 0 minutes means no limit.
+ * @param maxLegs the maximum number of flights in one itinerary
+ * @param minConnectionMinutes the minimum time between the arrival of a flight and the departure of the next one
+ * @param maxConnectionMinutes the maximum time between the arrival of a flight and the departure of the next one, 0 for no limit
+ * @param maxTripMinutes the maximum time from the first departure to the last arrival, 0 for no limit
+ */
+public record FlightSearchConfig(int maxLegs, long minConnectionMinutes, long maxConnectionMinutes, long maxTripMinutes) {
+
+    /**
+     * Validates the search rules.
+     */
+    public FlightSearchConfig {
+        if (maxLegs < 1) {
+            throw new IllegalArgumentException("Search maxLegs must be at least 1");
+        }
+        if (minConnectionMinutes < 0 || maxConnectionMinutes < 0 || maxTripMinutes < 0) {
+            throw new IllegalArgumentException("Search times cannot be negative");
+        }
+        if (maxConnectionMinutes > 0 && maxConnectionMinutes < minConnectionMinutes) {
+            throw new IllegalArgumentException("Search maxConnectionMinutes cannot be less than minConnectionMinutes");
+        }
+    }
+
+    /**
+     * The rules used when nothing is configured: up to 6 legs, a connection may depart as soon as the previous
+     * flight has arrived, and there is no limit on layovers or trip duration.
+     * @return the default search rules
+     */
+    public static FlightSearchConfig defaults() {
+        return new FlightSearchConfig(6, 0, 0, 0);
+    }
+
+    /**
+     * Create a FlightSearchConfig from a Properties object. Missing keys fall back to {@link #defaults()}.
+     * @param properties the properties to create the FlightSearchConfig from
+     * @param namespace the namespace of the configuration
+     * @return the created FlightSearchConfig
+     */
+    public static FlightSearchConfig fromProperties(Properties properties, String namespace) {
+        FlightSearchConfig defaults = defaults();
+        String prefix = namespace + ".search.";
+        return new FlightSearchConfig(
+                (int) get(properties, prefix + "maxLegs", defaults.maxLegs()),
+                get(properties, prefix + "minConnectionMinutes", defaults.minConnectionMinutes()),
+                get(properties, prefix + "maxConnectionMinutes", defaults.maxConnectionMinutes()),
+                get(properties, prefix + "maxTripMinutes", defaults.maxTripMinutes())
+        );
+    }
+
+    long minConnectionSeconds() {
+        return minConnectionMinutes * 60;
+    }
+
+    long maxConnectionSeconds() {
+        return maxConnectionMinutes * 60;
+    }
+
+    long maxTripSeconds() {
+        return maxTripMinutes * 60;
+    }
+
+    private static long get(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.fontysvenlo.ais.persistence;
 
+import io.github.fontysvenlo.ais.metrics.MetricRegistry;
 import io.github.fontysvenlo.ais.persistence.api.CustomerRepository;
 import io.github.fontysvenlo.ais.persistence.api.FlightRepository;
 import io.github.fontysvenlo.ais.persistence.api.Persistence;
@@ -7,12 +8,36 @@ import io.github.fontysvenlo.ais.persistence.api.BookingRepository;
 
 /**
  * Actual creator of storage services.
+ * Every repository is created once and shared; the repositories are thread-safe.
+ * Customers are read through a {@link CustomerCache}.
  */
 class PersistenceImpl implements Persistence{
-    private DBConfig config;
+    private final CustomerRepository customerRepository;
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
 
     PersistenceImpl(DBConfig config) {
-        this.config = config;
+        CustomerCache customerCache = new CustomerCache(new CustomerRepositoryImpl(config));
+        registerMetrics(MetricRegistry.global(), customerCache);
+        this.customerRepository = customerCache;
+        this.flightRepository = new FlightRepositoryImpl(config);
+        this.bookingRepository = new BookingRepositoryImpl(config);
+    }
+
+    /**
+     * Registers the statistics of the customer cache. A later instance replaces the metrics of an earlier one.
+     */
+    private static void registerMetrics(MetricRegistry registry, CustomerCache customerCache) {
+        registry.counter("ais_cache_hits_total", "Reads answered from the cache.",
+                () -> customerCache.stats().hits(), "cache", "customer");
+        registry.counter("ais_cache_misses_total", "Reads that had to load.",
+                () -> customerCache.stats().misses(), "cache", "customer");
+        registry.counter("ais_cache_evictions_total", "Entries dropped because the cache was full or outdated.",
+                () -> customerCache.stats().evictions(), "cache", "customer");
+        registry.gauge("ais_cache_size", "Entries currently cached.",
+                () -> customerCache.stats().size(), "cache", "customer");
+        registry.gauge("ais_cache_hit_ratio", "Share of reads answered from the cache since start.",
+                () -> customerCache.stats().hitRatio(), "cache", "customer");
     }
 
     /**
@@ -21,17 +46,17 @@ class PersistenceImpl implements Persistence{
      */
     @Override
     public CustomerRepository getCustomerRepository() {
-        return new CustomerRepositoryImpl(config);
+        return customerRepository;
     }
 
     @Override
     public FlightRepository getFlightRepository() {
-        return new FlightRepositoryImpl(config);  // Returns the implementation of FlightRepository
+        return flightRepository;
     }
 
     @Override
     public BookingRepository getBookingRepository() {
-        return new BookingRepositoryImpl(config);
+        return bookingRepository;
     }
 
 }
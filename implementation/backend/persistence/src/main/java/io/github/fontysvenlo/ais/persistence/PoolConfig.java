@@ -0,0 +1,66 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.util.Properties;
+
+/**
+ * Configuration of the database connection pool.
+ * @param minSize the number of connections the pool tries to keep open, even when idle
+ * @param maxSize the maximum number of connections the pool will ever open
+ * @param acquireTimeoutMillis how long a caller waits for a free connection before getting an SQLException
+ * @param idleTimeoutMillis how long a connection above minSize may stay idle before it is closed
+ * @param leakDetectionThresholdMillis how long a connection may be borrowed before a leak warning is logged, 0 disables
+ * @param validationTimeoutSeconds timeout for the validity check of a connection that has been idle for a while
+ */
+public record PoolConfig(int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis,
+        long leakDetectionThresholdMillis, int validationTimeoutSeconds) {
+
+    /**
+     * Validates the pool settings.
+     */
+    public PoolConfig {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool maxSize must be at least 1");
+        }
+        if (minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool minSize must be between 0 and maxSize");
+        }
+        if (acquireTimeoutMillis < 0 || idleTimeoutMillis < 0 || leakDetectionThresholdMillis < 0 || validationTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("Pool timeouts cannot be negative");
+        }
+    }
+
+    /**
+     * The pool settings used when nothing is configured.
+     * @return the default pool configuration
+     */
+    public static PoolConfig defaults() {
+        return new PoolConfig(2, 10, 5_000, 600_000, 60_000, 2);
+    }
+
+    /**
+     * Create a PoolConfig from a Properties object. Missing keys fall back to {@link #defaults()}.
+     * @param properties the properties to create the PoolConfig from
+     * @param namespace the namespace of the configuration
+     * @return the created PoolConfig
+     */
+    public static PoolConfig fromProperties(Properties properties, String namespace) {
+        PoolConfig defaults = defaults();
+        String prefix = namespace + ".pool.";
+        return new PoolConfig(
+                (int) get(properties, prefix + "minSize", defaults.minSize()),
+                (int) get(properties, prefix + "maxSize", defaults.maxSize()),
+                get(properties, prefix + "acquireTimeoutMillis", defaults.acquireTimeoutMillis()),
+                get(properties, prefix + "idleTimeoutMillis", defaults.idleTimeoutMillis()),
+                get(properties, prefix + "leakDetectionThresholdMillis", defaults.leakDetectionThresholdMillis()),
+                (int) get(properties, prefix + "validationTimeoutSeconds", defaults.validationTimeoutSeconds())
+        );
+    }
+
+    private static long get(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+}
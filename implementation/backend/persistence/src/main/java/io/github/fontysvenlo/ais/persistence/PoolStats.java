@@ -0,0 +1,27 @@
+package io.github.fontysvenlo.ais.persistence;
+
+/**
+ * Point-in-time statistics of a {@link ConnectionPool}.
+ * @param active the number of connections currently borrowed
+ * @param idle the number of open connections waiting in the pool
+ * @param waiters the number of callers currently waiting for a connection
+ * @param total the number of open physical connections
+ * @param acquireBucketBoundsNanos the upper bounds (inclusive, in nanoseconds) of the acquire-time histogram buckets
+ * @param acquireBucketCounts the number of acquisitions per bucket; the last entry counts everything above the last bound
+ * @param acquireTimeouts the number of callers that gave up waiting for a connection
+ */
+public record PoolStats(int active, int idle, int waiters, int total,
+        long[] acquireBucketBoundsNanos, long[] acquireBucketCounts, long acquireTimeouts) {
+
+    /**
+     * The total number of successful acquisitions.
+     * @return the sum of all histogram buckets
+     */
+    public long acquireCount() {
+        long count = 0;
+        for (long bucket : acquireBucketCounts) {
+            count += bucket;
+        }
+        return count;
+    }
+}
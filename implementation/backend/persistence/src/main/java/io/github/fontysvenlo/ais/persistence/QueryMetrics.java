@@ -0,0 +1,54 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import io.github.fontysvenlo.ais.metrics.Counter;
+import io.github.fontysvenlo.ais.metrics.Histogram;
+import io.github.fontysvenlo.ais.metrics.MetricRegistry;
+
+/**
+ * The timing and row count of one repository method. Every method keeps its own instance in a static field,
+ * so recording a call only adds to the registered histogram and counter:
+ * <pre>
+ * long start = System.nanoTime();
+ * int rows = 0;
+ * try {
+ *     ...
+ * } finally {
+ *     GET_ALL.record(start, rows);
+ * }
+ * </pre>
+ * The duration includes waiting for a connection, which {@link ConnectionPool} also records separately.
+ */
+final class QueryMetrics {
+    private final Histogram duration;
+    private final Counter rows;
+
+    private QueryMetrics(Histogram duration, Counter rows) {
+        this.duration = duration;
+        this.rows = rows;
+    }
+
+    /**
+     * Registers the metrics of a repository method in the global registry.
+     * @param repository the simple name of the repository
+     * @param method the name of the method
+     * @return the metrics of the method
+     */
+    static QueryMetrics of(String repository, String method) {
+        MetricRegistry registry = MetricRegistry.global();
+        return new QueryMetrics(
+                registry.histogram("ais_sql_query_duration_seconds", "Duration of repository methods, including the wait for a connection.",
+                        Histogram.LATENCY_BOUNDS_NANOS, "repository", repository, "method", method),
+                registry.counter("ais_sql_rows_total", "Rows read or written by repository methods.",
+                        "repository", repository, "method", method));
+    }
+
+    /**
+     * Records one call.
+     * @param startNanos the start of the call, from {@link System#nanoTime()}
+     * @param rows the number of rows read or written
+     */
+    void record(long startNanos, long rows) {
+        duration.recordSince(startNanos);
+        this.rows.add(rows);
+    }
+}
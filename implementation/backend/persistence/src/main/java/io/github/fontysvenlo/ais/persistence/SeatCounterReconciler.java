@@ -0,0 +1,189 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Keeps flight_seat_counters up to date. Bookings only append to flight_seat_counter_deltas, so they never
+ * wait for each other on a counter row; every {@value #FOLD_INTERVAL_SECONDS} seconds the pending deltas are
+ * folded into the counters with one statement, which deletes the deltas and adds them to the counters in the
+ * same transaction, so a reader of counter plus deltas never sees a booking twice or not at all.
+ * <p>
+ * It also detects and repairs drift, e.g. after bookings were changed with the triggers disabled.
+ * A cheap scan over all flights finds the counters that look wrong. Each of them is then recounted in its own
+ * transaction while its counter row is locked, so a fold cannot change it in the meantime; the bookings and the
+ * pending deltas are read in one snapshot, so a booking committed at the same time is neither missed nor
+ * counted twice.
+ */
+class SeatCounterReconciler implements AutoCloseable {
+    static final long INTERVAL_MINUTES = 10;
+    static final long FOLD_INTERVAL_SECONDS = 5;
+    private static final Logger LOGGER = Logger.getLogger(SeatCounterReconciler.class.getName());
+
+    private static final String FOLD =
+            "WITH folded AS (DELETE FROM flight_seat_counter_deltas RETURNING flight_id, delta) "
+            + "UPDATE flight_seat_counters c SET booked_seats = c.booked_seats + d.delta "
+            + "FROM (SELECT flight_id, SUM(delta) AS delta FROM folded GROUP BY flight_id) d "
+            + "WHERE c.flight_id = d.flight_id";
+    private static final String FIND_DRIFT =
+            "SELECT f.id FROM flights f "
+            + "LEFT JOIN flight_seat_counters c ON c.flight_id = f.id "
+            + "LEFT JOIN (SELECT FlightID, COUNT(*) AS n FROM Booking GROUP BY FlightID) b ON b.FlightID = f.id "
+            + "LEFT JOIN (SELECT flight_id, SUM(delta) AS n FROM flight_seat_counter_deltas GROUP BY flight_id) d ON d.flight_id = f.id "
+            + "WHERE c.flight_id IS NULL OR c.booked_seats + COALESCE(d.n, 0) <> COALESCE(b.n, 0)";
+    private static final String CREATE_COUNTER =
+            "INSERT INTO flight_seat_counters (flight_id, booked_seats) VALUES (?, 0) ON CONFLICT (flight_id) DO NOTHING";
+    private static final String LOCK_COUNTER =
+            "SELECT booked_seats FROM flight_seat_counters WHERE flight_id = ? FOR UPDATE";
+    // What the counter should be: the bookings minus the deltas that are still pending for them.
+    private static final String RECOUNT =
+            "SELECT (SELECT COUNT(*) FROM Booking WHERE FlightID = ?) "
+            + "- (SELECT COALESCE(SUM(delta), 0) FROM flight_seat_counter_deltas WHERE flight_id = ?)";
+    private static final String REPAIR =
+            "UPDATE flight_seat_counters SET booked_seats = ? WHERE flight_id = ?";
+
+    private final DataSource db;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates the reconciler and schedules the folding of deltas and the repair every {@value #INTERVAL_MINUTES} minutes.
+     * @param db the DataSource to use
+     */
+    SeatCounterReconciler(DataSource db) {
+        this(db, true);
+    }
+
+    /**
+     * Creates the reconciler.
+     * @param db the DataSource to use
+     * @param scheduled whether to fold and repair in the background; if not, only when asked
+     */
+    SeatCounterReconciler(DataSource db, boolean scheduled) {
+        this.db = db;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ais-seat-counter-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (scheduled) {
+            scheduler.scheduleWithFixedDelay(this::foldQuietly, FOLD_INTERVAL_SECONDS, FOLD_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            scheduler.scheduleWithFixedDelay(this::reconcileQuietly, INTERVAL_MINUTES, INTERVAL_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Adds the pending deltas to the counters and deletes them.
+     * @return the number of counters changed
+     * @throws SQLException if the database cannot be reached
+     */
+    int fold() throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FOLD)) {
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Repairs every counter that does not match the bookings.
+     * @return the IDs of the flights whose counter was repaired
+     * @throws SQLException if the database cannot be reached
+     */
+    List<Integer> reconcile() throws SQLException {
+        List<Integer> repaired = new ArrayList<>();
+        try (Connection conn = db.getConnection()) {
+            List<Integer> suspects = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_DRIFT);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    suspects.add(rs.getInt(1));
+                }
+            }
+            for (Integer flightId : suspects) {
+                if (repair(conn, flightId)) {
+                    repaired.add(flightId);
+                }
+            }
+        }
+        return repaired;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private boolean repair(Connection conn, int flightId) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = conn.prepareStatement(CREATE_COUNTER)) {
+                stmt.setInt(1, flightId);
+                stmt.executeUpdate();
+            }
+            int counted;
+            try (PreparedStatement stmt = conn.prepareStatement(LOCK_COUNTER)) {
+                stmt.setInt(1, flightId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        // The flight was deleted in the meantime.
+                        conn.rollback();
+                        return false;
+                    }
+                    counted = rs.getInt(1);
+                }
+            }
+            int actual;
+            try (PreparedStatement stmt = conn.prepareStatement(RECOUNT)) {
+                stmt.setInt(1, flightId);
+                stmt.setInt(2, flightId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    actual = rs.getInt(1);
+                }
+            }
+            if (counted == actual) {
+                conn.commit();
+                return false;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(REPAIR)) {
+                stmt.setInt(1, actual);
+                stmt.setInt(2, flightId);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            LOGGER.warning("Repaired seat counter of flight " + flightId + ": " + counted + " -> " + actual);
+            return true;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void foldQuietly() {
+        try {
+            fold();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Folding seat counter deltas failed", e);
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Seat counter reconciliation failed", e);
+        }
+    }
+}
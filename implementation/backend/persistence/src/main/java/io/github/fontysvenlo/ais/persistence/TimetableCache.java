@@ -0,0 +1,168 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+
+/**
+ * Keeps an in-memory {@link TimetableSnapshot} of the flights table up to date.
+ * The table is loaded once; after that the triggers from init.sql report every insert, update and delete
+ * on the {@value #CHANNEL} channel, and a listener thread applies them as a new snapshot version.
+ * Readers only read a volatile reference, so they never wait for the database or for the listener.
+ * <p>
+ * Notification payloads are {@code OPERATION:id[:previous departure airport]}. Inserted and updated rows
+ * are fetched again by id, all notifications that arrived together in one query. When the listen
+ * connection breaks, notifications may have been missed, so the table is loaded completely again.
+ */
+class TimetableCache implements AutoCloseable {
+    static final String CHANNEL = "flights_changed";
+    private static final Logger LOGGER = Logger.getLogger(TimetableCache.class.getName());
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long MIN_RECONNECT_DELAY_MILLIS = 1_000;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+
+    private final DataSource source;
+    private final Thread listener;
+    private volatile TimetableSnapshot snapshot;
+    private volatile boolean closed;
+    private Connection connection;
+
+    /**
+     * Loads the timetable and starts listening for changes. If the database cannot be reached,
+     * the timetable starts empty and the listener keeps trying to load it.
+     * @param source opens the dedicated listen connection; this should not be a pool, the connection is kept forever
+     */
+    TimetableCache(DataSource source) {
+        this.source = source;
+        try {
+            connect(0);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Timetable could not be loaded, retrying in the background", e);
+            snapshot = TimetableSnapshot.of(0, List.of());
+        }
+        listener = new Thread(this::listen, "ais-timetable-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * The current snapshot of the timetable.
+     * @return the snapshot
+     */
+    TimetableSnapshot current() {
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        listener.interrupt();
+    }
+
+    /**
+     * Opens the listen connection and loads the complete table. LISTEN is issued before the table is read,
+     * so no change made after the load can be missed; changes already included in the load are applied twice,
+     * which is harmless because rows are fetched again by id.
+     */
+    private void connect(long version) throws SQLException {
+        Connection opened = source.getConnection();
+        try {
+            try (Statement stmt = opened.createStatement()) {
+                stmt.execute("LISTEN " + CHANNEL);
+            }
+            snapshot = FlightRepositoryImpl.loadTimetable(opened, version);
+            connection = opened;
+        } catch (SQLException e) {
+            closeQuietly(opened);
+            throw e;
+        }
+    }
+
+    private void listen() {
+        long reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+        while (!closed) {
+            try {
+                if (connection == null) {
+                    connect(snapshot.version() + 1);
+                    reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+                    LOGGER.info("Timetable reloaded after reconnecting, version " + snapshot.version());
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(POLL_TIMEOUT_MILLIS);
+                if (notifications != null && notifications.length > 0) {
+                    apply(notifications);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (closed) {
+                    break;
+                }
+                LOGGER.log(Level.WARNING, "Timetable listener failed, reconnecting", e);
+                closeQuietly(connection);
+                connection = null;
+                try {
+                    Thread.sleep(reconnectDelay);
+                    reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        closeQuietly(connection);
+        connection = null;
+    }
+
+    private void apply(PGNotification[] notifications) throws SQLException {
+        Set<Integer> changed = new LinkedHashSet<>();
+        Map<Integer, String> previousAirports = new HashMap<>();
+        for (PGNotification notification : notifications) {
+            String[] parts = notification.getParameter().split(":", 3);
+            if ("TRUNCATE".equals(parts[0])) {
+                snapshot = FlightRepositoryImpl.loadTimetable(connection, snapshot.version() + 1);
+                return;
+            }
+            int id = Integer.parseInt(parts[1]);
+            changed.add(id);
+            if (parts.length == 3) {
+                // The first change of a flight in this batch tells where the current snapshot lists it.
+                previousAirports.putIfAbsent(id, parts[2]);
+            }
+        }
+
+        // Rows that are not found anymore were deleted after the notification was sent.
+        Map<Integer, FlightData> rows = FlightRepositoryImpl.getFlightsByIds(connection, changed);
+        List<Integer> deletes = new ArrayList<>();
+        for (Integer id : changed) {
+            if (!rows.containsKey(id)) {
+                deletes.add(id);
+            }
+        }
+        snapshot = snapshot.apply(rows.values(), deletes, previousAirports);
+        LOGGER.fine(() -> "Applied " + changed.size() + " timetable changes, version " + snapshot.version());
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Failed to close timetable listen connection", e);
+        }
+    }
+}
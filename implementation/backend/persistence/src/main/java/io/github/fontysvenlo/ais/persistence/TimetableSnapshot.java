@@ -0,0 +1,544 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
+
+/**
+ * Immutable, versioned copy of the flights table, stored as columns.
+ * Airport codes are numbered by {@link AirportCodes}, and per departure airport the flights are kept in
+ * {@link FlightColumns} sorted by departure time, so a flight costs 24 bytes and searching reads arrays
+ * without creating objects; a FlightData is only created for the flights of the itineraries found.
+ * Changes produce a new snapshot that shares the columns of all airports that were not touched, so applying
+ * a change costs in the order of the number of airports and the flights of the changed airports, not of the
+ * whole timetable.
+ */
+final class TimetableSnapshot {
+    private static final Comparator<FlightData> DEPARTURE_ORDER =
+            Comparator.comparingLong(FlightData::departureEpochSecond).thenComparingInt(FlightData::flightNumber);
+
+    private final long version;
+    private final AirportCodes airports;
+    private final FlightColumns[] departures;
+    private final int size;
+
+    private TimetableSnapshot(long version, AirportCodes airports, FlightColumns[] departures, int size) {
+        this.version = version;
+        this.airports = airports;
+        this.departures = departures;
+        this.size = size;
+    }
+
+    /**
+     * Creates the first snapshot of a timetable.
+     * @param version the version of the snapshot
+     * @param flights all flights
+     * @return the snapshot
+     */
+    static TimetableSnapshot of(long version, Collection<FlightData> flights) {
+        Builder builder = new Builder();
+        for (FlightData flight : flights) {
+            builder.add(flight.flightNumber(), flight.flightDeparture(), flight.flightDestination(),
+                    flight.departureEpochSecond(), flight.arrivalEpochSecond());
+        }
+        return builder.build(version);
+    }
+
+    /**
+     * Creates the next version of this snapshot.
+     * A flight is identified by its number; an upserted flight replaces the flight with the same number.
+     * @param upserts the inserted or updated flights
+     * @param deletes the numbers of the deleted flights
+     * @param previousAirports per changed flight number the departure airport it had before the change, where known
+     * @return the new snapshot, with the version one higher
+     */
+    TimetableSnapshot apply(Collection<FlightData> upserts, Collection<Integer> deletes, Map<Integer, String> previousAirports) {
+        Map<Integer, List<String>> removed = new HashMap<>();
+        for (Integer id : deletes) {
+            removed.put(id, new ArrayList<>());
+        }
+        for (FlightData flight : upserts) {
+            removed.computeIfAbsent(flight.flightNumber(), id -> new ArrayList<>()).add(flight.flightDeparture());
+        }
+        for (Map.Entry<Integer, String> entry : previousAirports.entrySet()) {
+            List<String> codes = removed.get(entry.getKey());
+            if (codes != null && entry.getValue() != null) {
+                codes.add(entry.getValue());
+            }
+        }
+
+        List<String> codes = new ArrayList<>(2 * upserts.size());
+        for (FlightData flight : upserts) {
+            codes.add(flight.flightDeparture());
+            codes.add(flight.flightDestination());
+        }
+        AirportCodes nextAirports = airports.withAll(codes);
+        FlightColumns[] next = Arrays.copyOf(departures, nextAirports.size());
+        Arrays.fill(next, departures.length, next.length, FlightColumns.EMPTY);
+
+        // A removed flight is looked up in the airports it may be listed under; if none are known, in all airports.
+        Map<Integer, FlightColumns.Builder> changed = new HashMap<>();
+        for (Map.Entry<Integer, List<String>> entry : removed.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                for (int airport = 0; airport < departures.length; airport++) {
+                    markIfListed(airport, entry.getKey(), changed);
+                }
+            } else {
+                for (String code : entry.getValue()) {
+                    markIfListed(airports.numberOf(code), entry.getKey(), changed);
+                }
+            }
+        }
+        int newSize = size;
+        for (FlightColumns.Builder columns : changed.values()) {
+            newSize -= columns.removeAll(removed.keySet());
+        }
+        for (FlightData flight : upserts) {
+            changed.computeIfAbsent(nextAirports.numberOf(flight.flightDeparture()), airport -> FlightColumns.Builder.of(next[airport]))
+                    .add(flight.flightNumber(), nextAirports.numberOf(flight.flightDestination()),
+                            flight.departureEpochSecond(), flight.arrivalEpochSecond());
+            newSize++;
+        }
+
+        for (Map.Entry<Integer, FlightColumns.Builder> entry : changed.entrySet()) {
+            next[entry.getKey()] = entry.getValue().build();
+        }
+        return new TimetableSnapshot(version + 1, nextAirports, next, newSize);
+    }
+
+    private void markIfListed(int airport, int id, Map<Integer, FlightColumns.Builder> changed) {
+        if (airport >= 0 && !changed.containsKey(airport) && departures[airport].rowOf(id) >= 0) {
+            changed.put(airport, FlightColumns.Builder.of(departures[airport]));
+        }
+    }
+
+    /**
+     * The version of this snapshot. Every applied change increases it.
+     * @return the version
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Number of flights in this snapshot.
+     * @return the number of flights
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * All flights, ordered by departure time.
+     * @return the flights
+     */
+    List<FlightData> flights() {
+        List<FlightData> flights = new ArrayList<>(size);
+        for (int airport = 0; airport < departures.length; airport++) {
+            for (int row = 0; row < departures[airport].size(); row++) {
+                flights.add(flight(airport, row));
+            }
+        }
+        flights.sort(DEPARTURE_ORDER);
+        return flights;
+    }
+
+    /**
+     * Searches with the default rules.
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param departAfter the earliest departure, in epoch seconds
+     * @return the itineraries, each a list of flights in travel order
+     * @see #search(String, String, long, FlightSearchConfig)
+     */
+    List<List<FlightData>> search(String departure, String arrival, long departAfter) {
+        return search(departure, arrival, departAfter, FlightSearchConfig.defaults());
+    }
+
+    /**
+     * Finds the itineraries the recursive CTE of FlightRepositoryImpl finds, without going to the database:
+     * the first flight departs at or after the given moment, every next flight departs from the airport the
+     * previous one arrived at within the connection window, no airport is visited twice, and the number of
+     * flights and the trip duration stay within the rules.
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param departAfter the earliest departure, in epoch seconds
+     * @param config the search rules
+     * @return the itineraries, each a list of flights in travel order
+     */
+    List<List<FlightData>> search(String departure, String arrival, long departAfter, FlightSearchConfig config) {
+        List<List<FlightData>> results = new ArrayList<>();
+        search(departure, arrival, departAfter, config, results::add);
+        return results;
+    }
+
+    /**
+     * Finds the same itineraries as {@link #search(String, String, long, FlightSearchConfig)}, in the same order,
+     * and passes each to the action as soon as it is found.
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param departAfter the earliest departure, in epoch seconds
+     * @param config the search rules
+     * @param action receives the itineraries, each a list of flights in travel order
+     */
+    void search(String departure, String arrival, long departAfter, FlightSearchConfig config,
+            Consumer<? super List<FlightData>> action) {
+        int from = airports.numberOf(departure);
+        int to = airports.numberOf(arrival);
+        if (from >= 0 && to >= 0) {
+            new Search(to, config, action).start(from, departAfter);
+        }
+    }
+
+    /**
+     * Finds the best itineraries of {@link #search(String, String, long, FlightSearchConfig)} by the given ranking.
+     * The best ones found so far are kept in a bounded heap. Once it is full, a flight is only followed when the
+     * itineraries through it could still rank above the worst one kept: the earliest arrival and the fewest flights
+     * that are possible from that flight on bound every key of a ranking.
+     * @param departure the departure airport
+     * @param arrival the arrival airport
+     * @param departAfter the earliest departure, in epoch seconds
+     * @param config the search rules
+     * @param ranking the order of the itineraries
+     * @param limit the maximum number of itineraries, at least 1
+     * @return at most limit itineraries, best first, each a list of flights in travel order
+     */
+    List<List<FlightData>> search(String departure, String arrival, long departAfter, FlightSearchConfig config,
+            ItineraryRanking ranking, int limit) {
+        int from = airports.numberOf(departure);
+        int to = airports.numberOf(arrival);
+        if (from < 0 || to < 0) {
+            return List.of();
+        }
+        RankedSearch search = new RankedSearch(to, config, ranking, limit);
+        search.start(from, departAfter);
+        return search.results();
+    }
+
+    private FlightData flight(int airport, int row) {
+        FlightColumns columns = departures[airport];
+        return new FlightData(columns.id(row), airports.code(airport), airports.code(columns.destination(row)),
+                columns.departure(row), columns.arrival(row));
+    }
+
+    /**
+     * The state of one search. The path is kept as the airport and row of every flight on it, and the visited
+     * airports as a boolean per airport number, so following a flight does not allocate.
+     */
+    private class Search {
+        final int target;
+        final int[] pathAirports;
+        final int[] pathRows;
+        final int maxLegs;
+        final long minConnection;
+        final long maxConnection;
+        final long maxTrip;
+        private final boolean[] visited = new boolean[airports.size()];
+        private final Consumer<? super List<FlightData>> action;
+
+        Search(int target, FlightSearchConfig config, Consumer<? super List<FlightData>> action) {
+            this.target = target;
+            this.maxLegs = config.maxLegs();
+            this.minConnection = config.minConnectionSeconds();
+            this.maxConnection = config.maxConnectionMinutes() > 0 ? config.maxConnectionSeconds() : -1;
+            this.maxTrip = config.maxTripMinutes() > 0 ? config.maxTripSeconds() : -1;
+            this.pathAirports = new int[maxLegs];
+            this.pathRows = new int[maxLegs];
+            this.action = action;
+        }
+
+        void start(int from, long departAfter) {
+            visited[from] = true;
+            extend(from, departAfter, Long.MAX_VALUE, -1, 0);
+        }
+
+        private void extend(int airport, long notBefore, long notAfter, long firstDeparture, int depth) {
+            FlightColumns flights = departures[airport];
+            for (int row = flights.firstDepartureAtOrAfter(notBefore); row < flights.size() && flights.departure(row) <= notAfter; row++) {
+                int destination = flights.destination(row);
+                long departure = flights.departure(row);
+                long arrival = flights.arrival(row);
+                long tripStart = depth == 0 ? departure : firstDeparture;
+                if (visited[destination] || maxTrip >= 0 && arrival - tripStart > maxTrip) {
+                    continue;
+                }
+                pathAirports[depth] = airport;
+                pathRows[depth] = row;
+                if (destination == target) {
+                    found(depth + 1);
+                } else if (depth + 1 < maxLegs && mayFollow(airport, row, tripStart, depth + 1)) {
+                    visited[destination] = true;
+                    extend(destination, Math.max(arrival + minConnection, departure),
+                            maxConnection >= 0 ? arrival + maxConnection : Long.MAX_VALUE, tripStart, depth + 1);
+                    visited[destination] = false;
+                }
+            }
+        }
+
+        /**
+         * Whether to search on from a flight that does not arrive at the target.
+         * @param airport the airport the flight departs from
+         * @param row the row of the flight
+         * @param tripStart the first departure of the itinerary
+         * @param legs the number of flights up to and including this one
+         * @return false if no itinerary through the flight is wanted
+         */
+        boolean mayFollow(int airport, int row, long tripStart, int legs) {
+            return true;
+        }
+
+        /**
+         * Called for every itinerary found; its flights are the first legs entries of the path.
+         */
+        void found(int legs) {
+            action.accept(itinerary(pathAirports, pathRows, legs));
+        }
+    }
+
+    /**
+     * A search that keeps only the best itineraries.
+     * <p>
+     * Before searching, it works out per flight a lower bound on the arrival at the target and on the number of
+     * flights needed to get there, ignoring the maximum connection time and the airports already visited. Only
+     * the flights that can be reached from the departure airport are looked at: a forward pass finds per airport
+     * the earliest moment it can be left, and a reverse scan over the flights departing from then on, latest
+     * first, computes the bounds. The work and memory are in the order of the reachable flights, not of the
+     * timetable.
+     */
+    private final class RankedSearch extends Search {
+        private static final long NEVER = Long.MAX_VALUE;
+        private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+        private final ItineraryRanking ranking;
+        private final int limit;
+        // The worst kept itinerary is at the head.
+        private final PriorityQueue<Candidate> best;
+        // Per airport the first reachable row, and from that row on the best bounds of the flights departing at or
+        // after each row; null for airports that cannot be reached.
+        private final int[] firstReachable = new int[airports.size()];
+        private final long[][] earliestArrival = new long[airports.size()][];
+        private final int[][] fewestLegs = new int[airports.size()][];
+
+        RankedSearch(int target, FlightSearchConfig config, ItineraryRanking ranking, int limit) {
+            super(target, config, null);
+            this.ranking = ranking;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(limit + 1, (a, b) -> compare(b, a));
+        }
+
+        @Override
+        void start(int from, long departAfter) {
+            scanReachable(from, departAfter);
+            super.start(from, departAfter);
+        }
+
+        /**
+         * Skips the flights from which the target cannot be reached within the rules, and, once enough
+         * itineraries are kept, the flights through which every itinerary ranks below the worst one kept.
+         * Ties are followed, since the flight numbers may still put them first.
+         */
+        @Override
+        boolean mayFollow(int airport, int row, long tripStart, int legs) {
+            FlightColumns flights = departures[airport];
+            int destination = flights.destination(row);
+            int next = reachableAtOrAfter(destination, Math.max(flights.arrival(row) + minConnection, flights.departure(row)));
+            if (next < 0 || fewestLegs[destination][next] == UNREACHABLE) {
+                return false;
+            }
+            long arrival = earliestArrival[destination][next];
+            int totalLegs = legs + fewestLegs[destination][next];
+            if (totalLegs > maxLegs || maxTrip >= 0 && arrival - tripStart > maxTrip) {
+                return false;
+            }
+            if (best.size() < limit) {
+                return true;
+            }
+            Candidate worst = best.peek();
+            return ranking.compare(arrival, tripStart, totalLegs, worst.arrival(), worst.departure(), worst.airports().length) <= 0;
+        }
+
+        @Override
+        void found(int legs) {
+            Candidate candidate = new Candidate(Arrays.copyOf(pathAirports, legs), Arrays.copyOf(pathRows, legs),
+                    departures[pathAirports[legs - 1]].arrival(pathRows[legs - 1]),
+                    departures[pathAirports[0]].departure(pathRows[0]));
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        /**
+         * Computes the bounds of every flight that can be reached from the departure airport.
+         */
+        private void scanReachable(int from, long departAfter) {
+            // Forward: the earliest moment every airport can be left. The target and the departure airport are
+            // not left again, so their flights are not followed.
+            long[] ready = new long[airports.size()];
+            Arrays.fill(ready, NEVER);
+            ready[from] = departAfter;
+            PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+            queue.add(new long[] {departAfter, from});
+            while (!queue.isEmpty()) {
+                long[] entry = queue.poll();
+                int airport = (int) entry[1];
+                if (entry[0] > ready[airport]) {
+                    continue;
+                }
+                FlightColumns flights = departures[airport];
+                for (int row = flights.firstDepartureAtOrAfter(entry[0]); row < flights.size(); row++) {
+                    int destination = flights.destination(row);
+                    long next = Math.max(flights.arrival(row) + minConnection, flights.departure(row));
+                    if (destination != target && destination != from && next < ready[destination]) {
+                        ready[destination] = next;
+                        queue.add(new long[] {next, destination});
+                    }
+                }
+            }
+
+            // Reverse: the reachable flights of all airports, latest departure first.
+            int[] cursor = new int[airports.size()];
+            PriorityQueue<Integer> latest = new PriorityQueue<>(
+                    (a, b) -> Long.compare(departures[b].departure(cursor[b]), departures[a].departure(cursor[a])));
+            for (int airport = 0; airport < ready.length; airport++) {
+                if (ready[airport] == NEVER) {
+                    continue;
+                }
+                FlightColumns flights = departures[airport];
+                firstReachable[airport] = flights.firstDepartureAtOrAfter(ready[airport]);
+                int reachable = flights.size() - firstReachable[airport];
+                earliestArrival[airport] = new long[reachable];
+                fewestLegs[airport] = new int[reachable];
+                Arrays.fill(earliestArrival[airport], NEVER);
+                Arrays.fill(fewestLegs[airport], UNREACHABLE);
+                if (reachable > 0) {
+                    cursor[airport] = flights.size() - 1;
+                    latest.add(airport);
+                }
+            }
+            while (!latest.isEmpty()) {
+                int airport = latest.poll();
+                int row = cursor[airport];
+                scan(airport, row);
+                if (row > firstReachable[airport]) {
+                    cursor[airport] = row - 1;
+                    latest.add(airport);
+                }
+            }
+        }
+
+        private void scan(int airport, int row) {
+            FlightColumns flights = departures[airport];
+            int destination = flights.destination(row);
+            long departure = flights.departure(row);
+            long next = Math.max(flights.arrival(row) + minConnection, departure);
+            long arrival = NEVER;
+            int legs = UNREACHABLE;
+            if (destination == target) {
+                arrival = flights.arrival(row);
+                legs = 1;
+            } else if (next == departure) {
+                // Flights departing at the same moment may not have been scanned yet; one more flight is a safe bound.
+                arrival = flights.arrival(row);
+                legs = 2;
+            } else {
+                int scanned = reachableAtOrAfter(destination, next);
+                if (scanned >= 0 && fewestLegs[destination][scanned] != UNREACHABLE) {
+                    arrival = earliestArrival[destination][scanned];
+                    legs = fewestLegs[destination][scanned] + 1;
+                }
+            }
+            int i = row - firstReachable[airport];
+            if (i + 1 < earliestArrival[airport].length) {
+                arrival = Math.min(arrival, earliestArrival[airport][i + 1]);
+                legs = Math.min(legs, fewestLegs[airport][i + 1]);
+            }
+            earliestArrival[airport][i] = arrival;
+            fewestLegs[airport][i] = legs;
+        }
+
+        /**
+         * The index into the bounds of an airport of its first flight departing at or after the given moment.
+         * @return the index, or -1 if the airport cannot be reached or no flight departs from then on
+         */
+        private int reachableAtOrAfter(int airport, long time) {
+            if (earliestArrival[airport] == null) {
+                return -1;
+            }
+            int row = Math.max(departures[airport].firstDepartureAtOrAfter(time), firstReachable[airport]);
+            return row < departures[airport].size() ? row - firstReachable[airport] : -1;
+        }
+
+        private int compare(Candidate a, Candidate b) {
+            int legs = a.airports().length;
+            int result = ranking.compare(a.arrival(), a.departure(), legs, b.arrival(), b.departure(), b.airports().length);
+            for (int i = 0; result == 0 && i < legs; i++) {
+                result = Integer.compare(departures[a.airports()[i]].id(a.rows()[i]), departures[b.airports()[i]].id(b.rows()[i]));
+            }
+            return result;
+        }
+
+        List<List<FlightData>> results() {
+            Candidate[] ranked = best.toArray(new Candidate[0]);
+            Arrays.sort(ranked, this::compare);
+            List<List<FlightData>> results = new ArrayList<>(ranked.length);
+            for (Candidate candidate : ranked) {
+                results.add(itinerary(candidate.airports(), candidate.rows(), candidate.airports().length));
+            }
+            return results;
+        }
+    }
+
+    private List<FlightData> itinerary(int[] pathAirports, int[] pathRows, int legs) {
+        List<FlightData> itinerary = new ArrayList<>(legs);
+        for (int i = 0; i < legs; i++) {
+            itinerary.add(flight(pathAirports[i], pathRows[i]));
+        }
+        return itinerary;
+    }
+
+    /**
+     * An itinerary kept by a ranked search, as the airport and row of each of its flights.
+     */
+    private record Candidate(int[] airports, int[] rows, long arrival, long departure) {
+    }
+
+    /**
+     * Builds a snapshot from flights that are added one at a time, such as the rows of a query, without
+     * keeping a FlightData per flight.
+     */
+    static final class Builder {
+        private final AirportCodes.Builder airports = new AirportCodes.Builder();
+        private final List<FlightColumns.Builder> departures = new ArrayList<>();
+        private int size;
+
+        void add(int id, String departure, String arrival, long departureTime, long arrivalTime) {
+            int origin = airports.intern(departure);
+            int destination = airports.intern(arrival);
+            while (departures.size() < airports.size()) {
+                departures.add(new FlightColumns.Builder());
+            }
+            departures.get(origin).add(id, destination, departureTime, arrivalTime);
+            size++;
+        }
+
+        TimetableSnapshot build(long version) {
+            FlightColumns[] columns = new FlightColumns[departures.size()];
+            for (int airport = 0; airport < columns.length; airport++) {
+                columns[airport] = departures.get(airport).build();
+            }
+            return new TimetableSnapshot(version, airports.build(), columns, size);
+        }
+    }
+}
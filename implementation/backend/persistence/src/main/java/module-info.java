@@ -4,6 +4,7 @@
 module persistence_module { 
     requires datarecords_module;
     requires persistence_api_module;
+    requires metrics_module;
     
     requires java.logging;
     requires java.sql;
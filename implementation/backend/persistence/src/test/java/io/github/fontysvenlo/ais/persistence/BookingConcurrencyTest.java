@@ -0,0 +1,104 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
+
+/**
+ * Fires many parallel bookings at the same seats: every seat must be booked exactly once,
+ * and every other attempt must be rejected as taken, not fail.
+ */
+class BookingConcurrencyTest {
+    private static final int[] FLIGHTS = {4, 5, 6};
+    private static final int SEATS_PER_FLIGHT = 60;
+    private static final int ATTEMPTS_PER_SEAT = 20;
+    private static final int THREADS = 64;
+
+    private ConnectionPool pool;
+    private BookingRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        TestDatabase.execute("DELETE FROM Booking WHERE FlightID IN (4, 5, 6)");
+        pool = new ConnectionPool(TestDatabase.dataSource(), new PoolConfig(0, 20, 30_000, 60_000, 0, 2));
+        repository = new BookingRepositoryImpl(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testEverySeatIsBookedExactlyOnce() throws Exception {
+        List<BookingData> attempts = new ArrayList<>();
+        for (int attempt = 0; attempt < ATTEMPTS_PER_SEAT; attempt++) {
+            for (int flight : FLIGHTS) {
+                for (int seat = 0; seat < SEATS_PER_FLIGHT; seat++) {
+                    String seatNumber = (seat / 6 + 1) + String.valueOf((char) ('A' + seat % 6));
+                    attempts.add(new BookingData(null, flight, new BigDecimal("150.00"), false, false, "Economy",
+                            seatNumber, "john.doe@example.com", "John Doe", true));
+                }
+            }
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (BookingData booking : attempts) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        repository.createBooking(booking);
+                        booked.incrementAndGet();
+                    } catch (SeatNotAvailableException e) {
+                        taken.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // Any other exception, e.g. a failure reported as something else, fails the test here.
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int seats = FLIGHTS.length * SEATS_PER_FLIGHT;
+        assertEquals(seats, booked.get(), "Every seat should be booked once");
+        assertEquals(attempts.size() - seats, taken.get());
+        assertEquals(seats, countBookings("SELECT COUNT(*) FROM Booking WHERE FlightID IN (4, 5, 6)"));
+        assertEquals(seats, countBookings("SELECT COUNT(DISTINCT (FlightID, SeatNumber)) FROM Booking WHERE FlightID IN (4, 5, 6)"));
+    }
+
+    private static int countBookings(String sql) throws SQLException {
+        try (Connection connection = TestDatabase.dataSource().getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
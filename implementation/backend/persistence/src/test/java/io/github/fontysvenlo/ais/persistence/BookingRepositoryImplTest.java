@@ -0,0 +1,194 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
+import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
+import io.github.fontysvenlo.ais.exceptions.PersistenceException;
+import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
+
+/**
+ * Tests how createBooking and createBookings report the outcome of the reservation statements.
+ */
+class BookingRepositoryImplTest {
+
+    private static final BookingData BOOKING = new BookingData(null, 5, new BigDecimal("150.00"), false, false,
+            "Economy", "3C", "john.doe@example.com", "John Doe", true);
+    private static final BookingData RETURN_BOOKING = new BookingData(null, 7, new BigDecimal("150.00"), false, false,
+            "Economy", "3C", "john.doe@example.com", "John Doe", true);
+
+    private DataSource dataSource;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet rows;
+    private BookingRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        rows = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.prepareStatement(anyString(), any(String[].class))).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rows);
+        repository = new BookingRepositoryImpl(dataSource);
+    }
+
+    @Test
+    void testFreeSeatIsBookedWithOneStatement() throws Exception {
+        when(rows.next()).thenReturn(true);
+        when(rows.getInt(1)).thenReturn(42);
+
+        BookingData created = repository.createBooking(BOOKING);
+
+        assertEquals(42, created.id());
+        assertEquals("3C", created.seatNumber());
+        verify(connection, times(1)).prepareStatement(anyString());
+    }
+
+    @Test
+    void testConflictIsReportedAsSeatTaken() throws SQLException {
+        when(rows.next()).thenReturn(false);
+
+        assertThrows(SeatNotAvailableException.class, () -> repository.createBooking(BOOKING));
+    }
+
+    @Test
+    void testUniqueViolationIsReportedAsSeatTaken() throws SQLException {
+        when(statement.executeQuery()).thenThrow(new SQLException("duplicate key", "23505"));
+
+        assertThrows(SeatNotAvailableException.class, () -> repository.createBooking(BOOKING));
+    }
+
+    @Test
+    void testDatabaseFailureIsNotReportedAsSeatTaken() throws SQLException {
+        when(statement.executeQuery()).thenThrow(new SQLException("I/O error", "08006"));
+
+        assertThrows(PersistenceException.class, () -> repository.createBooking(BOOKING));
+    }
+
+    @Test
+    void testBatchIsInsertedInOneTransaction() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[] {1, 1});
+        when(statement.getGeneratedKeys()).thenReturn(rows);
+        when(rows.next()).thenReturn(true, true, false);
+        when(rows.getInt(1)).thenReturn(10, 11);
+
+        List<BookingResult> results = repository.createBookings(List.of(BOOKING, RETURN_BOOKING));
+
+        assertEquals(BookingResult.Status.BOOKED, results.get(0).status());
+        assertEquals(10, results.get(0).booking().id());
+        assertEquals(11, results.get(1).booking().id());
+        verify(statement, times(2)).addBatch();
+        verify(statement, times(1)).executeBatch();
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+    }
+
+    @Test
+    void testBatchWithTakenSeatIsRolledBack() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[] {1, 0});
+
+        List<BookingResult> results = repository.createBookings(List.of(BOOKING, RETURN_BOOKING));
+
+        assertEquals(BookingResult.Status.NOT_BOOKED, results.get(0).status());
+        assertEquals(BookingResult.Status.SEAT_TAKEN, results.get(1).status());
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    void testBatchFailureIsRolledBack() throws SQLException {
+        when(statement.executeBatch()).thenThrow(new SQLException("I/O error", "08006"));
+
+        assertThrows(PersistenceException.class, () -> repository.createBookings(List.of(BOOKING)));
+        verify(connection).rollback();
+    }
+
+    @Test
+    void testBatchWithUnknownFlightReportsThatBookingAsInvalid() throws SQLException {
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException("violates foreign key constraint", "23503", new int[0]));
+        when(connection.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+        // Flight 5 exists, flight 7 does not; the customer exists.
+        when(rows.next()).thenReturn(true, false, true, false);
+        when(rows.getInt(1)).thenReturn(5);
+        when(rows.getString(1)).thenReturn("john.doe@example.com");
+
+        List<BookingResult> results = repository.createBookings(List.of(BOOKING, RETURN_BOOKING));
+
+        assertEquals(BookingResult.Status.NOT_BOOKED, results.get(0).status());
+        assertEquals(BookingResult.Status.INVALID, results.get(1).status());
+        assertEquals("Flight not found: 7", results.get(1).message());
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    void testCapacityUsesOneQueryOnOneConnection() throws Exception {
+        Array seats = mock(Array.class);
+        when(seats.getArray()).thenReturn(new String[] {"12A", "2B", "3C"});
+        when(rows.next()).thenReturn(true);
+        when(rows.getInt("id")).thenReturn(1);
+        when(rows.getInt("totalSeats")).thenReturn(60);
+        when(rows.getArray("bookedSeatNumbers")).thenReturn(seats);
+
+        FlightCapacityData capacity = repository.getFlightCapacity(1);
+
+        assertEquals(57, capacity.availableSeats());
+        assertEquals(5.0, capacity.occupancyPercentage(), 0.0);
+        assertEquals(List.of("12A", "2B", "3C"), capacity.bookedSeatNumbers());
+        verify(dataSource, times(1)).getConnection();
+        verify(connection, times(1)).prepareStatement(anyString());
+    }
+
+    @Test
+    void testCapacityOfUnknownFlight() throws SQLException {
+        when(rows.next()).thenReturn(false);
+
+        assertThrows(SeatNotAvailableException.class, () -> repository.getFlightCapacity(999));
+    }
+
+    @Test
+    void testCapacitiesOfSeveralFlightsUseOneQuery() throws Exception {
+        Array ids = mock(Array.class);
+        Array seats = mock(Array.class);
+        when(connection.createArrayOf(eq("integer"), any(Object[].class))).thenReturn(ids);
+        when(seats.getArray()).thenReturn(new String[] {"1A"});
+        when(rows.next()).thenReturn(true, true, false);
+        when(rows.getInt("id")).thenReturn(1, 2);
+        when(rows.getInt("totalSeats")).thenReturn(60);
+        when(rows.getArray("bookedSeatNumbers")).thenReturn(seats);
+
+        Map<Integer, FlightCapacityData> capacities = repository.getFlightCapacities(List.of(1, 2, 999));
+
+        assertEquals(2, capacities.size());
+        assertEquals(59, capacities.get(2).availableSeats());
+        verify(statement).setArray(1, ids);
+        verify(statement, times(1)).executeQuery();
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for ConnectionPool, using mocked physical connections.
+ */
+class ConnectionPoolTest {
+
+    private DataSource factory;
+    private Connection physical;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        factory = mock(DataSource.class);
+        physical = mock(Connection.class);
+        when(physical.getAutoCommit()).thenReturn(true);
+        when(factory.getConnection()).thenReturn(physical);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testReturnedConnectionIsReused() throws SQLException {
+        pool = new ConnectionPool(factory, new PoolConfig(0, 2, 1_000, 60_000, 0, 1));
+
+        pool.getConnection().close();
+        pool.getConnection().close();
+
+        verify(factory, times(1)).getConnection();
+        verify(physical, never()).close();
+        assertEquals(1, pool.stats().idle());
+        assertEquals(0, pool.stats().active());
+    }
+
+    @Test
+    void testAcquireTimesOutWhenPoolIsExhausted() throws SQLException {
+        pool = new ConnectionPool(factory, new PoolConfig(0, 1, 50, 60_000, 0, 1));
+
+        try (Connection first = pool.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, () -> pool.getConnection());
+            assertEquals(1, pool.stats().active());
+        }
+
+        assertEquals(1, pool.stats().acquireTimeouts());
+        assertEquals(1, pool.stats().acquireCount());
+    }
+
+    @Test
+    void testClosingTwiceReturnsConnectionOnce() throws SQLException {
+        pool = new ConnectionPool(factory, new PoolConfig(0, 1, 50, 60_000, 0, 1));
+
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, () -> connection.createStatement());
+        assertEquals(1, pool.stats().idle());
+    }
+
+    @Test
+    void testStatementsAndMetadataHandOutThePooledConnection() throws SQLException {
+        when(physical.prepareStatement("SELECT 1")).thenReturn(mock(PreparedStatement.class));
+        when(physical.getMetaData()).thenReturn(mock(DatabaseMetaData.class));
+        pool = new ConnectionPool(factory, new PoolConfig(0, 1, 50, 60_000, 0, 1));
+
+        Connection connection = pool.getConnection();
+        PreparedStatement statement = connection.prepareStatement("SELECT 1");
+
+        assertSame(connection, statement.getConnection());
+        assertSame(connection, connection.getMetaData().getConnection());
+        statement.getConnection().close();
+        verify(physical, never()).close();
+        assertEquals(1, pool.stats().idle());
+        assertEquals(0, pool.stats().active());
+    }
+
+    @Test
+    void testOpenTransactionIsRolledBackOnReturn() throws SQLException {
+        when(physical.getAutoCommit()).thenReturn(false);
+        pool = new ConnectionPool(factory, new PoolConfig(0, 1, 50, 60_000, 0, 1));
+
+        pool.getConnection().close();
+
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+    }
+
+    @Test
+    void testBrokenConnectionIsDiscarded() throws SQLException {
+        when(physical.createStatement()).thenThrow(new SQLException("I/O error", "08006"));
+        pool = new ConnectionPool(factory, new PoolConfig(0, 1, 50, 60_000, 0, 1));
+
+        try (Connection connection = pool.getConnection()) {
+            assertThrows(SQLException.class, () -> connection.createStatement());
+        }
+
+        verify(physical).close();
+        assertEquals(0, pool.stats().total());
+    }
+
+    @Test
+    void testIdleConnectionsAboveMinSizeAreEvicted() throws Exception {
+        pool = new ConnectionPool(factory, new PoolConfig(0, 1, 50, 1, 0, 1));
+
+        pool.getConnection().close();
+        Thread.sleep(10);
+        pool.housekeep();
+
+        verify(physical).close();
+        assertEquals(0, pool.stats().idle());
+        assertEquals(0, pool.stats().total());
+    }
+}
@@ -0,0 +1,247 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
+import io.github.fontysvenlo.ais.persistence.api.CustomerRepository;
+
+/**
+ * Tests eviction, invalidation and the statistics of CustomerCache, in front of an in-memory repository.
+ */
+class CustomerCacheTest {
+    private static final Duration TTL = Duration.ofSeconds(10);
+
+    private final AtomicLong now = new AtomicLong();
+    private InMemoryRepository repository;
+    private CustomerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryRepository();
+        for (int i = 0; i < 5; i++) {
+            repository.add(customer(i));
+        }
+        cache = new CustomerCache(repository, 3, TTL, now::get);
+    }
+
+    @Test
+    void testSecondReadIsHit() {
+        assertEquals(Optional.of(customer(0)), cache.getOne(email(0)));
+        assertEquals(Optional.of(customer(0)), cache.getOne(email(0)));
+
+        assertEquals(new CacheStats(1, 1, 0, 1), cache.stats());
+        assertEquals(1, repository.reads.get());
+    }
+
+    @Test
+    void testUnknownCustomerIsNotCached() {
+        assertEquals(Optional.empty(), cache.getOne("nobody@test.nl"));
+        repository.add(new CustomerData("No", "Body", LocalDate.of(1990, 1, 1), "nobody@test.nl", "0612345678"));
+
+        assertTrue(cache.getOne("nobody@test.nl").isPresent());
+        assertEquals(0, cache.stats().hits());
+    }
+
+    @Test
+    void testExpiredEntryIsLoadedAgain() {
+        cache.getOne(email(0));
+        now.addAndGet(TTL.toNanos() - 1);
+        cache.getOne(email(0));
+        now.incrementAndGet();
+        cache.getOne(email(0));
+
+        assertEquals(new CacheStats(1, 2, 1, 1), cache.stats());
+    }
+
+    @Test
+    void testLeastRecentlyReadIsEvictedWhenFull() {
+        cache.getOne(email(0));
+        cache.getOne(email(1));
+        cache.getOne(email(2));
+        cache.getOne(email(0));
+        cache.getOne(email(3));
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(3, cache.stats().size());
+        cache.getOne(email(0));
+        assertEquals(2, cache.stats().hits());
+        cache.getOne(email(1));
+        assertEquals(2, cache.stats().hits());
+    }
+
+    @Test
+    void testDeleteInvalidates() {
+        cache.getOne(email(0));
+
+        assertTrue(cache.delete(email(0)));
+        assertEquals(Optional.empty(), cache.getOne(email(0)));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void testAddInvalidates() {
+        cache.getOne(email(0));
+        repository.delete(email(0));
+        CustomerData changed = new CustomerData("Cache", "Tester", LocalDate.of(1990, 1, 1), email(0), "0687654321");
+
+        cache.add(changed);
+
+        assertEquals(Optional.of(changed), cache.getOne(email(0)));
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void testLoadRacingWithDeleteIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        repository.afterRead = () -> {
+            loading.countDown();
+            await(deleted);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The reader has read the customer but not yet cached it when the delete happens.
+            Future<Optional<CustomerData>> read = executor.submit(() -> cache.getOne(email(0)));
+            await(loading);
+            repository.afterRead = () -> { };
+            assertTrue(cache.delete(email(0)));
+            deleted.countDown();
+            read.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Optional.empty(), cache.getOne(email(0)));
+    }
+
+    @Test
+    void testDeletedCustomerIsNeverServedAfterDeleteReturns() throws Exception {
+        int customers = 200;
+        for (int i = 5; i < customers; i++) {
+            repository.add(customer(i));
+        }
+        CustomerCache large = new CustomerCache(repository, 50, TTL, now::get);
+        AtomicInteger stale = new AtomicInteger();
+        Map<String, Boolean> deleted = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 6; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        String email = email((i * 7 + offset) % customers);
+                        boolean wasDeleted = deleted.containsKey(email);
+                        if (large.getOne(email).isPresent() && wasDeleted) {
+                            stale.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < customers; i += 2) {
+                    if (large.delete(email(i))) {
+                        deleted.put(email(i), true);
+                    }
+                }
+            }));
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, stale.get());
+        assertTrue(large.stats().size() <= 50);
+    }
+
+    private static CustomerData customer(int i) {
+        return new CustomerData("Cache", "Tester", LocalDate.of(1990, 1, 1), email(i), "0612345678");
+    }
+
+    private static String email(int i) {
+        return "cache" + i + "@test.nl";
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stores customers in a map. The hook lets a test pause a read after it has read the customer.
+     */
+    private static final class InMemoryRepository implements CustomerRepository {
+        final Map<String, CustomerData> customers = new ConcurrentHashMap<>();
+        final AtomicInteger reads = new AtomicInteger();
+        volatile Runnable afterRead = () -> { };
+
+        @Override
+        public CustomerData add(CustomerData customerData) {
+            customers.put(customerData.email(), customerData);
+            return customerData;
+        }
+
+        @Override
+        public Optional<CustomerData> getOne(String email) {
+            reads.incrementAndGet();
+            Optional<CustomerData> customer = Optional.ofNullable(customers.get(email));
+            afterRead.run();
+            return customer;
+        }
+
+        @Override
+        public boolean delete(String email) {
+            return customers.remove(email) != null;
+        }
+
+        @Override
+        public List<CustomerData> getAll() {
+            return List.copyOf(customers.values());
+        }
+
+        @Override
+        public CustomerPage getPage(String after, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void forEach(Consumer<? super CustomerData> action) {
+            customers.values().forEach(action);
+        }
+
+        @Override
+        public List<CustomerData> searchByName(String term, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<CustomerData> searchByPhone(String digits, int limit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.CustomerData;
+import io.github.fontysvenlo.ais.datarecords.CustomerPage;
+
+/**
+ * Tests lookup, search, paging and streaming of customers, against a database created from init.sql.
+ */
+class CustomerRepositoryImplTest {
+    private static final int ADDED = 25;
+
+    private CustomerRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CustomerRepositoryImpl(TestDatabase.dataSource());
+        for (int i = 0; i < ADDED; i++) {
+            repository.add(new CustomerData("Page", "Tester", LocalDate.of(1990, 1, 1),
+                    String.format("page%02d@test.nl", i), "+31 6 12345678"));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        TestDatabase.execute("DELETE FROM Customer WHERE Email LIKE 'page%@test.nl'");
+    }
+
+    @Test
+    void testPagesCoverAllCustomersInEmailOrder() {
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CustomerPage page = repository.getPage(cursor, 7);
+            assertTrue(page.customers().size() <= 7);
+            page.customers().forEach(customer -> paged.add(customer.email()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        List<String> streamed = new ArrayList<>();
+        repository.forEach(customer -> streamed.add(customer.email()));
+
+        assertEquals(streamed, paged);
+        // Ordered like the database collates, which for these emails is digit order.
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < ADDED; i++) {
+            added.add(String.format("page%02d@test.nl", i));
+        }
+        assertEquals(added, streamed.stream().filter(added::contains).toList());
+        assertEquals((paged.size() + 6) / 7, pages);
+        assertTrue(paged.contains("john.doe@example.com"));
+    }
+
+    @Test
+    void testLastPageHasNoCursor() {
+        CustomerPage page = repository.getPage("page20@test.nl", 4);
+
+        assertEquals(List.of("page21@test.nl", "page22@test.nl", "page23@test.nl", "page24@test.nl"),
+                page.customers().stream().map(CustomerData::email).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testCursorPointsAtLastCustomerOfPage() {
+        CustomerPage page = repository.getPage("page00@test.nl", 3);
+
+        assertEquals("page03@test.nl", page.nextCursor());
+        assertEquals("page04@test.nl", repository.getPage(page.nextCursor(), 1).customers().get(0).email());
+    }
+
+    @Test
+    void testGetAllReturnsWhatForEachReads() {
+        List<CustomerData> streamed = new ArrayList<>();
+        repository.forEach(streamed::add);
+
+        assertEquals(streamed, repository.getAll());
+    }
+
+    @Test
+    void testGetOneByEmail() {
+        assertEquals(Optional.of(new CustomerData("Jane", "Smith", LocalDate.of(1985, 8, 22), "jane.smith@example.com",
+                "+31-987-654-3210")), repository.getOne("jane.smith@example.com"));
+        assertEquals(Optional.empty(), repository.getOne("nobody@example.com"));
+    }
+
+    @Test
+    void testSearchByNamePrefixAndSimilarity() {
+        assertEquals(List.of("jane.smith@example.com"), emails(repository.searchByName("smi", 10)));
+        assertEquals(List.of("jane.smith@example.com"), emails(repository.searchByName("jane", 10)));
+        // A typo still finds the customer through the trigram similarity.
+        assertEquals(List.of("charlie.wilson@example.com"), emails(repository.searchByName("wilsen", 10)));
+    }
+
+    @Test
+    void testSearchByNameRanksPrefixMatchesFirstAndIsBounded() {
+        List<CustomerData> found = repository.searchByName("test", 5);
+
+        assertEquals(5, found.size());
+        assertTrue(found.stream().allMatch(customer -> customer.lastName().equals("Tester")));
+    }
+
+    @Test
+    void testSearchByNameTreatsWildcardsLiterally() {
+        assertTrue(repository.searchByName("%", 10).isEmpty());
+        assertTrue(repository.searchByName("ja_e", 10).isEmpty());
+    }
+
+    @Test
+    void testSearchByPhoneIgnoresSeparators() {
+        assertEquals(List.of("jane.smith@example.com"), emails(repository.searchByPhone("9876543", 10)));
+        List<String> prefix = emails(repository.searchByPhone("31555", 10));
+        assertEquals("bob.jones@example.com", prefix.get(0));
+        assertFalse(prefix.contains("john.doe@example.com"));
+    }
+
+    private static List<String> emails(List<CustomerData> customers) {
+        return customers.stream().map(CustomerData::email).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that DBProvider hands out one connection pool per namespace, also when it is first asked from many threads.
+ */
+class DBProviderTest {
+    private static final int THREADS = 32;
+    // minSize 0, so the pool never opens a connection to this host.
+    private static final DBConfig CONFIG = new DBConfig("dbprovider-test", "localhost", 5432, "ais", "public",
+            "ais", "ais", new PoolConfig(0, 1, 1_000, 60_000, 0, 1));
+
+    @AfterEach
+    void tearDown() {
+        ConnectionPool pool = DBProvider.cache.remove(CONFIG.namespace());
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testConcurrentFirstAccessCreatesOnePool() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<ConnectionPool>> pools = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                pools.add(executor.submit(() -> {
+                    start.await();
+                    return DBProvider.getConnectionPool(CONFIG);
+                }));
+            }
+            start.countDown();
+
+            ConnectionPool first = pools.get(0).get();
+            for (Future<ConnectionPool> pool : pools) {
+                assertSame(first, pool.get());
+            }
+            assertSame(first, DBProvider.getDataSource(CONFIG));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
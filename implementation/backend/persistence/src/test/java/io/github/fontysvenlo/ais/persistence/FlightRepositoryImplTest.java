@@ -0,0 +1,148 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+
+/**
+ * Regression tests for the number of statements a flight search issues.
+ */
+class FlightRepositoryImplTest {
+
+    private static final long DATETIME = Instant.parse("2025-07-01T08:00:00Z").getEpochSecond();
+
+    private DataSource dataSource;
+    private Connection connection;
+    private PreparedStatement pathStatement;
+    private PreparedStatement legStatement;
+    private final AtomicInteger statements = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        pathStatement = mock(PreparedStatement.class);
+        legStatement = mock(PreparedStatement.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            statements.incrementAndGet();
+            String sql = invocation.getArgument(0);
+            return sql.contains("WITH RECURSIVE") ? pathStatement : legStatement;
+        });
+    }
+
+    /**
+     * 200 itineraries of 3 legs used to cost 601 statements; now the legs are fetched in one batch.
+     */
+    @Test
+    void testSearchUsesTwoStatementsRegardlessOfResultSize() throws SQLException {
+        int itineraries = 200;
+        int legsPerItinerary = 3;
+        givenPaths(itineraries, legsPerItinerary);
+        givenLegs(itineraries * legsPerItinerary);
+
+        List<List<FlightData>> result = new FlightRepositoryImpl(dataSource).search("Amsterdam", "London", DATETIME);
+
+        assertEquals(itineraries, result.size());
+        for (int i = 0; i < itineraries; i++) {
+            List<FlightData> path = result.get(i);
+            assertEquals(legsPerItinerary, path.size());
+            for (int leg = 0; leg < legsPerItinerary; leg++) {
+                assertEquals(i * legsPerItinerary + leg + 1, path.get(leg).flightNumber());
+            }
+        }
+        assertEquals(2, statements.get(), "Search should run the path query and one batch leg query");
+        verify(dataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void testSearchWithoutPathsSkipsLegQuery() throws SQLException {
+        givenPaths(0, 0);
+
+        List<List<FlightData>> result = new FlightRepositoryImpl(dataSource).search("Amsterdam", "London", DATETIME);
+
+        assertTrue(result.isEmpty());
+        assertEquals(1, statements.get());
+    }
+
+    @Test
+    void testSearchRulesArePartOfTheQuery() {
+        String unlimited = FlightRepositoryImpl.flightPaths(FlightSearchConfig.defaults());
+        String limited = FlightRepositoryImpl.flightPaths(new FlightSearchConfig(4, 45, 360, 1440));
+
+        assertTrue(unlimited.contains("cardinality(fp.path) < 6"));
+        assertTrue(unlimited.contains("lower(f2.arrival) <> ALL(fp.airports)"));
+        assertFalse(unlimited.contains("f2.departuretime <= "));
+        assertTrue(limited.contains("cardinality(fp.path) < 4"));
+        assertTrue(limited.contains("fp.arrivaltime + INTERVAL '45 minutes'"));
+        assertTrue(limited.contains("f2.departuretime <= fp.arrivaltime + INTERVAL '360 minutes'"));
+        assertTrue(limited.contains("f2.arrivaltime <= fp.first_departure + INTERVAL '1440 minutes'"));
+    }
+
+    @Test
+    void testSearchStopsPathsAtArrival() throws SQLException {
+        givenPaths(0, 0);
+
+        new FlightRepositoryImpl(dataSource).search("Amsterdam", "London", DATETIME);
+
+        verify(pathStatement).setString(1, "amsterdam");
+        verify(pathStatement).setTimestamp(2, Timestamp.from(Instant.parse("2025-07-01T08:00:00Z")));
+        verify(pathStatement).setString(3, "london");
+        verify(pathStatement).setString(4, "london");
+    }
+
+    private void givenPaths(int count, int legsPerPath) throws SQLException {
+        List<Array> arrays = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Integer[] ids = new Integer[legsPerPath];
+            for (int leg = 0; leg < legsPerPath; leg++) {
+                ids[leg] = i * legsPerPath + leg + 1;
+            }
+            Array array = mock(Array.class);
+            when(array.getArray()).thenReturn(ids);
+            arrays.add(array);
+        }
+
+        AtomicInteger row = new AtomicInteger();
+        ResultSet rows = mock(ResultSet.class);
+        when(rows.next()).thenAnswer(invocation -> row.incrementAndGet() <= count);
+        when(rows.getArray("path")).thenAnswer(invocation -> arrays.get(row.get() - 1));
+        when(pathStatement.executeQuery()).thenReturn(rows);
+    }
+
+    private void givenLegs(int count) throws SQLException {
+        AtomicInteger row = new AtomicInteger();
+        ResultSet rows = mock(ResultSet.class);
+        Timestamp time = Timestamp.from(Instant.parse("2025-07-01T10:00:00Z"));
+        when(rows.next()).thenAnswer(invocation -> row.incrementAndGet() <= count);
+        when(rows.getInt("id")).thenAnswer(invocation -> row.get());
+        when(rows.getString(anyString())).thenAnswer(invocation -> invocation.getArgument(0) + "-" + row.get());
+        when(rows.getTimestamp(anyString())).thenReturn(time);
+        when(legStatement.executeQuery()).thenReturn(rows);
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.BookingData;
+
+/**
+ * Tests the booked seat counters from init.sql and SeatCounterReconciler, against a database created from init.sql.
+ */
+class SeatCounterTest {
+
+    private BookingRepositoryImpl repository;
+    private SeatCounterReconciler reconciler;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        TestDatabase.execute("DELETE FROM Booking WHERE FlightID IN (7, 8)");
+        repository = new BookingRepositoryImpl(TestDatabase.dataSource());
+        // Not scheduled, so the deltas are only folded when a test asks for it.
+        reconciler = new SeatCounterReconciler(TestDatabase.dataSource(), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reconciler.close();
+    }
+
+    @Test
+    void testCounterFollowsBookings() throws Exception {
+        assertEquals(0, counter(7));
+
+        BookingData first = repository.createBooking(booking(7, "1A"));
+        repository.createBooking(booking(7, "1B"));
+        assertEquals(2, counter(7));
+        assertEquals(58, repository.getAvailableSeatsCount(7));
+
+        TestDatabase.execute("UPDATE Booking SET FlightID = 8 WHERE ID = " + first.id());
+        assertEquals(1, counter(7));
+        assertEquals(1, counter(8));
+
+        TestDatabase.execute("DELETE FROM Booking WHERE FlightID = 7");
+        assertEquals(0, counter(7));
+        assertEquals(60, repository.getAvailableSeatsCount(7));
+    }
+
+    @Test
+    void testFlightIsFullWhenCounterReachesTotalSeats() throws Exception {
+        TestDatabase.execute("UPDATE flights SET totalSeats = 2 WHERE id = 7");
+        try {
+            repository.createBooking(booking(7, "1A"));
+            assertFalse(repository.isFlightFull(7));
+            repository.createBooking(booking(7, "1B"));
+            assertTrue(repository.isFlightFull(7));
+        } finally {
+            TestDatabase.execute("UPDATE flights SET totalSeats = 60 WHERE id = 7");
+        }
+    }
+
+    @Test
+    void testBookingsOnlyAppendDeltasUntilFolded() throws Exception {
+        reconciler.fold();
+        int folded = stored(7);
+
+        repository.createBooking(booking(7, "1A"));
+        repository.createBooking(booking(7, "1B"));
+        assertEquals(folded, stored(7));
+        assertEquals(2, counter(7));
+
+        assertTrue(reconciler.fold() > 0);
+        assertEquals(folded + 2, stored(7));
+        assertEquals(2, counter(7));
+    }
+
+    @Test
+    void testReconcileRepairsDrift() throws Exception {
+        repository.createBooking(booking(7, "1A"));
+        TestDatabase.execute("UPDATE flight_seat_counters SET booked_seats = 99 WHERE flight_id = 7");
+        TestDatabase.execute("DELETE FROM flight_seat_counters WHERE flight_id = 8");
+
+        List<Integer> repaired = reconciler.reconcile();
+
+        assertTrue(repaired.containsAll(List.of(7, 8)));
+        assertEquals(1, counter(7));
+        assertEquals(0, counter(8));
+        assertTrue(reconciler.reconcile().isEmpty());
+    }
+
+    private static BookingData booking(int flightId, String seat) {
+        return new BookingData(null, flightId, new BigDecimal("150.00"), false, false, "Economy",
+                seat, "john.doe@example.com", "John Doe", true);
+    }
+
+    /**
+     * The booked seats of a flight: its counter plus the deltas that were not folded yet.
+     */
+    private static int counter(int flightId) throws SQLException {
+        return query("SELECT booked_seat_count(?)", flightId);
+    }
+
+    /**
+     * The counter row itself, without the pending deltas.
+     */
+    private static int stored(int flightId) throws SQLException {
+        return query("SELECT booked_seats FROM flight_seat_counters WHERE flight_id = ?", flightId);
+    }
+
+    private static int query(String sql, int flightId) throws SQLException {
+        try (Connection connection = TestDatabase.dataSource().getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, flightId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.MountableFile;
+
+/**
+ * A PostgreSQL container created from init.sql, shared by the tests that need a real database.
+ * It is started on first use and stopped when the JVM exits.
+ */
+final class TestDatabase {
+    private static PostgreSQLContainer<?> postgres;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * A DataSource that opens unpooled connections to the test database.
+     * @return the DataSource
+     */
+    static synchronized PGSimpleDataSource dataSource() {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("test")
+                    .withUsername("test")
+                    .withPassword("test")
+                    .withCopyFileToContainer(MountableFile.forHostPath("../../../init.sql"), "/docker-entrypoint-initdb.d/init.sql");
+            postgres.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(postgres::stop));
+        }
+        PGSimpleDataSource source = new PGSimpleDataSource();
+        source.setUrl(postgres.getJdbcUrl());
+        source.setUser(postgres.getUsername());
+        source.setPassword(postgres.getPassword());
+        return source;
+    }
+
+    static void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource().getConnection(); Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
+
+/**
+ * Tests that TimetableCache follows changes to the flights table, against a database created from init.sql.
+ */
+class TimetableCacheTest {
+
+    private TimetableCache timetable;
+
+    @BeforeEach
+    void setUp() {
+        timetable = new TimetableCache(TestDatabase.dataSource());
+    }
+
+    @AfterEach
+    void tearDown() {
+        timetable.close();
+    }
+
+    @Test
+    void testTimetableIsLoadedAtStartup() {
+        assertEquals(15, timetable.current().size());
+    }
+
+    @Test
+    void testInsertUpdateAndDeleteAreApplied() throws Exception {
+        long version = timetable.current().version();
+        TestDatabase.execute("INSERT INTO flights (id, departure, arrival, departuretime, arrivaltime) "
+                + "VALUES (100, 'Oslo', 'Rome', '2025-08-01 10:00', '2025-08-01 13:00')");
+        awaitVersionAfter(version);
+        assertEquals(16, timetable.current().size());
+        assertEquals(List.of(List.of(new FlightData(100, "Oslo", "Rome", "2025-08-01T10:00:00", "2025-08-01T13:00:00"))),
+                timetable.current().search("Oslo", "Rome", 0));
+
+        version = timetable.current().version();
+        TestDatabase.execute("UPDATE flights SET departure = 'Bergen' WHERE id = 100");
+        awaitVersionAfter(version);
+        assertTrue(timetable.current().search("Oslo", "Rome", 0).isEmpty());
+        assertEquals(1, timetable.current().search("Bergen", "Rome", 0).size());
+
+        version = timetable.current().version();
+        TestDatabase.execute("DELETE FROM flights WHERE id = 100");
+        awaitVersionAfter(version);
+        assertEquals(15, timetable.current().size());
+        assertTrue(timetable.current().search("Bergen", "Rome", 0).isEmpty());
+    }
+
+    @Test
+    void testMixedCaseSearchFindsTheSameItinerariesInDatabaseAndTimetable() {
+        FlightRepositoryImpl database = new FlightRepositoryImpl(TestDatabase.dataSource());
+        FlightRepositoryImpl memory = new FlightRepositoryImpl(TestDatabase.dataSource(), timetable);
+        long departAfter = FlightData.toEpochSecond("2025-06-01T00:00:00");
+        Set<List<FlightData>> expected = Set.copyOf(database.search("Amsterdam", "London", departAfter));
+        assertFalse(expected.isEmpty());
+
+        for (String[] query : new String[][] {{"amsterdam", "LONDON"}, {" AmStErDaM ", "london"}}) {
+            assertEquals(expected, Set.copyOf(database.search(query[0], query[1], departAfter)));
+            assertEquals(expected, Set.copyOf(memory.search(query[0], query[1], departAfter)));
+            List<List<FlightData>> streamed = new ArrayList<>();
+            memory.search(query[0], query[1], departAfter, streamed::add);
+            assertEquals(expected, Set.copyOf(streamed));
+            assertEquals(expected.size(), memory.search(query[0], query[1], departAfter, ItineraryRanking.EARLIEST_ARRIVAL, 100).size());
+        }
+    }
+
+    private void awaitVersionAfter(long version) throws InterruptedException {
+        await(() -> timetable.current().version() > version);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the timetable to change");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package io.github.fontysvenlo.ais.persistence;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
+
+/**
+ * Tests for TimetableSnapshot, on a part of the seed data from init.sql.
+ */
+class TimetableSnapshotTest {
+
+    private static final FlightData AMS_LHR = new FlightData(1, "Amsterdam", "London", "2025-06-01T08:00:00", "2025-06-01T09:30:00");
+    private static final FlightData AMS_LHR_LATE = new FlightData(4, "Amsterdam", "London", "2025-07-03T16:00:00", "2025-07-03T17:30:00");
+    private static final FlightData AMS_CDG = new FlightData(11, "Amsterdam", "Paris", "2025-06-01T10:00:00", "2025-06-01T11:15:00");
+    private static final FlightData CDG_LHR = new FlightData(12, "Paris", "London", "2025-06-01T13:00:00", "2025-06-01T14:15:00");
+    private static final FlightData LHR_AMS = new FlightData(3, "London", "Amsterdam", "2025-07-01T14:00:00", "2025-07-01T15:15:00");
+
+    private final TimetableSnapshot snapshot = TimetableSnapshot.of(0, List.of(AMS_LHR_LATE, CDG_LHR, AMS_LHR, AMS_CDG));
+
+    @Test
+    void testSearchFindsDirectAndTransferFlights() {
+        List<List<FlightData>> itineraries = snapshot.search("Amsterdam", "London", epoch("2025-06-01T00:00:00"));
+
+        assertEquals(3, itineraries.size());
+        assertTrue(itineraries.contains(List.of(AMS_LHR)));
+        assertTrue(itineraries.contains(List.of(AMS_LHR_LATE)));
+        assertTrue(itineraries.contains(List.of(AMS_CDG, CDG_LHR)));
+    }
+
+    @Test
+    void testSearchSkipsEarlierDepartures() {
+        List<List<FlightData>> itineraries = snapshot.search("Amsterdam", "London", epoch("2025-06-01T09:00:00"));
+
+        assertEquals(List.of(List.of(AMS_CDG, CDG_LHR), List.of(AMS_LHR_LATE)), itineraries);
+    }
+
+    @Test
+    void testSearchDoesNotRevisitAirports() {
+        TimetableSnapshot withReturn = TimetableSnapshot.of(0, List.of(AMS_LHR, LHR_AMS, AMS_LHR_LATE));
+
+        List<List<FlightData>> itineraries = withReturn.search("Amsterdam", "London", epoch("2025-06-01T00:00:00"));
+
+        assertEquals(List.of(List.of(AMS_LHR), List.of(AMS_LHR_LATE)), itineraries);
+    }
+
+    @Test
+    void testSearchKeepsConnectionsWithinWindow() {
+        // Flight 11 arrives in Paris at 11:15, flight 12 departs at 13:00: a 105 minute connection.
+        long start = epoch("2025-06-01T09:00:00");
+
+        assertEquals(List.of(List.of(AMS_LHR_LATE)), snapshot.search("Amsterdam", "London", start, new FlightSearchConfig(6, 120, 0, 0)));
+        assertEquals(List.of(List.of(AMS_LHR_LATE)), snapshot.search("Amsterdam", "London", start, new FlightSearchConfig(6, 0, 90, 0)));
+        assertEquals(List.of(List.of(AMS_CDG, CDG_LHR), List.of(AMS_LHR_LATE)),
+                snapshot.search("Amsterdam", "London", start, new FlightSearchConfig(6, 90, 120, 0)));
+    }
+
+    @Test
+    void testSearchBoundsTripDuration() {
+        // Amsterdam 10:00 to London 14:15 via Paris takes 255 minutes.
+        List<List<FlightData>> itineraries = snapshot.search("Amsterdam", "London", epoch("2025-06-01T00:00:00"),
+                new FlightSearchConfig(6, 0, 0, 240));
+
+        assertEquals(List.of(List.of(AMS_LHR), List.of(AMS_LHR_LATE)), itineraries);
+    }
+
+    @Test
+    void testFlightsAreOrderedByDeparture() {
+        assertEquals(List.of(AMS_LHR, AMS_CDG, CDG_LHR, AMS_LHR_LATE), snapshot.flights());
+    }
+
+    @Test
+    void testApplyCreatesNewVersionAndLeavesOldSnapshotUnchanged() {
+        FlightData moved = new FlightData(12, "Berlin", "London", "2025-06-01T13:00:00", "2025-06-01T14:15:00");
+        FlightData added = new FlightData(16, "Paris", "London", "2025-06-01T18:00:00", "2025-06-01T19:15:00");
+
+        TimetableSnapshot next = snapshot.apply(List.of(moved, added), List.of(4), Map.of(12, "Paris", 4, "Amsterdam"));
+
+        assertEquals(1, next.version());
+        assertEquals(4, next.size());
+        assertEquals(List.of(AMS_LHR, moved, added), next.flights().stream().filter(f -> !f.equals(AMS_CDG)).toList());
+        assertEquals(List.of(List.of(AMS_LHR), List.of(AMS_CDG, added)), next.search("Amsterdam", "London", epoch("2025-06-01T00:00:00")));
+
+        assertEquals(0, snapshot.version());
+        assertEquals(List.of(AMS_LHR, AMS_CDG, CDG_LHR, AMS_LHR_LATE), snapshot.flights());
+    }
+
+    @Test
+    void testApplyWithoutPreviousAirportDoesNotDuplicateFlight() {
+        FlightData delayed = new FlightData(1, "Amsterdam", "London", "2025-06-01T09:00:00", "2025-06-01T10:30:00");
+
+        TimetableSnapshot next = snapshot.apply(List.of(delayed), List.of(), Map.of());
+
+        assertEquals(4, next.size());
+        assertEquals(List.of(delayed, AMS_CDG, CDG_LHR, AMS_LHR_LATE), next.flights());
+    }
+
+    @Test
+    void testAirportCodesAreStoredOnce() {
+        TimetableSnapshot.Builder builder = new TimetableSnapshot.Builder();
+        builder.add(1, new String("Amsterdam"), new String("London"), epoch("2025-06-01T08:00:00"), epoch("2025-06-01T09:30:00"));
+        builder.add(2, new String("Amsterdam"), new String("Paris"), epoch("2025-06-01T10:00:00"), epoch("2025-06-01T11:15:00"));
+
+        List<FlightData> flights = builder.build(0).flights();
+
+        assertSame(flights.get(0).flightDeparture(), flights.get(1).flightDeparture());
+    }
+
+    @Test
+    void testBuilderSortsFlightsAddedOutOfOrder() {
+        TimetableSnapshot.Builder builder = new TimetableSnapshot.Builder();
+        for (FlightData flight : List.of(AMS_LHR_LATE, CDG_LHR, AMS_CDG, AMS_LHR)) {
+            builder.add(flight.flightNumber(), flight.flightDeparture(), flight.flightDestination(),
+                    flight.departureEpochSecond(), flight.arrivalEpochSecond());
+        }
+
+        TimetableSnapshot built = builder.build(3);
+
+        assertEquals(3, built.version());
+        assertEquals(snapshot.flights(), built.flights());
+        assertEquals(snapshot.search("Amsterdam", "London", epoch("2025-06-01T00:00:00")),
+                built.search("Amsterdam", "London", epoch("2025-06-01T00:00:00")));
+    }
+
+    @Test
+    void testApplyAddsNewAirports() {
+        FlightData toRome = new FlightData(20, "London", "Rome", "2025-06-01T16:00:00", "2025-06-01T19:00:00");
+
+        TimetableSnapshot next = snapshot.apply(List.of(toRome), List.of(), Map.of());
+
+        assertEquals(List.of(List.of(AMS_LHR, toRome), List.of(AMS_CDG, CDG_LHR, toRome)),
+                next.search("Amsterdam", "Rome", epoch("2025-06-01T00:00:00")));
+        assertTrue(snapshot.search("Amsterdam", "Rome", epoch("2025-06-01T00:00:00")).isEmpty());
+    }
+
+    @Test
+    void testSearchForUnknownAirportFindsNothing() {
+        assertTrue(snapshot.search("Amsterdam", "Atlantis", epoch("2025-06-01T00:00:00")).isEmpty());
+        assertTrue(snapshot.search("Atlantis", "London", epoch("2025-06-01T00:00:00")).isEmpty());
+    }
+
+    @Test
+    void testAirportsDifferingInCaseAreOneAirport() {
+        FlightData lowerCaseLeg = new FlightData(12, "paris", "LONDON", "2025-06-01T13:00:00", "2025-06-01T14:15:00");
+        TimetableSnapshot mixed = TimetableSnapshot.of(0, List.of(AMS_CDG, lowerCaseLeg));
+
+        // An airport keeps the code it was first seen with.
+        assertEquals(List.of(List.of(AMS_CDG, new FlightData(12, "Paris", "LONDON", "2025-06-01T13:00:00", "2025-06-01T14:15:00"))),
+                mixed.search(" AMSTERDAM", "london ", epoch("2025-06-01T00:00:00")));
+    }
+
+    @Test
+    void testMatchesReferenceSearchOnRandomTimetable() {
+        TimetableSnapshot random = randomTimetable(8, 300, 3);
+        List<FlightData> flights = random.flights();
+        FlightSearchConfig[] configs = {
+            new FlightSearchConfig(3, 0, 0, 0), new FlightSearchConfig(4, 60, 0, 0), new FlightSearchConfig(4, 0, 6 * 60, 0),
+            new FlightSearchConfig(5, 30, 7 * 60, 16 * 60)
+        };
+        for (FlightSearchConfig config : configs) {
+            for (int from = 0; from < 8; from++) {
+                for (int to = 0; to < 8; to++) {
+                    if (from == to) {
+                        continue;
+                    }
+                    long start = epoch("2025-06-01T00:00:00") + from * 3_600L;
+                    List<List<FlightData>> expected = referenceSearch(flights, "a" + from, "A" + to, start, config);
+
+                    List<List<FlightData>> actual = random.search("a" + from, "A" + to, start, config);
+
+                    assertEquals(sorted(expected), sorted(actual), config + ": A" + from + " -> A" + to);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testStreamingSearchPassesTheSameItinerariesInOrder() {
+        List<List<FlightData>> passed = new ArrayList<>();
+
+        snapshot.search("Amsterdam", "London", epoch("2025-06-01T00:00:00"), FlightSearchConfig.defaults(), passed::add);
+
+        assertEquals(snapshot.search("Amsterdam", "London", epoch("2025-06-01T00:00:00")), passed);
+    }
+
+    @Test
+    void testRankedSearchOrdersByRanking() {
+        List<List<FlightData>> fewestLegs = snapshot.search("Amsterdam", "London", epoch("2025-06-01T00:00:00"),
+                FlightSearchConfig.defaults(), ItineraryRanking.FEWEST_LEGS, 2);
+        List<List<FlightData>> earliestArrival = snapshot.search("Amsterdam", "London", epoch("2025-06-01T00:00:00"),
+                FlightSearchConfig.defaults(), ItineraryRanking.EARLIEST_ARRIVAL, 2);
+
+        assertEquals(List.of(List.of(AMS_LHR), List.of(AMS_LHR_LATE)), fewestLegs);
+        assertEquals(List.of(List.of(AMS_LHR), List.of(AMS_CDG, CDG_LHR)), earliestArrival);
+    }
+
+    @Test
+    void testRankedSearchReturnsBestOfFullSearch() {
+        TimetableSnapshot random = randomTimetable(12, 600, 3);
+        long start = epoch("2025-06-01T00:00:00");
+        FlightSearchConfig[] configs = {
+            new FlightSearchConfig(3, 0, 0, 0), new FlightSearchConfig(4, 30, 240, 0), new FlightSearchConfig(5, 30, 0, 24 * 60),
+            new FlightSearchConfig(6, 0, 120, 12 * 60)
+        };
+        for (FlightSearchConfig config : configs) {
+            for (ItineraryRanking ranking : ItineraryRanking.values()) {
+                for (int limit : new int[] {1, 5, 100_000}) {
+                    for (int from = 0; from < 4; from++) {
+                        String departure = "A" + from;
+                        String arrival = "A" + (from + 5);
+                        List<List<FlightData>> expected = random.search(departure, arrival, start, config)
+                                .stream().sorted(ranking.comparator()).limit(limit).toList();
+
+                        List<List<FlightData>> actual = random.search(departure, arrival, start, config, ranking, limit);
+
+                        assertEquals(expected, actual, config + " " + ranking + " " + limit + ": " + departure + " -> " + arrival);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRankedSearchWithFlightsDepartingAtTheSameMoment() {
+        // Without a minimum connection time, a flight can connect to one that departs when it does.
+        FlightData toParis = new FlightData(21, "Amsterdam", "Paris", epoch("2025-06-01T10:00:00"), epoch("2025-06-01T10:00:00"));
+        FlightData toLondon = new FlightData(22, "Paris", "London", epoch("2025-06-01T10:00:00"), epoch("2025-06-01T11:00:00"));
+        FlightData direct = new FlightData(23, "Amsterdam", "London", epoch("2025-06-01T09:00:00"), epoch("2025-06-01T12:00:00"));
+        TimetableSnapshot sameMoment = TimetableSnapshot.of(0, List.of(toParis, toLondon, direct));
+
+        assertEquals(List.of(List.of(toParis, toLondon)), sameMoment.search("Amsterdam", "London", epoch("2025-06-01T00:00:00"),
+                new FlightSearchConfig(6, 0, 0, 0), ItineraryRanking.EARLIEST_ARRIVAL, 1));
+    }
+
+    @Test
+    void testRankedSearchForUnknownAirportFindsNothing() {
+        assertTrue(snapshot.search("Amsterdam", "Atlantis", 0, FlightSearchConfig.defaults(), ItineraryRanking.EARLIEST_ARRIVAL, 3)
+                .isEmpty());
+    }
+
+    private static long epoch(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(ZoneId.of("Europe/Amsterdam")).toEpochSecond();
+    }
+
+    /**
+     * A timetable with flights between numbered airports at random whole minutes, the same for every run.
+     */
+    private static TimetableSnapshot randomTimetable(int airports, int flights, int days) {
+        Random random = new Random(7);
+        long start = epoch("2025-06-01T00:00:00");
+        TimetableSnapshot.Builder builder = new TimetableSnapshot.Builder();
+        for (int id = 1; id <= flights; id++) {
+            int from = random.nextInt(airports);
+            int to = (from + 1 + random.nextInt(airports - 1)) % airports;
+            long departure = start + random.nextInt(days * 24 * 60) * 60L;
+            builder.add(id, "A" + from, "A" + to, departure, departure + (30 + random.nextInt(240)) * 60L);
+        }
+        return builder.build(0);
+    }
+
+    /**
+     * The rules of the recursive CTE in FlightRepositoryImpl, applied to every path of flights one by one.
+     */
+    private static List<List<FlightData>> referenceSearch(List<FlightData> flights, String from, String to, long departAfter,
+            FlightSearchConfig config) {
+        List<List<FlightData>> result = new ArrayList<>();
+        for (FlightData flight : flights) {
+            if (flight.flightDeparture().equalsIgnoreCase(from) && flight.departureEpochSecond() >= departAfter) {
+                List<FlightData> path = new ArrayList<>();
+                path.add(flight);
+                walk(flights, path, to, config, result);
+            }
+        }
+        return result;
+    }
+
+    private static void walk(List<FlightData> flights, List<FlightData> path, String to, FlightSearchConfig config,
+            List<List<FlightData>> result) {
+        FlightData first = path.get(0);
+        FlightData last = path.get(path.size() - 1);
+        for (FlightData flight : path) {
+            if (flight.flightDeparture().equalsIgnoreCase(last.flightDestination())) {
+                return;
+            }
+        }
+        if (config.maxTripMinutes() > 0 && last.arrivalEpochSecond() - first.departureEpochSecond() > config.maxTripMinutes() * 60L) {
+            return;
+        }
+        if (last.flightDestination().equalsIgnoreCase(to)) {
+            result.add(List.copyOf(path));
+            return;
+        }
+        if (path.size() >= config.maxLegs()) {
+            return;
+        }
+        for (FlightData next : flights) {
+            if (next.flightDeparture().equalsIgnoreCase(last.flightDestination())
+                    && next.departureEpochSecond() >= last.arrivalEpochSecond() + config.minConnectionMinutes() * 60L
+                    && next.departureEpochSecond() >= last.departureEpochSecond()
+                    && (config.maxConnectionMinutes() == 0
+                            || next.departureEpochSecond() <= last.arrivalEpochSecond() + config.maxConnectionMinutes() * 60L)) {
+                path.add(next);
+                walk(flights, path, to, config, result);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    private static List<String> sorted(List<List<FlightData>> itineraries) {
+        return itineraries.stream().map(itinerary -> itinerary.stream().map(FlightData::flightNumber).toList().toString())
+                .sorted().toList();
+    }
+}
@@ -14,7 +14,10 @@ import io.github.fontysvenlo.ais.exceptions.PersistenceException;
 import io.github.fontysvenlo.ais.exceptions.PhoneException;
 import io.github.fontysvenlo.ais.exceptions.RetrievalFailedException;
 import io.github.fontysvenlo.ais.exceptions.TooOldBirthDateException;
+import io.github.fontysvenlo.ais.metrics.MetricRegistry;
 import io.javalin.Javalin;
+import static io.javalin.apibuilder.ApiBuilder.after;
+import static io.javalin.apibuilder.ApiBuilder.before;
 import static io.javalin.apibuilder.ApiBuilder.crud;
 import static io.javalin.apibuilder.ApiBuilder.get;
 import static io.javalin.apibuilder.ApiBuilder.post;
@@ -25,16 +28,29 @@ import static io.javalin.apibuilder.ApiBuilder.post;
  */
 public class APIServer {
 
-    private final BusinessLogic businessLogic;
+    // The routes that use the database; only these wait for a permit of the concurrency limiter.
+    private static final String[] DATABASE_ROUTES = {
+        "customers", "customers/{customer-email}", "bookings", "bookings/batch",
+        "flights/{flightId}/capacity", "flights/{flightId}/is-full", "flights/{flightId}/available-seats",
+        "flights/{flightId}/booked-seats", "flights/{flightId}/suggest-seat"
+    };
+
+    private final CustomerResource customerResource;
+    private final FlightResource flightResource;
+    private final BookingResource bookingResource;
+    private final MetricRegistry metrics = MetricRegistry.global();
+    private Javalin app;
 
     /**
-     * Initializes the REST API server
+     * Initializes the REST API server. The resources are created once and shared by all requests.
      *
      * @param businessLogic the business logic implementation to communicate
      *                      with
      */
     public APIServer(BusinessLogic businessLogic) {
-        this.businessLogic = businessLogic;
+        this.customerResource = new CustomerResource(businessLogic.getCustomerManager());
+        this.flightResource = new FlightResource(businessLogic.getFlightManager());
+        this.bookingResource = new BookingResource(businessLogic.getBookingManager());
     }
 
     /**
@@ -43,29 +59,54 @@ public class APIServer {
      * @param configuration the configuration of the server
      */
     public void start(ServerConfig configuration) {
-        var app = Javalin.create(config -> {
+        ConcurrencyLimiter limiter = configuration.maxConcurrentRequests() > 0
+                ? new ConcurrencyLimiter(configuration.maxConcurrentRequests(), configuration.queueTimeoutMillis())
+                : null;
+        if (limiter != null) {
+            metrics.gauge("ais_http_requests_in_progress", "Database-backed requests being handled now.", limiter::inUse);
+            metrics.gauge("ais_http_requests_waiting", "Database-backed requests waiting for their turn.", limiter::waiting);
+        }
+        RequestMetrics requestMetrics = new RequestMetrics(metrics);
+        RequestLog requestLog = new RequestLog(configuration.requestLogSampleRate());
+        app = Javalin.create(config -> {
+            config.useVirtualThreads = configuration.threadMode() == ServerConfig.ThreadMode.VIRTUAL;
             config.router.contextPath = "/api/v1";
+            config.requestLogger.http((ctx, executionTimeMs) -> {
+                requestMetrics.record(ctx, executionTimeMs);
+                requestLog.log(ctx, executionTimeMs);
+            });
             config.bundledPlugins.enableCors(cors -> {
                 cors.addRule(it -> {
                     it.allowHost("http://localhost:" + configuration.cors(), "127.0.0.1:" + configuration.cors());
                 });
             });
             config.router.apiBuilder(() -> {
+                if (limiter != null) {
+                    for (String route : DATABASE_ROUTES) {
+                        before(route, limiter::acquire);
+                        after(route, limiter::release);
+                    }
+                }
+
                 // Customer endpoints
-                crud("customers/{customer-email}", new CustomerResource(businessLogic.getCustomerManager()));
+                crud("customers/{customer-email}", customerResource);
                 
                 // Flight search endpoints
-                get("flights/search", ctx -> new FlightResource(businessLogic.getFlightManager()).search(ctx)); 
+                get("flights/search", flightResource::search); 
                 
                 // Booking endpoints
-                post("bookings", ctx -> new BookingResource(businessLogic.getBookingManager()).create(ctx));
+                post("bookings", bookingResource::create);
+                post("bookings/batch", bookingResource::createBatch);
                 
                 // Flight capacity endpoints
-                get("flights/{flightId}/capacity", ctx -> new BookingResource(businessLogic.getBookingManager()).getFlightCapacity(ctx));
-                get("flights/{flightId}/is-full", ctx -> new BookingResource(businessLogic.getBookingManager()).isFlightFull(ctx));
-                get("flights/{flightId}/available-seats", ctx -> new BookingResource(businessLogic.getBookingManager()).getAvailableSeatsCount(ctx));
-                get("flights/{flightId}/booked-seats", ctx -> new BookingResource(businessLogic.getBookingManager()).getBookedSeats(ctx));
-                get("flights/{flightId}/suggest-seat", ctx -> new BookingResource(businessLogic.getBookingManager()).suggestNextSeat(ctx));
+                get("flights/{flightId}/capacity", bookingResource::getFlightCapacity);
+                get("flights/{flightId}/is-full", bookingResource::isFlightFull);
+                get("flights/{flightId}/available-seats", bookingResource::getAvailableSeatsCount);
+                get("flights/{flightId}/booked-seats", bookingResource::getBookedSeats);
+                get("flights/{flightId}/suggest-seat", bookingResource::suggestNextSeat);
+
+                // Metrics in the Prometheus text format
+                get("metrics", ctx -> ctx.contentType("text/plain; version=0.0.4; charset=utf-8").result(metrics.scrape()));
             });
         });
 
@@ -164,6 +205,15 @@ app.exception(RetrievalFailedException.class, (e, ctx) -> {
 
         app.start(configuration.port());
     }
+
+    /**
+     * Stops the REST API server, if it was started.
+     */
+    public void stop() {
+        if (app != null) {
+            app.stop();
+        }
+    }
 }
 
 
@@ -1,11 +1,15 @@
 package io.github.fontysvenlo.ais.restapi;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import io.github.fontysvenlo.ais.businesslogic.api.BookingManager;
 import io.github.fontysvenlo.ais.datarecords.BookingData;
+import io.github.fontysvenlo.ais.datarecords.BookingResult;
 import io.github.fontysvenlo.ais.datarecords.FlightCapacityData;
 import io.github.fontysvenlo.ais.exceptions.InvalidBookingDataException;
+import io.github.fontysvenlo.ais.persistence.api.FlightNotFoundException;
 import io.github.fontysvenlo.ais.persistence.api.SeatNotAvailableException;
 import io.javalin.http.Context;
 
@@ -28,6 +32,29 @@ public class BookingResource {
         }
     }
 
+    /**
+     * Books a list of seats all or nothing. Responds 201 when everything is booked, otherwise
+     * 400 (invalid data) or 409 (seat taken), always with the result per booking.
+     * @param ctx the request context, with a JSON array of bookings as body
+     */
+    public void createBatch(Context ctx) {
+        List<BookingData> bookings = Arrays.asList(ctx.bodyAsClass(BookingData[].class));
+        try {
+            List<BookingResult> results = bookingManager.createBookings(bookings);
+            int status = 201;
+            for (BookingResult result : results) {
+                if (result.status() == BookingResult.Status.INVALID) {
+                    status = 400;
+                } else if (result.status() == BookingResult.Status.SEAT_TAKEN && status != 400) {
+                    status = 409;
+                }
+            }
+            ctx.status(status).json(results);
+        } catch (InvalidBookingDataException e) {
+            ctx.status(400).json(Map.of("message", e.getMessage()));
+        }
+    }
+
     public void getFlightCapacity(Context ctx) {
         try {
             int flightId = Integer.parseInt(ctx.pathParam("flightId"));
@@ -47,6 +74,8 @@ public class BookingResource {
             ctx.json(Map.of("flightId", flightId, "isFull", isFull));
         } catch (NumberFormatException e) {
             ctx.status(400).json(Map.of("message", "Invalid flight ID"));
+        } catch (FlightNotFoundException e) {
+            ctx.status(404).json(Map.of("message", e.getMessage()));
         } catch (SeatNotAvailableException e) {
             ctx.status(500).json(Map.of("message", e.getMessage()));
         }
@@ -59,6 +88,8 @@ public class BookingResource {
             ctx.json(Map.of("flightId", flightId, "availableSeats", availableSeats));
         } catch (NumberFormatException e) {
             ctx.status(400).json(Map.of("message", "Invalid flight ID"));
+        } catch (FlightNotFoundException e) {
+            ctx.status(404).json(Map.of("message", e.getMessage()));
         } catch (SeatNotAvailableException e) {
             ctx.status(500).json(Map.of("message", e.getMessage()));
         }
@@ -71,6 +102,8 @@ public class BookingResource {
             ctx.json(Map.of("flightId", flightId, "bookedSeats", bookedSeats));
         } catch (NumberFormatException e) {
             ctx.status(400).json(Map.of("message", "Invalid flight ID"));
+        } catch (FlightNotFoundException e) {
+            ctx.status(404).json(Map.of("message", e.getMessage()));
         } catch (SeatNotAvailableException e) {
             ctx.status(500).json(Map.of("message", e.getMessage()));
         }
@@ -87,6 +120,8 @@ public class BookingResource {
             }
         } catch (NumberFormatException e) {
             ctx.status(400).json(Map.of("message", "Invalid flight ID"));
+        } catch (FlightNotFoundException e) {
+            ctx.status(404).json(Map.of("message", e.getMessage()));
         } catch (SeatNotAvailableException e) {
             ctx.status(500).json(Map.of("message", e.getMessage()));
         }
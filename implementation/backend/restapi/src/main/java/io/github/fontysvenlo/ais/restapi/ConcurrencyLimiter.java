@@ -0,0 +1,77 @@
+package io.github.fontysvenlo.ais.restapi;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.javalin.http.Context;
+import io.javalin.http.ServiceUnavailableResponse;
+
+/**
+ * Limits the number of database-backed requests that are handled at the same time. The in-memory flight search
+ * and the metrics endpoint do not take a permit, so they stay available while the database routes are queued.
+ * With virtual threads there is no thread pool that bounds the number of handlers, so without a limit a burst of
+ * requests would all queue inside the connection pool and time out there. Requests now wait here, in arrival order,
+ * and are answered with 503 when they cannot start within the queue timeout.
+ */
+final class ConcurrencyLimiter {
+    private static final String PERMIT = ConcurrencyLimiter.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final int limit;
+    private final long queueTimeoutMillis;
+
+    /**
+     * Constructor
+     * @param limit the maximum number of requests that are handled at the same time
+     * @param queueTimeoutMillis how long a request may wait for its turn
+     */
+    ConcurrencyLimiter(int limit, long queueTimeoutMillis) {
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    /**
+     * Before-handler: waits for a permit.
+     * @param ctx the request context
+     * @throws InterruptedException if the request thread is interrupted while waiting
+     */
+    void acquire(Context ctx) throws InterruptedException {
+        if (!permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new ServiceUnavailableResponse("Server is busy, please try again later");
+        }
+        ctx.attribute(PERMIT, Boolean.TRUE);
+    }
+
+    /**
+     * After-handler: returns the permit of the request, if it got one. After-handlers also run when the request
+     * failed, so every permit is returned exactly once.
+     * @param ctx the request context
+     */
+    void release(Context ctx) {
+        if (ctx.attribute(PERMIT) != null) {
+            ctx.attribute(PERMIT, null);
+            permits.release();
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Number of requests that are being handled now.
+     * @return the number of requests in progress
+     */
+    int inUse() {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * Number of requests waiting for their turn.
+     * @return the number of waiting requests
+     */
+    int waiting() {
+        return permits.getQueueLength();
+    }
+}
@@ -1,10 +1,15 @@
 package io.github.fontysvenlo.ais.restapi;
 
 import io.javalin.http.Context;
+import io.javalin.json.JsonMapper;
 import io.javalin.apibuilder.CrudHandler;
 
 import io.github.fontysvenlo.ais.datarecords.CustomerData;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import io.github.fontysvenlo.ais.businesslogic.api.CustomerManager;
@@ -13,6 +18,8 @@ import io.github.fontysvenlo.ais.businesslogic.api.CustomerManager;
  * This class is responsible for handling the requests for the customer resource.
  */
 class CustomerResource implements CrudHandler {
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+
     final private CustomerManager customerManager;
 
     /**
@@ -43,13 +50,54 @@ class CustomerResource implements CrudHandler {
 
 
     /**
-     * Retrieves all customers from the storage.
-     * - The status is set to 200 (OK) and the list of customers is returned as JSON.
+     * Retrieves customers from the storage.
+     * - With a 'q' query parameter, the customers whose name or phone number matches are returned as a JSON array,
+     *   best matches first, at most 'limit' of them (default {@value #DEFAULT_SEARCH_LIMIT}).
+     * - With a 'limit' query parameter, one page ordered by email, one page is returned as JSON: {"customers": [...], "nextCursor": ...}.
+     *   The nextCursor is passed as 'after' to get the next page, and is null on the last page.
+     * - Without either, all customers are returned as a JSON array that is written while the customers are read,
+     *   so the server never holds the whole table in memory. If reading fails halfway, the array is cut off,
+     *   which clients see as invalid JSON.
+     * - The status is set to 200 (OK), or 400 (Bad Request) when the limit is not a number or out of range,
+     *   or the search query is not usable.
      */
     @Override
     public void getAll(Context context) {
+        String query = context.queryParam("q");
+        String limit = context.queryParam("limit");
+        if (query != null) {
+            context.status(200);
+            context.json(customerManager.search(query, limit == null ? DEFAULT_SEARCH_LIMIT : parseLimit(limit)));
+            return;
+        }
+        if (limit != null) {
+            context.status(200);
+            context.json(customerManager.list(context.queryParam("after"), parseLimit(limit)));
+            return;
+        }
+
         context.status(200);
-        context.json(customerManager.list());
+        context.contentType("application/json");
+        JsonMapper mapper = context.jsonMapper();
+        OutputStream out = context.outputStream();
+        try {
+            out.write('[');
+            boolean[] first = {true};
+            customerManager.forEach(customer -> {
+                try {
+                    if (!first[0]) {
+                        out.write(',');
+                    }
+                    first[0] = false;
+                    out.write(mapper.toJsonString(customer, CustomerData.class).getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.write(']');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 
@@ -74,9 +122,27 @@ public void delete(Context context, String email) {
 }
 
 
+    private static int parseLimit(String limit) {
+        try {
+            return Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Limit must be a number");
+        }
+    }
+
+    /**
+     * Retrieves one customer by email.
+     * - If the customer exists, the status is set to 200 (OK) and the customer is returned as JSON.
+     * - If the customer is not found, the status is set to 404 (Not Found) and an error message is returned.
+     */
     @Override
     public void getOne(Context context, String email) {
-        throw new UnsupportedOperationException("Not implemented yet");
+        customerManager.get(email).ifPresentOrElse(
+            customer -> context.status(200).json(customer),
+            () -> context.status(404).json(Map.of(
+                "error", "Customer not found",
+                "email", email
+            )));
     }
 
     @Override
@@ -1,17 +1,21 @@
 package io.github.fontysvenlo.ais.restapi;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.fontysvenlo.ais.businesslogic.api.FlightManager;
 import io.github.fontysvenlo.ais.datarecords.FlightData;
+import io.github.fontysvenlo.ais.datarecords.ItineraryRanking;
 import io.javalin.http.Context;
 
 public class FlightResource {
     private static final Logger logger = LoggerFactory.getLogger(FlightResource.class);
+    static final int DEFAULT_LIMIT = 10;
     private final FlightManager flightManager;
 
     public FlightResource(FlightManager flightManager) {
@@ -21,29 +25,74 @@ public class FlightResource {
         this.flightManager = flightManager;
     }
 
+    /**
+     * Searches itineraries and writes them to the response as they are found; see {@link ItineraryStreamWriter}.
+     * - If a parameter is missing, the status is set to 400 (Bad Request).
+     * - Otherwise, the status is set to 200 (OK) and the itineraries are returned as a JSON array of arrays of flights.
+     * - With 'sort' (earliest-arrival, fewest-legs or shortest-duration) or 'limit', only the best 'limit'
+     *   itineraries (default 10) are returned, best first.
+     */
     public void search(Context ctx) {
         
             String departure = ctx.queryParam("departure");
             String arrival = ctx.queryParam("arrival");
             String datetime = ctx.queryParam("datetime");
 
-            logger.info("Received search request with parameters: departure={}, arrival={}, date={}", departure, arrival, datetime);
-
             if (departure == null || arrival == null || datetime == null) {
                 String error = "Missing required parameters: departure, arrival, date";
-                logger.error(error);
                 ctx.status(400).json(Map.of("error", error));
                 return;
             }
 
-            List<List<FlightData>> flights = flightManager.search(departure, arrival, datetime);
-            logger.info("Found {} flights matching the criteria", flights.size());
-            
-            if (flights.isEmpty()) {
-                ctx.json(List.of()); // Return empty array instead of null
-            } else {
-                ctx.json(flights);
+            String sort = ctx.queryParam("sort");
+            String limit = ctx.queryParam("limit");
+            if (sort != null || limit != null) {
+                ItineraryRanking ranking = sort == null ? ItineraryRanking.EARLIEST_ARRIVAL : parseRanking(sort);
+                List<List<FlightData>> best = flightManager.search(departure, arrival, datetime, ranking,
+                        limit == null ? DEFAULT_LIMIT : parseLimit(limit));
+                ctx.status(200).json(best);
+                return;
+            }
+
+            ctx.status(200);
+            ctx.contentType("application/json");
+            ItineraryStreamWriter writer = new ItineraryStreamWriter(ctx::outputStream);
+            Consumer<List<FlightData>> action = logger.isTraceEnabled() ? writer.andThen(FlightResource::logItinerary) : writer;
+            flightManager.search(departure, arrival, datetime, action);
+            writer.finish();
+            // Requests are logged, sampled, by the server's request log; the details only at debug level.
+            if (logger.isDebugEnabled()) {
+                logger.atDebug()
+                        .addKeyValue("departure", departure)
+                        .addKeyValue("arrival", arrival)
+                        .addKeyValue("datetime", datetime)
+                        .addKeyValue("itineraries", writer.written())
+                        .log("Flight search");
             }
         
     }
-} 
\ No newline at end of file
+
+    private static ItineraryRanking parseRanking(String sort) {
+        try {
+            return ItineraryRanking.valueOf(sort.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sort must be earliest-arrival, fewest-legs or shortest-duration");
+        }
+    }
+
+    private static int parseLimit(String limit) {
+        try {
+            return Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Limit must be a number");
+        }
+    }
+
+    private static void logItinerary(List<FlightData> itinerary) {
+        logger.atTrace()
+                .addKeyValue("flights", itinerary.stream().map(FlightData::flightNumber).toList())
+                .addKeyValue("departureTime", itinerary.get(0).departureTime())
+                .addKeyValue("arrivalTime", itinerary.get(itinerary.size() - 1).arrivalTime())
+                .log("Itinerary");
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.fontysvenlo.ais.restapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.fontysvenlo.ais.datarecords.FlightData;
+
+/**
+ * Writes itineraries to the response as a JSON array while they are being found, with Jackson's streaming
+ * generator. Only the itinerary being written is held; the generator's buffer is flushed after the first itinerary
+ * and then every {@value #FLUSH_EVERY}, so the client gets the first bytes early and the response is sent in chunks.
+ * <p>
+ * The response is only opened when the first itinerary arrives, so a search that fails before it finds anything
+ * is still answered by the exception handlers. A search that fails later leaves the array unterminated, which
+ * clients see as invalid JSON.
+ */
+final class ItineraryStreamWriter implements Consumer<List<FlightData>> {
+    static final int FLUSH_EVERY = 256;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Supplier<OutputStream> output;
+    private JsonGenerator generator;
+    private int written;
+
+    /**
+     * Constructor
+     * @param output opens the response body
+     */
+    ItineraryStreamWriter(Supplier<OutputStream> output) {
+        this.output = output;
+    }
+
+    @Override
+    public void accept(List<FlightData> itinerary) {
+        try {
+            if (generator == null) {
+                open();
+            }
+            generator.writeObject(itinerary);
+            written++;
+            if (written == 1 || written % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ends the array, which is empty if no itinerary was written, and flushes it.
+     */
+    void finish() {
+        try {
+            if (generator == null) {
+                open();
+            }
+            generator.writeEndArray();
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The number of itineraries written so far.
+     * @return the number of itineraries
+     */
+    int written() {
+        return written;
+    }
+
+    private void open() throws IOException {
+        generator = MAPPER.createGenerator(output.get());
+        // The servlet closes the response itself.
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.fontysvenlo.ais.restapi;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import io.javalin.http.Context;
+
+/**
+ * Writes a sample of the finished requests to the log, one line each with the method, path, status and duration
+ * as key-value pairs. Failed requests (status 500 and up) are always written. Sampling picks requests at random,
+ * so request threads do not contend on a shared counter; the request metrics count every request.
+ */
+final class RequestLog {
+    private static final Logger logger = LoggerFactory.getLogger(RequestLog.class);
+
+    private final int sampleRate;
+
+    /**
+     * Constructor
+     * @param sampleRate one in how many requests is written, 0 for none
+     */
+    RequestLog(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Request logger: writes the request if it failed or was sampled.
+     * @param ctx the request context
+     * @param executionTimeMs the time Javalin took to handle the request
+     */
+    void log(Context ctx, Float executionTimeMs) {
+        int status = ctx.statusCode();
+        if (status >= 500) {
+            if (logger.isWarnEnabled()) {
+                write(logger.atWarn(), ctx, status, executionTimeMs);
+            }
+        } else if (sampled() && logger.isInfoEnabled()) {
+            write(logger.atInfo(), ctx, status, executionTimeMs);
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate == 1 || sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    private static void write(LoggingEventBuilder event, Context ctx, int status, Float executionTimeMs) {
+        event.addKeyValue("method", ctx.method())
+                .addKeyValue("path", ctx.path())
+                .addKeyValue("status", status)
+                .addKeyValue("durationMs", executionTimeMs)
+                .log("Request handled");
+    }
+}
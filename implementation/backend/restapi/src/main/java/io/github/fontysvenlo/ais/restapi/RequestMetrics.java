@@ -0,0 +1,65 @@
+package io.github.fontysvenlo.ais.restapi;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.fontysvenlo.ais.metrics.Histogram;
+import io.github.fontysvenlo.ais.metrics.MetricRegistry;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+
+/**
+ * Records the latency of every request in a histogram per method and route. The route is the path the request
+ * matched, e.g. /api/v1/flights/{flightId}/capacity, so the number of histograms is bounded by the number of
+ * endpoints; requests that matched no endpoint share the route "unmatched".
+ * <p>
+ * The histograms are found by method and then by route, so a request that has been seen before only does two
+ * map reads and adds to its histogram.
+ */
+final class RequestMetrics {
+    static final String UNMATCHED = "unmatched";
+
+    private final MetricRegistry registry;
+    private final Map<HandlerType, Map<String, Histogram>> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     * @param registry the registry the histograms are registered in
+     */
+    RequestMetrics(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Request logger: records the duration of a finished request.
+     * @param ctx the request context
+     * @param executionTimeMs the time Javalin took to handle the request
+     */
+    void record(Context ctx, Float executionTimeMs) {
+        histogram(ctx.method(), route(ctx)).record((long) (executionTimeMs * 1_000_000.0));
+    }
+
+    private Histogram histogram(HandlerType method, String route) {
+        Map<String, Histogram> byRoute = histograms.get(method);
+        if (byRoute == null) {
+            byRoute = histograms.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+        }
+        Histogram histogram = byRoute.get(route);
+        if (histogram == null) {
+            histogram = byRoute.computeIfAbsent(route, key -> registry.histogram(
+                    "ais_http_request_duration_seconds", "Time to handle a request, by method and matched route.",
+                    Histogram.LATENCY_BOUNDS_NANOS, "method", method.name(), "route", key));
+        }
+        return histogram;
+    }
+
+    private static String route(Context ctx) {
+        try {
+            String path = ctx.endpointHandlerPath();
+            return path == null || path.isEmpty() ? UNMATCHED : path;
+        } catch (IllegalStateException e) {
+            // No endpoint matched: 404, 405 or a request rejected before routing.
+            return UNMATCHED;
+        }
+    }
+}
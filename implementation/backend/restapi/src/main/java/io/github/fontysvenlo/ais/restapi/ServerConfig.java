@@ -1,21 +1,93 @@
 package io.github.fontysvenlo.ais.restapi;
 
+import java.util.Locale;
 import java.util.Properties;
 
 /**
  * Represents the configuration of the REST API server.
  * @param port The port to bind the server to
+ * @param cors The port of the frontend that is allowed to call the server
+ * @param threadMode The kind of threads the request handlers run on
+ * @param maxConcurrentRequests The maximum number of database-backed requests that are handled at the same time, 0 for no limit
+ * @param queueTimeoutMillis How long a request waits for its turn before it is answered with 503
+ * @param requestLogSampleRate One in how many requests is written to the request log, 0 for none; failed
+ *                             requests are always written
  */
-public record ServerConfig(int port, int cors) {
+public record ServerConfig(int port, int cors, ThreadMode threadMode, int maxConcurrentRequests, long queueTimeoutMillis,
+        int requestLogSampleRate) {
+    static final long DEFAULT_QUEUE_TIMEOUT_MILLIS = 5_000;
+    static final int DEFAULT_REQUEST_LOG_SAMPLE_RATE = 100;
+
+    /**
+     * The kind of threads the request handlers run on.
+     */
+    public enum ThreadMode {
+        /** Jetty's pool of platform threads. */
+        PLATFORM,
+        /** A virtual thread per request, so handlers that wait for the database do not hold an OS thread. */
+        VIRTUAL
+    }
+
+    /**
+     * Validates the configuration.
+     */
+    public ServerConfig {
+        if (threadMode == null) {
+            throw new IllegalArgumentException("Thread mode is required");
+        }
+        if (maxConcurrentRequests < 0 || queueTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Concurrency limit and queue timeout cannot be negative");
+        }
+        if (requestLogSampleRate < 0) {
+            throw new IllegalArgumentException("Request log sample rate cannot be negative");
+        }
+    }
+
+    /**
+     * Creates a ServerConfig with the default request log sampling.
+     * @param port The port to bind the server to
+     * @param cors The port of the frontend that is allowed to call the server
+     * @param threadMode The kind of threads the request handlers run on
+     * @param maxConcurrentRequests The maximum number of database-backed requests that are handled at the same time, 0 for no limit
+     * @param queueTimeoutMillis How long a request waits for its turn before it is answered with 503
+     */
+    public ServerConfig(int port, int cors, ThreadMode threadMode, int maxConcurrentRequests, long queueTimeoutMillis) {
+        this(port, cors, threadMode, maxConcurrentRequests, queueTimeoutMillis, DEFAULT_REQUEST_LOG_SAMPLE_RATE);
+    }
+
+    /**
+     * Creates a ServerConfig on platform threads without a concurrency limit.
+     * @param port The port to bind the server to
+     * @param cors The port of the frontend that is allowed to call the server
+     */
+    public ServerConfig(int port, int cors) {
+        this(port, cors, ThreadMode.PLATFORM, 0, DEFAULT_QUEUE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * A copy of this configuration with another concurrency limit.
+     * @param maxConcurrentRequests the maximum number of database-backed requests that are handled at the same time, 0 for no limit
+     * @return the new configuration
+     */
+    public ServerConfig withMaxConcurrentRequests(int maxConcurrentRequests) {
+        return new ServerConfig(port, cors, threadMode, maxConcurrentRequests, queueTimeoutMillis, requestLogSampleRate);
+    }
+
     /**
      * Creates a ServerConfig object from a Properties object.
+     * server.threads (platform or virtual), server.maxConcurrentRequests, server.queueTimeoutMillis and
+     * server.requestLogSampleRate are optional.
      * @param properties the properties object to create the ServerConfig from
      * @return the created ServerConfig object
      */
     public static ServerConfig fromProperties(Properties properties) {
         return new ServerConfig(
             Integer.parseInt(properties.getProperty("backend.port")),
-            Integer.parseInt(properties.getProperty("frontend.port"))
+            Integer.parseInt(properties.getProperty("frontend.port")),
+            ThreadMode.valueOf(properties.getProperty("server.threads", "platform").trim().toUpperCase(Locale.ROOT)),
+            Integer.parseInt(properties.getProperty("server.maxConcurrentRequests", "0")),
+            Long.parseLong(properties.getProperty("server.queueTimeoutMillis", String.valueOf(DEFAULT_QUEUE_TIMEOUT_MILLIS))),
+            Integer.parseInt(properties.getProperty("server.requestLogSampleRate", String.valueOf(DEFAULT_REQUEST_LOG_SAMPLE_RATE)))
         );
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@ module restapi_module {
     requires businesslogic_api_module;
     requires datarecords_module;
     requires persistence_api_module;
+    requires metrics_module;
 
     requires java.logging;
     requires java.base;
@@ -1,6 +1,8 @@
 -- AIS Database Initialization Script
 -- Drop existing tables and views if they exist
 DROP VIEW IF EXISTS FlightAvailability;
+DROP TABLE IF EXISTS flight_seat_counter_deltas;
+DROP TABLE IF EXISTS flight_seat_counters;
 DROP TABLE IF EXISTS Booking;
 DROP TABLE IF EXISTS Passenger;
 DROP TABLE IF EXISTS Classes;
@@ -89,7 +91,61 @@ CREATE TABLE Booking (
     UNIQUE(FlightID, SeatNumber)
 );
 
--- Create FlightAvailability view (required by BookingRepositoryImpl)
+-- Booked seats per flight, so capacity reads are a primary key lookup instead of a COUNT over Booking.
+-- The booking triggers do not update the counter: that would make every booking of a flight wait for the
+-- row lock of its counter until the booking transaction commits, and batch bookings of several flights could
+-- deadlock on each other's counters. They append a delta instead, in the same transaction as the booking;
+-- SeatCounterReconciler in the backend folds the deltas into the counters every few seconds and repairs any drift.
+-- The booked seats of a flight are its counter plus its pending deltas, see booked_seat_count.
+CREATE TABLE flight_seat_counters (
+    flight_id INTEGER PRIMARY KEY REFERENCES flights(id) ON DELETE CASCADE,
+    booked_seats INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE flight_seat_counter_deltas (
+    flight_id INTEGER NOT NULL REFERENCES flights(id) ON DELETE CASCADE,
+    delta INTEGER NOT NULL
+);
+
+CREATE INDEX idx_flight_seat_counter_deltas_flight_id ON flight_seat_counter_deltas(flight_id);
+
+CREATE OR REPLACE FUNCTION booked_seat_count(INTEGER)
+RETURNS INTEGER AS $$
+    SELECT (COALESCE((SELECT booked_seats FROM flight_seat_counters WHERE flight_id = $1), 0)
+        + COALESCE((SELECT SUM(delta) FROM flight_seat_counter_deltas WHERE flight_id = $1), 0))::INTEGER;
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION create_flight_seat_counter()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO flight_seat_counters (flight_id, booked_seats) VALUES (NEW.id, 0)
+    ON CONFLICT (flight_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER flight_seat_counter_created
+AFTER INSERT ON flights
+FOR EACH ROW EXECUTE FUNCTION create_flight_seat_counter();
+
+CREATE OR REPLACE FUNCTION count_booked_seats()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') AND OLD.FlightID IS NOT NULL THEN
+        INSERT INTO flight_seat_counter_deltas (flight_id, delta) VALUES (OLD.FlightID, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.FlightID IS NOT NULL THEN
+        INSERT INTO flight_seat_counter_deltas (flight_id, delta) VALUES (NEW.FlightID, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER booked_seats_counted
+AFTER INSERT OR DELETE OR UPDATE OF FlightID ON Booking
+FOR EACH ROW EXECUTE FUNCTION count_booked_seats();
+
+-- Create FlightAvailability view (availability of all flights; BookingRepositoryImpl queries single flights directly)
 CREATE VIEW FlightAvailability AS
 SELECT 
     f.id AS FlightID,
@@ -97,19 +153,19 @@ SELECT
     f.arrival,
     f.departuretime::DATE::VARCHAR AS date,
     f.totalSeats AS TotalSeats,
-    COALESCE(b.BookedSeats, 0) AS BookedSeats,
-    (f.totalSeats - COALESCE(b.BookedSeats, 0)) AS AvailableSeats,
-    CASE WHEN COALESCE(b.BookedSeats, 0) >= f.totalSeats THEN TRUE ELSE FALSE END AS IsFull,
+    f.booked AS BookedSeats,
+    (f.totalSeats - f.booked) AS AvailableSeats,
+    CASE WHEN f.booked >= f.totalSeats THEN TRUE ELSE FALSE END AS IsFull,
     CASE 
-        WHEN f.totalSeats > 0 THEN ROUND((COALESCE(b.BookedSeats, 0) * 100.0 / f.totalSeats), 2)
+        WHEN f.totalSeats > 0 THEN ROUND((f.booked * 100.0 / f.totalSeats), 2)
         ELSE 0.0 
     END AS OccupancyPercentage
-FROM flights f
-LEFT JOIN (
-    SELECT FlightID, COUNT(*) AS BookedSeats
-    FROM Booking
-    GROUP BY FlightID
-) b ON f.id = b.FlightID;
+FROM (
+    SELECT fl.*, COALESCE(c.booked_seats, 0) + COALESCE(d.delta, 0) AS booked
+    FROM flights fl
+    LEFT JOIN flight_seat_counters c ON c.flight_id = fl.id
+    LEFT JOIN (SELECT flight_id, SUM(delta) AS delta FROM flight_seat_counter_deltas GROUP BY flight_id) d ON d.flight_id = fl.id
+) f;
 
 -- Insert sample data
 
@@ -192,9 +248,19 @@ INSERT INTO Booking (FlightID, Price, DiscountID, Luggage, Food, ClassType, Seat
 CREATE INDEX idx_booking_flight_id ON Booking(FlightID);
 CREATE INDEX idx_booking_customer_email ON Booking(CustomerEmail);
 CREATE INDEX idx_booking_seat ON Booking(FlightID, SeatNumber);
-CREATE INDEX idx_flight_search ON flights(departure, arrival, departuretime);
+-- Flight search: every step of the recursive search scans the flights leaving one airport in a departure time window.
+-- Airports are matched regardless of case, so the index is on lower(departure).
+CREATE INDEX idx_flight_search ON flights(lower(departure), departuretime) INCLUDE (arrival, arrivaltime, id);
 CREATE INDEX idx_customer_email ON Customer(Email);
 
+-- Customer search: lower() prefix indexes for name prefixes, trigram indexes for fuzzy names and phone digits
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_customer_lastname_prefix ON Customer (lower(LastName) text_pattern_ops);
+CREATE INDEX idx_customer_firstname_prefix ON Customer (lower(FirstName) text_pattern_ops);
+CREATE INDEX idx_customer_lastname_trgm ON Customer USING gin (lower(LastName) gin_trgm_ops);
+CREATE INDEX idx_customer_firstname_trgm ON Customer USING gin (lower(FirstName) gin_trgm_ops);
+CREATE INDEX idx_customer_phone_digits_trgm ON Customer USING gin (regexp_replace(Phone, '[^0-9]', '', 'g') gin_trgm_ops);
+
 -- Create missing functions that BookingRepositoryImpl expects
 
 -- Function to check if flight is full
@@ -202,11 +268,9 @@ CREATE OR REPLACE FUNCTION is_flight_full(flight_id INTEGER)
 RETURNS BOOLEAN AS $$
 BEGIN
     RETURN (
-        SELECT COALESCE(COUNT(*), 0) >= f.totalSeats
-        FROM Booking b
-        RIGHT JOIN flights f ON f.id = flight_id
-        WHERE b.FlightID = flight_id
-        GROUP BY f.totalSeats
+        SELECT booked_seat_count(f.id) >= f.totalSeats
+        FROM flights f
+        WHERE f.id = flight_id
     );
 END;
 $$ LANGUAGE plpgsql;
@@ -216,11 +280,9 @@ CREATE OR REPLACE FUNCTION get_available_seats_count(flight_id INTEGER)
 RETURNS INTEGER AS $$
 BEGIN
     RETURN (
-        SELECT f.totalSeats - COALESCE(COUNT(b.ID), 0)
+        SELECT f.totalSeats - booked_seat_count(f.id)
         FROM flights f
-        LEFT JOIN Booking b ON b.FlightID = f.id
         WHERE f.id = flight_id
-        GROUP BY f.totalSeats
     );
 END;
 $$ LANGUAGE plpgsql;
@@ -265,6 +327,37 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
+-- Notify listeners (the in-memory timetable of the backend) about changes to flights.
+-- Payload: OPERATION:id[:previous departure airport]
+CREATE OR REPLACE FUNCTION notify_flights_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM pg_notify('flights_changed', 'TRUNCATE');
+    ELSIF TG_OP = 'INSERT' THEN
+        PERFORM pg_notify('flights_changed', 'INSERT:' || NEW.id);
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.id <> NEW.id THEN
+            PERFORM pg_notify('flights_changed', 'DELETE:' || OLD.id || ':' || OLD.departure);
+            PERFORM pg_notify('flights_changed', 'INSERT:' || NEW.id);
+        ELSE
+            PERFORM pg_notify('flights_changed', 'UPDATE:' || NEW.id || ':' || OLD.departure);
+        END IF;
+    ELSE
+        PERFORM pg_notify('flights_changed', 'DELETE:' || OLD.id || ':' || OLD.departure);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER flights_changed
+AFTER INSERT OR UPDATE OR DELETE ON flights
+FOR EACH ROW EXECUTE FUNCTION notify_flights_changed();
+
+CREATE TRIGGER flights_truncated
+AFTER TRUNCATE ON flights
+FOR EACH STATEMENT EXECUTE FUNCTION notify_flights_changed();
+
 -- Grant permissions (if needed)
 -- GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO aisdemouser;
 -- GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO aisdemouser;